@@ -41,8 +41,11 @@ import androidx.annotation.Nullable;
 
 import com.android.settings.activityembedding.ActivityEmbeddingRulesController;
 import com.android.settings.activityembedding.ActivityEmbeddingUtils;
+import com.android.settings.applications.AppIconLabelCache;
 import com.android.settings.biometrics.fingerprint2.BiometricsEnvironment;
+import com.android.settings.core.StartupScheduler;
 import com.android.settings.core.instrumentation.ElapsedTimeUtils;
+import com.android.settings.core.instrumentation.SettingsMetricsFeatureProvider;
 import com.android.settings.development.DeveloperOptionsActivityLifecycle;
 import com.android.settings.flags.Flags;
 import com.android.settings.fuelgauge.BatterySettingsStorage;
@@ -54,6 +57,7 @@ import com.android.settings.overlay.FeatureFactory;
 import com.android.settings.overlay.FeatureFactoryImpl;
 import com.android.settings.spa.SettingsSpaEnvironment;
 import com.android.settingslib.applications.AppIconCacheManager;
+import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 import com.android.settingslib.datastore.BackupRestoreStorageManager;
 import com.android.settingslib.metadata.FixedArrayMap;
 import com.android.settingslib.metadata.PreferenceScreenMetadataFactory;
@@ -80,6 +84,7 @@ public class SettingsApplication extends Application {
         public void onReceive(Context context, Intent intent) {
             String action = intent.getAction();
             if (action.equals(TelephonyManager.ACTION_MULTI_SIM_CONFIG_CHANGED)) {
+                flushMetrics();
                 System.exit(0);
             }
         }
@@ -113,7 +118,11 @@ public class SettingsApplication extends Application {
             ElapsedTimeUtils.assignSuwFinishedTimeStamp(getApplicationContext());
         }
 
-        TelephonyUtils.connectExtTelephonyService(getApplicationContext());
+        // Nothing on the startup path needs these, run them once the main thread is idle.
+        final StartupScheduler startupScheduler = new StartupScheduler(TAG);
+        startupScheduler.schedule(StartupScheduler.STAGE_IDLE, "connectExtTelephonyService",
+                () -> TelephonyUtils.connectExtTelephonyService(getApplicationContext()));
+        startupScheduler.start(/* view= */ null);
 
         // Set Spa environment.
         setSpaEnvironment();
@@ -193,6 +202,19 @@ public class SettingsApplication extends Application {
     public void onTrimMemory(int level) {
         super.onTrimMemory(level);
         AppIconCacheManager.getInstance().trimMemory(level);
+        AppIconLabelCache.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // The process may be killed at any time from here on, don't lose pending metrics.
+            flushMetrics();
+        }
+    }
+
+    private void flushMetrics() {
+        final MetricsFeatureProvider metricsFeatureProvider =
+                FeatureFactory.getFeatureFactory().getMetricsFeatureProvider();
+        if (metricsFeatureProvider instanceof SettingsMetricsFeatureProvider) {
+            ((SettingsMetricsFeatureProvider) metricsFeatureProvider).flush();
+        }
     }
 
     private class DeviceProvisionedObserver extends ContentObserver {
@@ -411,6 +411,7 @@ public abstract class SettingsPreferenceFragment extends InstrumentedPreferenceF
         }
         mAdapter = new HighlightablePreferenceGroupAdapter(preferenceScreen, key,
                 mPreferenceHighlighted);
+        mAdapter.setPageLatencyTracker(mPageLatencyTracker);
         return mAdapter;
     }
 
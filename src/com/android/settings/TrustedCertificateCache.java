@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings;
+
+import android.net.http.SslCertificate;
+import android.os.RemoteException;
+import android.security.IKeyChainService;
+import android.security.KeyChain;
+import android.util.ArrayMap;
+import android.util.ArraySet;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.android.internal.annotations.GuardedBy;
+import com.android.settings.TrustedCredentialsSettings.Tab;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parsed CA certificates of the KeyChain of each profile, shared by the trusted credentials tabs.
+ *
+ * <p>Entries are kept by alias together with the SHA-256 fingerprint of their encoded form. System
+ * aliases name read-only certificates of the system image, so they are parsed once per process.
+ * User aliases are few and may be reused for another certificate, so their encoded form is fetched
+ * again and only parsed if its fingerprint changed. Aliases which are no longer listed by KeyChain
+ * are dropped whenever a tab reloads its aliases.
+ */
+final class TrustedCertificateCache {
+
+    private static final String SYSTEM_ALIAS_PREFIX = "system:";
+
+    private static final TrustedCertificateCache sInstance = new TrustedCertificateCache();
+
+    @GuardedBy("this")
+    private final SparseArray<Map<String, Entry>> mEntriesByUserId = new SparseArray<>();
+
+    static TrustedCertificateCache getInstance() {
+        return sInstance;
+    }
+
+    private TrustedCertificateCache() {}
+
+    /** A parsed certificate and the subject lines shown for it in the list. */
+    static final class Entry {
+        final X509Certificate mCertificate;
+        final String mSubjectPrimary;
+        final String mSubjectSecondary;
+        private final byte[] mFingerprint;
+
+        private Entry(X509Certificate certificate, byte[] fingerprint) {
+            mCertificate = certificate;
+            mFingerprint = fingerprint;
+
+            final SslCertificate sslCert = new SslCertificate(certificate);
+            String cn = sslCert.getIssuedTo().getCName();
+            String o = sslCert.getIssuedTo().getOName();
+            String ou = sslCert.getIssuedTo().getUName();
+            // if we have a O, use O as primary subject, secondary prefer CN over OU
+            // if we don't have an O, use CN as primary, empty secondary
+            // if we don't have O or CN, use DName as primary, empty secondary
+            if (!o.isEmpty()) {
+                if (!cn.isEmpty()) {
+                    mSubjectPrimary = o;
+                    mSubjectSecondary = cn;
+                } else {
+                    mSubjectPrimary = o;
+                    mSubjectSecondary = ou;
+                }
+            } else {
+                if (!cn.isEmpty()) {
+                    mSubjectPrimary = cn;
+                    mSubjectSecondary = "";
+                } else {
+                    mSubjectPrimary = sslCert.getIssuedTo().getDName();
+                    mSubjectSecondary = "";
+                }
+            }
+        }
+    }
+
+    /** Returns the certificate of the alias, fetching and parsing it only if it changed. */
+    @WorkerThread
+    @NonNull
+    Entry get(@NonNull IKeyChainService service, int userId, @NonNull String alias)
+            throws RemoteException {
+        Entry cached = getCached(userId, alias);
+        if (cached != null && alias.startsWith(SYSTEM_ALIAS_PREFIX)) {
+            return cached;
+        }
+        final byte[] encodedCertificate = service.getEncodedCaCertificate(alias, true);
+        final byte[] fingerprint = fingerprint(encodedCertificate);
+        if (cached != null && Arrays.equals(cached.mFingerprint, fingerprint)) {
+            return cached;
+        }
+        final Entry entry =
+                new Entry(KeyChain.toCertificate(encodedCertificate), fingerprint);
+        synchronized (this) {
+            Map<String, Entry> entries = mEntriesByUserId.get(userId);
+            if (entries == null) {
+                entries = new ArrayMap<>();
+                mEntriesByUserId.put(userId, entries);
+            }
+            entries.put(alias, entry);
+        }
+        return entry;
+    }
+
+    /** Drops the certificates of the tab whose aliases aren't listed by KeyChain anymore. */
+    synchronized void retainAliases(int userId, @NonNull Tab tab, @NonNull List<String> aliases) {
+        final Map<String, Entry> entries = mEntriesByUserId.get(userId);
+        if (entries == null) {
+            return;
+        }
+        final Set<String> listed = new ArraySet<>(aliases);
+        final boolean systemTab = tab == Tab.SYSTEM;
+        entries.keySet().removeIf(alias ->
+                alias.startsWith(SYSTEM_ALIAS_PREFIX) == systemTab && !listed.contains(alias));
+    }
+
+    @Nullable
+    private synchronized Entry getCached(int userId, String alias) {
+        final Map<String, Entry> entries = mEntriesByUserId.get(userId);
+        return entries != null ? entries.get(alias) : null;
+    }
+
+    private static byte[] fingerprint(byte[] encodedCertificate) {
+        if (encodedCertificate == null) {
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(encodedCertificate);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -34,7 +34,6 @@ import android.content.pm.UserInfo;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
 import android.graphics.drawable.Drawable;
-import android.net.http.SslCertificate;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.os.Parcelable;
@@ -97,6 +96,8 @@ public class TrustedCredentialsFragment extends ObservableFragment
     private static final String SAVED_CONFIRMED_CREDENTIAL_USERS = "ConfirmedCredentialUsers";
     private static final String SAVED_CONFIRMING_CREDENTIAL_USER = "ConfirmingCredentialUser";
     private static final int REQUEST_CONFIRM_CREDENTIALS = 1;
+    // Number of certificates shown at a time while the aliases are loading.
+    private static final int PAGE_SIZE = 20;
 
     private GroupAdapter mGroupAdapter;
     private AliasOperation mAliasOperation;
@@ -692,17 +693,22 @@ public class TrustedCredentialsFragment extends ObservableFragment
             mTab = tab;
         }
 
-        private class AliasLoader extends AsyncTask<Void, Integer, SparseArray<List<CertHolder>>> {
+        private class AliasLoader
+                extends AsyncTask<Void, AliasPage, SparseArray<List<CertHolder>>> {
             private ProgressBar mProgressBar;
             private View mContentView;
             private Context mContext;
+            // The lists this loader fills, pages are dropped once a newer loader replaced them.
+            private final SparseArray<List<CertHolder>> mShownCertHolders = new SparseArray<>();
 
             AliasLoader() {
                 mContext = getActivity();
                 mAliasLoaders.add(this);
                 List<UserHandle> profiles = mUserManager.getUserProfiles();
                 for (UserHandle profile : profiles) {
-                    mCertHoldersByUserId.put(profile.getIdentifier(), new ArrayList<>());
+                    List<CertHolder> certHolders = new ArrayList<>();
+                    mCertHoldersByUserId.put(profile.getIdentifier(), certHolders);
+                    mShownCertHolders.put(profile.getIdentifier(), certHolders);
                 }
             }
 
@@ -723,6 +729,7 @@ public class TrustedCredentialsFragment extends ObservableFragment
             protected SparseArray<List<CertHolder>> doInBackground(Void... params) {
                 SparseArray<List<CertHolder>> certHoldersByProfile =
                         new SparseArray<>();
+                TrustedCertificateCache certificateCache = TrustedCertificateCache.getInstance();
                 try {
                     synchronized (mKeyChainConnectionByProfileId) {
                         List<UserHandle> profiles = mUserManager.getUserProfiles();
@@ -746,6 +753,7 @@ public class TrustedCredentialsFragment extends ObservableFragment
                             if (isCancelled()) {
                                 return new SparseArray<>();
                             }
+                            certificateCache.retainAliases(profileId, mTab, aliases);
                             max += aliases.size();
                             aliasesByProfileId.put(profileId, aliases);
                         }
@@ -765,13 +773,22 @@ public class TrustedCredentialsFragment extends ObservableFragment
                             }
                             IKeyChainService service = keyChainConnection.getService();
                             List<CertHolder> certHolders = new ArrayList<>(max);
+                            List<CertHolder> page = new ArrayList<>(PAGE_SIZE);
                             for (String alias : aliases) {
-                                byte[] encodedCertificate = service.getEncodedCaCertificate(alias,
-                                        true);
-                                X509Certificate cert = KeyChain.toCertificate(encodedCertificate);
-                                certHolders.add(new CertHolder(service, mAdapter,
-                                        mTab, alias, cert, profileId));
-                                publishProgress(++progress, max);
+                                TrustedCertificateCache.Entry certificate =
+                                        certificateCache.get(service, profileId, alias);
+                                CertHolder certHolder = new CertHolder(service, mAdapter,
+                                        mTab, alias, certificate, profileId);
+                                certHolders.add(certHolder);
+                                page.add(certHolder);
+                                progress++;
+                                if (page.size() == PAGE_SIZE) {
+                                    publishProgress(new AliasPage(profileId, page, progress, max));
+                                    page = new ArrayList<>(PAGE_SIZE);
+                                }
+                            }
+                            if (!page.isEmpty()) {
+                                publishProgress(new AliasPage(profileId, page, progress, max));
                             }
                             Collections.sort(certHolders);
                             certHoldersByProfile.put(profileId, certHolders);
@@ -788,13 +805,27 @@ public class TrustedCredentialsFragment extends ObservableFragment
             }
 
             @Override
-            protected void onProgressUpdate(Integer... progressAndMax) {
-                int progress = progressAndMax[0];
-                int max = progressAndMax[1];
-                if (max != mProgressBar.getMax()) {
-                    mProgressBar.setMax(max);
+            protected void onProgressUpdate(AliasPage... pages) {
+                for (AliasPage page : pages) {
+                    List<CertHolder> certHolders = mCertHoldersByUserId.get(page.mProfileId);
+                    if (certHolders == null
+                            || certHolders != mShownCertHolders.get(page.mProfileId)) {
+                        continue;
+                    }
+                    // Keep the shown list sorted while the rest of the aliases are loading.
+                    for (CertHolder certHolder : page.mCertHolders) {
+                        int index = Collections.binarySearch(certHolders, certHolder);
+                        certHolders.add(index < 0 ? -index - 1 : index, certHolder);
+                    }
+                    if (page.mMax != mProgressBar.getMax()) {
+                        mProgressBar.setMax(page.mMax);
+                    }
+                    mProgressBar.setProgress(page.mProgress);
                 }
-                mProgressBar.setProgress(progress);
+                mAdapter.notifyDataSetChanged();
+                // The first page replaces the spinner, later pages are added to the list.
+                mProgressBar.setVisibility(View.GONE);
+                mContentView.setVisibility(View.VISIBLE);
             }
 
             @Override
@@ -852,6 +883,21 @@ public class TrustedCredentialsFragment extends ObservableFragment
         }
     }
 
+    /** Certificates of a profile loaded since the previous page. */
+    private static class AliasPage {
+        private final int mProfileId;
+        private final List<CertHolder> mCertHolders;
+        private final int mProgress;
+        private final int mMax;
+
+        private AliasPage(int profileId, List<CertHolder> certHolders, int progress, int max) {
+            mProfileId = profileId;
+            mCertHolders = certHolders;
+            mProgress = progress;
+            mMax = max;
+        }
+    }
+
     /* package */ static class CertHolder implements Comparable<CertHolder> {
         public int mProfileId;
         private final IKeyChainService mService;
@@ -860,7 +906,6 @@ public class TrustedCredentialsFragment extends ObservableFragment
         private final String mAlias;
         private final X509Certificate mX509Cert;
 
-        private final SslCertificate mSslCert;
         private final String mSubjectPrimary;
         private final String mSubjectSecondary;
         private boolean mDeleted;
@@ -869,40 +914,16 @@ public class TrustedCredentialsFragment extends ObservableFragment
                 GroupAdapter adapter,
                 Tab tab,
                 String alias,
-                X509Certificate x509Cert,
+                TrustedCertificateCache.Entry certificate,
                 int profileId) {
             mProfileId = profileId;
             mService = service;
             mAdapter = adapter;
             mTab = tab;
             mAlias = alias;
-            mX509Cert = x509Cert;
-
-            mSslCert = new SslCertificate(x509Cert);
-
-            String cn = mSslCert.getIssuedTo().getCName();
-            String o = mSslCert.getIssuedTo().getOName();
-            String ou = mSslCert.getIssuedTo().getUName();
-            // if we have a O, use O as primary subject, secondary prefer CN over OU
-            // if we don't have an O, use CN as primary, empty secondary
-            // if we don't have O or CN, use DName as primary, empty secondary
-            if (!o.isEmpty()) {
-                if (!cn.isEmpty()) {
-                    mSubjectPrimary = o;
-                    mSubjectSecondary = cn;
-                } else {
-                    mSubjectPrimary = o;
-                    mSubjectSecondary = ou;
-                }
-            } else {
-                if (!cn.isEmpty()) {
-                    mSubjectPrimary = cn;
-                    mSubjectSecondary = "";
-                } else {
-                    mSubjectPrimary = mSslCert.getIssuedTo().getDName();
-                    mSubjectSecondary = "";
-                }
-            }
+            mX509Cert = certificate.mCertificate;
+            mSubjectPrimary = certificate.mSubjectPrimary;
+            mSubjectSecondary = certificate.mSubjectSecondary;
             try {
                 mDeleted = mTab.deleted(mService, mAlias);
             } catch (RemoteException e) {
@@ -987,9 +1008,8 @@ public class TrustedCredentialsFragment extends ObservableFragment
                 List<String> chain = service.getCaCertificateChainAliases(certHolder.mAlias, true);
                 certificates = new ArrayList<>(chain.size());
                 for (String s : chain) {
-                    byte[] encodedCertificate = service.getEncodedCaCertificate(s, true);
-                    X509Certificate certificate = KeyChain.toCertificate(encodedCertificate);
-                    certificates.add(certificate);
+                    certificates.add(TrustedCertificateCache.getInstance()
+                            .get(service, certHolder.mProfileId, s).mCertificate);
                 }
             }
         } catch (RemoteException ex) {
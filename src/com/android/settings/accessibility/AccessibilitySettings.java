@@ -36,6 +36,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
+import androidx.preference.PreferenceGroup;
 
 import com.android.internal.accessibility.AccessibilityShortcutController;
 import com.android.internal.accessibility.util.AccessibilityUtils;
@@ -55,6 +56,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /** Activity with the accessibility settings. */
 @SearchIndexable(forTarget = SearchIndexable.ALL & ~SearchIndexable.ARC)
@@ -103,6 +105,12 @@ public class AccessibilitySettings extends DashboardFragment implements
     // presentation.
     private static final long DELAY_UPDATE_SERVICES_MILLIS = 1000;
 
+    // Bits of the state a service row is built with, see getServiceRowState().
+    private static final int ROW_STATE_ENABLED = 1;
+    private static final int ROW_STATE_SHORTCUT_ENABLED = 1 << 1;
+    private static final int ROW_STATE_CRASHED = 1 << 2;
+    private static final int ROW_STATE_ALLOWED = 1 << 3;
+
     private final Handler mHandler = new Handler();
 
     private final Runnable mUpdateRunnable = new Runnable() {
@@ -152,6 +160,12 @@ public class AccessibilitySettings extends DashboardFragment implements
     private final List<Preference> mServicePreferences = new ArrayList<>();
     private final Map<ComponentName, PreferenceCategory> mPreBundledServiceComponentToCategoryMap =
             new ArrayMap<>();
+    // State each service row was built with, rows are only rebuilt when it changes.
+    private final Map<ComponentName, Integer> mServiceRowStates = new ArrayMap<>();
+
+    // Installed services and shortcuts, reloaded only when packages or input devices change.
+    private List<AccessibilityShortcutInfo> mInstalledShortcutList;
+    private List<AccessibilityServiceInfo> mInstalledServiceList;
 
     private boolean mNeedPreferencesUpdate = false;
     private boolean mIsForeground = true;
@@ -181,7 +195,7 @@ public class AccessibilitySettings extends DashboardFragment implements
         shortcutFeatureKeys.add(Settings.Secure.ACCESSIBILITY_SLOW_KEYS);
         shortcutFeatureKeys.add(Settings.Secure.ACCESSIBILITY_BOUNCE_KEYS);
         mSettingsContentObserver.registerKeysToObserverCallback(shortcutFeatureKeys,
-                key -> onContentChanged());
+                key -> onSettingsChanged());
     }
 
     @Override
@@ -315,6 +329,14 @@ public class AccessibilitySettings extends DashboardFragment implements
 
     @VisibleForTesting
     void onContentChanged() {
+        // Services may have been installed, removed or updated, reload them on the next update.
+        mInstalledShortcutList = null;
+        mInstalledServiceList = null;
+        onSettingsChanged();
+    }
+
+    @VisibleForTesting
+    void onSettingsChanged() {
         // If the fragment is visible then update preferences immediately, else set the flag then
         // wait for the fragment to show up to update preferences.
         if (mIsForeground) {
@@ -333,7 +355,11 @@ public class AccessibilitySettings extends DashboardFragment implements
 
     @VisibleForTesting
     void updateAllPreferences() {
-        updateServicePreferences();
+        if (mInstalledShortcutList == null || mInstalledServiceList == null) {
+            updateServicePreferences();
+        } else {
+            updateChangedServicePreferences();
+        }
         updatePreferencesState();
         updateSystemPreferences();
     }
@@ -401,8 +427,21 @@ public class AccessibilitySettings extends DashboardFragment implements
                         UserHandle.myUserId());
         final List<AccessibilityServiceInfo> installedServiceList =
                 a11yManager.getInstalledAccessibilityServiceList();
-        final List<RestrictedPreference> preferenceList = getInstalledAccessibilityPreferences(
-                getPrefContext(), installedShortcutList, installedServiceList);
+        mInstalledShortcutList = installedShortcutList;
+        mInstalledServiceList = installedServiceList;
+        mServiceRowStates.clear();
+        final Set<ComponentName> enabledServices =
+                AccessibilityUtils.getEnabledServicesFromSettings(getPrefContext());
+        final RestrictedPreferenceHelper helper = new RestrictedPreferenceHelper(getPrefContext());
+        final List<String> permittedServices = helper.getPermittedServices();
+        for (AccessibilityServiceInfo info : installedServiceList) {
+            mServiceRowStates.put(getServiceComponentName(info), getServiceRowState(
+                    getPrefContext(), info, enabledServices, helper, permittedServices,
+                    /* noteOp= */ true));
+        }
+        final List<RestrictedPreference> preferenceList = new ArrayList<>(
+                helper.createAccessibilityActivityPreferenceList(installedShortcutList));
+        preferenceList.addAll(createServicePreferences(helper, installedServiceList));
 
         removeNonPreinstalledComponents(mPreBundledServiceComponentToCategoryMap,
                 installedShortcutList, installedServiceList);
@@ -449,6 +488,118 @@ public class AccessibilitySettings extends DashboardFragment implements
         updatePreferenceCategoryVisibility(CATEGORY_SPEECH);
     }
 
+    /**
+     * Rebuilds only the service rows whose state changed since they were built, keeping their
+     * position in the list. The installed services are fetched again for their crashed state, and
+     * all rows are rebuilt if a service was added or removed.
+     */
+    private void updateChangedServicePreferences() {
+        final List<AccessibilityServiceInfo> installedServiceList =
+                AccessibilityManager.getInstance(getPrefContext())
+                        .getInstalledAccessibilityServiceList();
+        if (!hasSameServices(installedServiceList, mInstalledServiceList)) {
+            updateServicePreferences();
+            return;
+        }
+        mInstalledServiceList = installedServiceList;
+
+        final Set<ComponentName> enabledServices =
+                AccessibilityUtils.getEnabledServicesFromSettings(getPrefContext());
+        final RestrictedPreferenceHelper helper = new RestrictedPreferenceHelper(getPrefContext());
+        final List<String> permittedServices = helper.getPermittedServices();
+        final List<AccessibilityServiceInfo> changedServices = new ArrayList<>();
+        for (AccessibilityServiceInfo info : installedServiceList) {
+            final ComponentName componentName = getServiceComponentName(info);
+            final int state = getServiceRowState(getPrefContext(), info, enabledServices, helper,
+                    permittedServices, /* noteOp= */ false);
+            final Integer oldState = mServiceRowStates.put(componentName, state);
+            if (oldState == null || oldState != state) {
+                changedServices.add(info);
+            }
+        }
+        if (changedServices.isEmpty()) {
+            return;
+        }
+
+        final List<RestrictedPreference> changedPreferences =
+                createServicePreferences(helper, changedServices);
+        for (RestrictedPreference preference : changedPreferences) {
+            for (int i = 0, count = mServicePreferences.size(); i < count; i++) {
+                final Preference oldPreference = mServicePreferences.get(i);
+                if (!TextUtils.equals(oldPreference.getKey(), preference.getKey())) {
+                    continue;
+                }
+                final PreferenceGroup parent = oldPreference.getParent();
+                preference.setOrder(oldPreference.getOrder());
+                parent.removePreference(oldPreference);
+                parent.addPreference(preference);
+                mServicePreferences.set(i, preference);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Creates the rows of the given services from the state in {@link #mServiceRowStates}, so
+     * their restrictions are not checked again.
+     */
+    private List<RestrictedPreference> createServicePreferences(RestrictedPreferenceHelper helper,
+            List<AccessibilityServiceInfo> services) {
+        final List<RestrictedPreference> preferences = new ArrayList<>(services.size());
+        for (AccessibilityServiceInfo info : services) {
+            final int state = mServiceRowStates.get(getServiceComponentName(info));
+            preferences.add(helper.createAccessibilityServicePreference(info,
+                    (state & ROW_STATE_ENABLED) != 0, (state & ROW_STATE_ALLOWED) != 0));
+        }
+        return preferences;
+    }
+
+    /**
+     * Returns the state of the given service that its row depends on, combining its enabled and
+     * crashed state, whether it is allowed by restrictions and, for services without a toggle,
+     * the state of its shortcut.
+     */
+    private static int getServiceRowState(Context context, AccessibilityServiceInfo info,
+            Set<ComponentName> enabledServices, RestrictedPreferenceHelper helper,
+            List<String> permittedServices, boolean noteOp) {
+        final ComponentName componentName = getServiceComponentName(info);
+        int state = enabledServices.contains(componentName) ? ROW_STATE_ENABLED : 0;
+        if (info.crashed) {
+            state |= ROW_STATE_CRASHED;
+        }
+        if (helper.isServiceAllowed(componentName.getPackageName(),
+                info.getResolveInfo().serviceInfo.applicationInfo.uid, permittedServices,
+                noteOp)) {
+            state |= ROW_STATE_ALLOWED;
+        }
+        if (AccessibilityUtil.getAccessibilityServiceFragmentType(info)
+                == AccessibilityServiceFragmentType.INVISIBLE_TOGGLE
+                && AccessibilityUtil.getUserShortcutTypesFromSettings(context, componentName)
+                != DEFAULT) {
+            state |= ROW_STATE_SHORTCUT_ENABLED;
+        }
+        return state;
+    }
+
+    private static boolean hasSameServices(List<AccessibilityServiceInfo> services,
+            List<AccessibilityServiceInfo> oldServices) {
+        if (services.size() != oldServices.size()) {
+            return false;
+        }
+        for (int i = 0, count = services.size(); i < count; i++) {
+            if (!getServiceComponentName(services.get(i)).equals(
+                    getServiceComponentName(oldServices.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ComponentName getServiceComponentName(AccessibilityServiceInfo info) {
+        return new ComponentName(info.getResolveInfo().serviceInfo.packageName,
+                info.getResolveInfo().serviceInfo.name);
+    }
+
     /**
      * Gets a list of {@link RestrictedPreference}s for the provided a11y shortcuts and services.
      *
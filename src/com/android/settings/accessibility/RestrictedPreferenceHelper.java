@@ -20,14 +20,18 @@ import android.accessibilityservice.AccessibilityServiceInfo;
 import android.accessibilityservice.AccessibilityShortcutInfo;
 import android.app.AppOpsManager;
 import android.app.admin.DevicePolicyManager;
+import android.app.ecm.EnhancedConfirmationManager;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.pm.ActivityInfo;
+import android.content.pm.PackageManager.NameNotFoundException;
 import android.content.pm.ResolveInfo;
 import android.os.Bundle;
 import android.os.UserHandle;
 import android.text.TextUtils;
 
+import androidx.annotation.Nullable;
+
 import com.android.settings.R;
 import com.android.settingslib.RestrictedLockUtils;
 import com.android.settingslib.RestrictedLockUtilsInternal;
@@ -67,8 +71,7 @@ public class RestrictedPreferenceHelper {
 
         final Set<ComponentName> enabledServices =
                 AccessibilityUtils.getEnabledServicesFromSettings(mContext);
-        final List<String> permittedServices = mDpm.getPermittedAccessibilityServices(
-                UserHandle.myUserId());
+        final List<String> permittedServices = getPermittedServices();
         final int installedServicesSize = installedServices.size();
 
         final List<RestrictedPreference> preferenceList = new ArrayList<>(
@@ -81,16 +84,80 @@ public class RestrictedPreferenceHelper {
             final ComponentName componentName = new ComponentName(packageName,
                     resolveInfo.serviceInfo.name);
             final boolean serviceEnabled = enabledServices.contains(componentName);
+            final boolean serviceAllowed = isServiceAllowed(packageName,
+                    resolveInfo.serviceInfo.applicationInfo.uid, permittedServices,
+                    /* noteOp= */ true);
 
-            RestrictedPreference preference = new AccessibilityServicePreference(
-                    mContext, packageName, resolveInfo.serviceInfo.applicationInfo.uid,
-                    info, serviceEnabled);
-            setRestrictedPreferenceEnabled(preference, permittedServices, serviceEnabled);
-            preferenceList.add(preference);
+            preferenceList.add(
+                    createAccessibilityServicePreference(info, serviceEnabled, serviceAllowed));
         }
         return preferenceList;
     }
 
+    /**
+     * Creates the {@link RestrictedPreference} of an accessibility service whose restrictions
+     * were already checked with {@link #isServiceAllowed}.
+     *
+     * @param info The {@link AccessibilityServiceInfo} of the installed service
+     * @param serviceEnabled Whether the service is enabled
+     * @param serviceAllowed Whether the service is allowed by the device policy and by enhanced
+     *                       confirmation
+     * @return The {@link RestrictedPreference} of the service
+     */
+    RestrictedPreference createAccessibilityServicePreference(AccessibilityServiceInfo info,
+            boolean serviceEnabled, boolean serviceAllowed) {
+        final ResolveInfo resolveInfo = info.getResolveInfo();
+        final RestrictedPreference preference = new AccessibilityServicePreference(
+                mContext, resolveInfo.serviceInfo.packageName,
+                resolveInfo.serviceInfo.applicationInfo.uid, info, serviceEnabled);
+        setRestrictedPreferenceEnabled(preference, serviceEnabled, serviceAllowed);
+        return preference;
+    }
+
+    /** Returns the accessibility services permitted by the device policy, or null for all. */
+    @Nullable
+    List<String> getPermittedServices() {
+        return mDpm.getPermittedAccessibilityServices(UserHandle.myUserId());
+    }
+
+    /**
+     * Returns whether the service is allowed by the device policy and by enhanced confirmation.
+     *
+     * @param permittedServices The result of {@link #getPermittedServices()}
+     * @param noteOp Whether to note the restricted settings app op, as when the service is
+     *               shown to the user, instead of only checking it
+     */
+    boolean isServiceAllowed(String packageName, int uid,
+            @Nullable List<String> permittedServices, boolean noteOp) {
+        // permittedServices null means all accessibility services are allowed.
+        if (permittedServices != null && !permittedServices.contains(packageName)) {
+            return false;
+        }
+        if (android.permission.flags.Flags.enhancedConfirmationModeApisEnabled()
+                && android.security.Flags.extendEcmToAllSettings()) {
+            try {
+                return !mContext.getSystemService(EnhancedConfirmationManager.class).isRestricted(
+                        packageName, AppOpsManager.OPSTR_BIND_ACCESSIBILITY_SERVICE);
+            } catch (NameNotFoundException e) {
+                return false;
+            }
+        }
+        try {
+            final int mode = noteOp
+                    ? mAppOps.noteOpNoThrow(
+                            AppOpsManager.OP_ACCESS_RESTRICTED_SETTINGS, uid, packageName)
+                    : mAppOps.checkOpNoThrow(
+                            AppOpsManager.OP_ACCESS_RESTRICTED_SETTINGS, uid, packageName);
+            final boolean ecmEnabled = mContext.getResources().getBoolean(
+                    com.android.internal.R.bool.config_enhancedConfirmationModeEnabled);
+            return !ecmEnabled || mode == AppOpsManager.MODE_ALLOWED
+                    || mode == AppOpsManager.MODE_DEFAULT;
+        } catch (Exception e) {
+            // Allow service in case if app ops is not available in testing.
+            return true;
+        }
+    }
+
     /**
      * Creates the list of {@link AccessibilityActivityPreference} with the installedShortcuts
      * arguments.
@@ -138,69 +205,33 @@ public class RestrictedPreferenceHelper {
     }
 
     private void setRestrictedPreferenceEnabled(RestrictedPreference preference,
-            final List<String> permittedServices, boolean serviceEnabled) {
-        // permittedServices null means all accessibility services are allowed.
-        boolean serviceAllowed = permittedServices == null || permittedServices.contains(
-                preference.getPackageName());
-
-        if (android.permission.flags.Flags.enhancedConfirmationModeApisEnabled()
-                && android.security.Flags.extendEcmToAllSettings()) {
+            boolean serviceEnabled, boolean serviceAllowed) {
+        final boolean ecmApisEnabled =
+                android.permission.flags.Flags.enhancedConfirmationModeApisEnabled()
+                        && android.security.Flags.extendEcmToAllSettings();
+        if (ecmApisEnabled && !serviceAllowed) {
+            // Only a restricted service needs the enhanced confirmation dialog of its preference.
             preference.checkEcmRestrictionAndSetDisabled(
                     AppOpsManager.OPSTR_BIND_ACCESSIBILITY_SERVICE,
                     preference.getPackageName(), serviceEnabled);
-            if (preference.isDisabledByEcm()) {
-                serviceAllowed = false;
-            }
-
-            if (serviceAllowed || serviceEnabled) {
-                preference.setEnabled(true);
-            } else {
-                // Disable accessibility service that are not permitted.
-                final RestrictedLockUtils.EnforcedAdmin admin =
-                        RestrictedLockUtilsInternal.checkIfAccessibilityServiceDisallowed(
-                                mContext, preference.getPackageName(), UserHandle.myUserId());
+        }
 
-                if (admin != null) {
-                    preference.setDisabledByAdmin(admin);
-                } else if (!preference.isDisabledByEcm()) {
-                    preference.setEnabled(false);
-                }
+        if (serviceAllowed || serviceEnabled) {
+            preference.setEnabled(true);
+            return;
+        }
+        // Disable accessibility service that are not permitted.
+        final RestrictedLockUtils.EnforcedAdmin admin =
+                RestrictedLockUtilsInternal.checkIfAccessibilityServiceDisallowed(
+                        mContext, preference.getPackageName(), UserHandle.myUserId());
+        if (admin != null) {
+            preference.setDisabledByAdmin(admin);
+        } else if (ecmApisEnabled) {
+            if (!preference.isDisabledByEcm()) {
+                preference.setEnabled(false);
             }
         } else {
-            boolean appOpsAllowed;
-            if (serviceAllowed) {
-                try {
-                    final int mode = mAppOps.noteOpNoThrow(
-                            AppOpsManager.OP_ACCESS_RESTRICTED_SETTINGS,
-                            preference.getUid(), preference.getPackageName());
-                    final boolean ecmEnabled = mContext.getResources().getBoolean(
-                            com.android.internal.R.bool.config_enhancedConfirmationModeEnabled);
-                    appOpsAllowed = !ecmEnabled || mode == AppOpsManager.MODE_ALLOWED
-                            || mode == AppOpsManager.MODE_DEFAULT;
-                    serviceAllowed = appOpsAllowed;
-                } catch (Exception e) {
-                    // Allow service in case if app ops is not available in testing.
-                    appOpsAllowed = true;
-                }
-            } else {
-                appOpsAllowed = false;
-            }
-            if (serviceAllowed || serviceEnabled) {
-                preference.setEnabled(true);
-            } else {
-                // Disable accessibility service that are not permitted.
-                final RestrictedLockUtils.EnforcedAdmin admin =
-                        RestrictedLockUtilsInternal.checkIfAccessibilityServiceDisallowed(
-                                mContext, preference.getPackageName(), UserHandle.myUserId());
-
-                if (admin != null) {
-                    preference.setDisabledByAdmin(admin);
-                } else if (!appOpsAllowed) {
-                    preference.setDisabledByAppOps(true);
-                } else {
-                    preference.setEnabled(false);
-                }
-            }
+            preference.setDisabledByAppOps(true);
         }
     }
 
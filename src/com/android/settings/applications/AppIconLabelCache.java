@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import android.content.BroadcastReceiver;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.UserHandle;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.Utils;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide cache of application labels and icons shared by the app list screens.
+ *
+ * <p>Icons are the normalized icons badged for the user of the app, as returned by
+ * {@link Utils#getBadgedIcon(Context, ApplicationInfo)}. Entries are keyed by package, user and
+ * version code, so an updated app never shows a stale icon, and the cache is bounded by the
+ * estimated size of the cached bitmaps. Entries of a package are dropped when the package is
+ * changed or removed, and all labels are dropped when the locale changes.
+ */
+public class AppIconLabelCache {
+    private static final String TAG = "AppIconLabelCache";
+    private static final int MAX_CACHE_SIZE_BYTES = 16 * 1024 * 1024;
+    private static final int LABEL_OVERHEAD_BYTES = 64;
+
+    private static AppIconLabelCache sInstance;
+
+    private final Context mContext;
+    private final PackageManager mPackageManager;
+    private final LruCache<String, Entry> mCache;
+
+    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (Intent.ACTION_LOCALE_CHANGED.equals(intent.getAction())) {
+                clear();
+                return;
+            }
+            final Uri data = intent.getData();
+            final String packageName = data != null ? data.getSchemeSpecificPart() : null;
+            if (packageName != null) {
+                invalidatePackage(packageName);
+            }
+        }
+    };
+
+    /** Returns the cache instance of this process. */
+    public static synchronized AppIconLabelCache getInstance(@NonNull Context context) {
+        if (sInstance == null) {
+            sInstance = new AppIconLabelCache(context.getApplicationContext(),
+                    Math.min(MAX_CACHE_SIZE_BYTES, (int) (Runtime.getRuntime().maxMemory() / 16)));
+            sInstance.registerReceivers(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    /** Trims the cache of this process if it was created, see {@link #trimMemory(int)}. */
+    public static synchronized void onTrimMemory(int level) {
+        if (sInstance != null) {
+            sInstance.trimMemory(level);
+        }
+    }
+
+    @VisibleForTesting
+    AppIconLabelCache(Context context, int maxSizeBytes) {
+        mContext = context;
+        mPackageManager = context.getPackageManager();
+        mCache = new LruCache<String, Entry>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(String key, Entry entry) {
+                return entry.mSizeBytes;
+            }
+        };
+    }
+
+    @VisibleForTesting
+    public static synchronized void resetInstance() {
+        sInstance = null;
+    }
+
+    private void registerReceivers(Context context) {
+        final IntentFilter packageFilter = new IntentFilter(Intent.ACTION_PACKAGE_ADDED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        packageFilter.addDataScheme("package");
+        context.registerReceiverAsUser(mReceiver, UserHandle.ALL, packageFilter,
+                /* broadcastPermission= */ null, /* scheduler= */ null);
+        context.registerReceiver(mReceiver, new IntentFilter(Intent.ACTION_LOCALE_CHANGED));
+    }
+
+    /**
+     * Returns the label of the given application, loading it if it is not cached yet. Only the
+     * label is loaded, the icon is loaded by the first call that needs it.
+     */
+    @NonNull
+    public CharSequence getLabel(@NonNull ApplicationInfo info) {
+        final String key = getKey(info);
+        final Entry entry = mCache.get(key);
+        if (entry != null) {
+            return entry.mLabel;
+        }
+        final CharSequence label = mPackageManager.getApplicationLabel(info);
+        mCache.put(key, new Entry(label, /* icon= */ null));
+        return label;
+    }
+
+    /**
+     * Returns the icon of the given application badged for its user, loading it if it is not
+     * cached yet. Each call returns a new drawable sharing the cached bitmap, so it can be bound to
+     * a view.
+     */
+    @NonNull
+    public Drawable getBadgedIcon(@NonNull ApplicationInfo info) {
+        return newDrawable(getOrLoad(info).mIcon);
+    }
+
+    /** Returns the badged icon of the given application if it is cached, without loading it. */
+    @Nullable
+    public Drawable getCachedBadgedIcon(@NonNull ApplicationInfo info) {
+        final Entry entry = mCache.get(getKey(info));
+        return entry != null && entry.mIcon != null ? newDrawable(entry.mIcon) : null;
+    }
+
+    /** Loads the labels and icons of the given applications on a background thread. */
+    public void prewarm(@NonNull Collection<ApplicationInfo> infos) {
+        final List<ApplicationInfo> copy = new ArrayList<>(infos);
+        ThreadUtils.postOnBackgroundThread(() -> {
+            for (ApplicationInfo info : copy) {
+                getOrLoad(info);
+            }
+        });
+    }
+
+    /** Drops all cached entries of the given package, for all users and versions. */
+    public void invalidatePackage(@NonNull String packageName) {
+        final String prefix = packageName + ":";
+        final Map<String, Entry> snapshot = mCache.snapshot();
+        for (String key : snapshot.keySet()) {
+            if (key.startsWith(prefix)) {
+                mCache.remove(key);
+            }
+        }
+    }
+
+    /** Drops all cached entries. */
+    public void clear() {
+        mCache.evictAll();
+    }
+
+    /** Releases memory according to the trim level, see {@link ComponentCallbacks2}. */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            mCache.trimToSize(mCache.maxSize() / 2);
+        }
+    }
+
+    @VisibleForTesting
+    int size() {
+        return mCache.size();
+    }
+
+    private Entry getOrLoad(ApplicationInfo info) {
+        final String key = getKey(info);
+        Entry entry = mCache.get(key);
+        if (entry != null && entry.mIcon != null) {
+            return entry;
+        }
+        final CharSequence label =
+                entry != null ? entry.mLabel : mPackageManager.getApplicationLabel(info);
+        Drawable icon = loadBadgedIcon(info);
+        if (icon == null) {
+            Log.w(TAG, "No icon for " + info.packageName);
+            icon = mPackageManager.getDefaultActivityIcon();
+        }
+        entry = new Entry(label, icon);
+        mCache.put(key, entry);
+        return entry;
+    }
+
+    @VisibleForTesting
+    Drawable loadBadgedIcon(ApplicationInfo info) {
+        return Utils.getBadgedIcon(mContext, info);
+    }
+
+    private static Drawable newDrawable(Drawable icon) {
+        final Drawable.ConstantState state = icon.getConstantState();
+        return state != null ? state.newDrawable() : icon;
+    }
+
+    private static String getKey(ApplicationInfo info) {
+        return info.packageName + ":" + UserHandle.getUserId(info.uid) + ":"
+                + info.longVersionCode;
+    }
+
+    private static int estimateSize(Drawable icon) {
+        if (icon instanceof BitmapDrawable) {
+            final Bitmap bitmap = ((BitmapDrawable) icon).getBitmap();
+            if (bitmap != null) {
+                return bitmap.getAllocationByteCount();
+            }
+        }
+        // Vector and adaptive icons are rasterized at their intrinsic size when drawn.
+        return Math.max(icon.getIntrinsicWidth(), 1) * Math.max(icon.getIntrinsicHeight(), 1) * 4;
+    }
+
+    private static final class Entry {
+        final CharSequence mLabel;
+        @Nullable
+        final Drawable mIcon;
+        final int mSizeBytes;
+
+        Entry(CharSequence label, @Nullable Drawable icon) {
+            mLabel = label;
+            mIcon = icon;
+            mSizeBytes = (icon != null ? estimateSize(icon) : 0) + label.length() * 2
+                    + LABEL_OVERHEAD_BYTES;
+        }
+    }
+}
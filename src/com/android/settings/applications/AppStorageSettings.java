@@ -53,6 +53,7 @@ import androidx.preference.PreferenceCategory;
 import com.android.settings.R;
 import com.android.settings.Utils;
 import com.android.settings.deviceinfo.StorageWizardMoveConfirm;
+import com.android.settings.spa.app.storage.AppStorageSizeRepository;
 import com.android.settingslib.RestrictedLockUtils;
 import com.android.settingslib.applications.AppUtils;
 import com.android.settingslib.applications.ApplicationsState.Callbacks;
@@ -598,6 +599,9 @@ public class AppStorageSettings extends AppInfoWithHeader
                     break;
                 case MSG_CLEAR_CACHE:
                     mCacheCleared = true;
+                    // Clearing the cache sends no package broadcast.
+                    AppStorageSizeRepository.getInstance(getContext())
+                            .invalidatePackage(mPackageName);
                     // Refresh size info
                     updateSize();
                     break;
@@ -36,7 +36,6 @@ import androidx.preference.PreferenceScreen;
 
 import com.android.settings.R;
 import com.android.settings.core.BasePreferenceController;
-import com.android.settingslib.Utils;
 import com.android.settingslib.applications.ApplicationsState;
 import com.android.settingslib.utils.StringUtil;
 import com.android.settingslib.widget.AppPreference;
@@ -203,7 +202,8 @@ public class AppsPreferenceController extends BasePreferenceController implement
 
                 pref.setKey(key);
                 pref.setTitle(appEntry.label);
-                pref.setIcon(Utils.getBadgedIcon(mContext, appEntry.info));
+                pref.setIcon(AppIconLabelCache.getInstance(mContext)
+                        .getBadgedIcon(appEntry.info));
                 pref.setSummary(StringUtil.formatRelativeTime(mContext,
                         System.currentTimeMillis() - stats.getLastTimeUsed(), false,
                         RelativeDateTimeFormatter.Style.LONG));
@@ -99,6 +99,7 @@ public class RecentAppStatsMixin implements LifecycleObserver, OnStart {
     public void onStart() {
         ThreadUtils.postOnBackgroundThread(() -> {
             loadDisplayableRecentApps(mMaximumApps);
+            loadIcons();
             for (RecentAppStatsListener listener : mAppStatsListeners) {
                 ThreadUtils.postOnMainThread(() -> listener.onReloadDataCompleted(mRecentApps));
             }
@@ -145,6 +146,19 @@ public class RecentAppStatsMixin implements LifecycleObserver, OnStart {
         mRecentApps.addAll(usageStatsAllUsers.stream().limit(limit).collect(Collectors.toList()));
     }
 
+    // Loads the icons of the recent apps into the shared cache, so that binding their preferences
+    // on the main thread doesn't have to.
+    private void loadIcons() {
+        final AppIconLabelCache cache = AppIconLabelCache.getInstance(mContext);
+        for (UsageStatsWrapper statsWrapper : mRecentApps) {
+            final ApplicationsState.AppEntry appEntry = mApplicationsState.getEntry(
+                    statsWrapper.mUsageStats.getPackageName(), statsWrapper.mUserId);
+            if (appEntry != null && appEntry.info != null) {
+                cache.getBadgedIcon(appEntry.info);
+            }
+        }
+    }
+
     private List<UsageStats> getRecentAppsStats(UsageStatsManager usageStatsManager, int userId) {
         final List<UsageStats> recentAppStats = mPowerManager.isPowerSaveMode()
                 ? new ArrayList<>()
@@ -43,11 +43,14 @@ import android.text.format.Formatter;
 import android.util.Log;
 import android.util.SparseArray;
 
+import androidx.annotation.VisibleForTesting;
+
 import com.android.settings.R;
 import com.android.settingslib.Utils;
 import com.android.settingslib.applications.InterestingConfigChanges;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -69,9 +72,14 @@ public class RunningState {
     static final int MSG_UPDATE_CONTENTS = 2;
     static final int MSG_REFRESH_UI = 3;
     static final int MSG_UPDATE_TIME = 4;
+    static final int MSG_UID_IMPORTANCE_CHANGED = 5;
 
     static final long TIME_UPDATE_DELAY = 1000;
     static final long CONTENTS_UPDATE_DELAY = 2000;
+    // While nothing is starting or stopping, refreshes back off up to this delay.
+    static final long MAX_CONTENTS_UPDATE_DELAY = 16000;
+    // Delay used to coalesce bursts of process state changes into a single refresh.
+    static final long EVENT_UPDATE_DELAY = 200;
 
     static final int MAX_SERVICES = 100;
 
@@ -139,6 +147,11 @@ public class RunningState {
 
     int mSequence = 0;
 
+    // Flattened services and processes seen by the last update, see buildSnapshot().
+    Snapshot mLastSnapshot;
+    boolean mLastUpdateChangedStructure;
+    volatile long mContentsUpdateDelay = CONTENTS_UPDATE_DELAY;
+
     final Comparator<RunningState.MergedItem> mBackgroundComparator =
             new Comparator<RunningState.MergedItem>() {
                 @Override
@@ -247,9 +260,19 @@ public class RunningState {
                     Message cmd = mHandler.obtainMessage(MSG_REFRESH_UI);
                     cmd.arg1 = update(mApplicationContext, mAm) ? 1 : 0;
                     mHandler.sendMessage(cmd);
+                    // Poll less often while the set of services and processes is stable, process
+                    // state changes will trigger an earlier refresh.
+                    mContentsUpdateDelay = mLastUpdateChangedStructure
+                            ? CONTENTS_UPDATE_DELAY
+                            : Math.min(mContentsUpdateDelay * 2, MAX_CONTENTS_UPDATE_DELAY);
                     removeMessages(MSG_UPDATE_CONTENTS);
                     msg = obtainMessage(MSG_UPDATE_CONTENTS);
-                    sendMessageDelayed(msg, CONTENTS_UPDATE_DELAY);
+                    sendMessageDelayed(msg, mContentsUpdateDelay);
+                    break;
+                case MSG_UID_IMPORTANCE_CHANGED:
+                    mContentsUpdateDelay = CONTENTS_UPDATE_DELAY;
+                    removeMessages(MSG_UPDATE_CONTENTS);
+                    sendEmptyMessageDelayed(MSG_UPDATE_CONTENTS, EVENT_UPDATE_DELAY);
                     break;
             }
         }
@@ -257,6 +280,11 @@ public class RunningState {
 
     final BackgroundHandler mBackgroundHandler;
 
+    final ActivityManager.OnUidImportanceListener mUidImportanceListener;
+    // Guards the listener registration, which is a binder call and must not hold mLock.
+    final Object mUidImportanceLock = new Object();
+    boolean mListeningToUidImportance;
+
     final Handler mHandler = new Handler() {
         int mNextUpdate = OnRefreshUiListener.REFRESH_TIME;
 
@@ -792,6 +820,12 @@ public class RunningState {
         mBackgroundThread = new HandlerThread("RunningState:Background");
         mBackgroundThread.start();
         mBackgroundHandler = new BackgroundHandler(mBackgroundThread.getLooper());
+        mUidImportanceListener = (uid, importance) -> {
+            // Called on a binder thread; a burst of changes results in a single refresh.
+            if (!mBackgroundHandler.hasMessages(MSG_UID_IMPORTANCE_CHANGED)) {
+                mBackgroundHandler.sendEmptyMessage(MSG_UID_IMPORTANCE_CHANGED);
+            }
+        };
         mUmBroadcastReceiver.register(mApplicationContext);
     }
 
@@ -813,10 +847,12 @@ public class RunningState {
             }
             mHandler.sendEmptyMessage(MSG_UPDATE_TIME);
         }
+        setListeningToUidImportance(true);
     }
 
     void updateNow() {
         synchronized (mLock) {
+            mContentsUpdateDelay = CONTENTS_UPDATE_DELAY;
             mBackgroundHandler.removeMessages(MSG_UPDATE_CONTENTS);
             mBackgroundHandler.sendEmptyMessage(MSG_UPDATE_CONTENTS);
         }
@@ -845,6 +881,26 @@ public class RunningState {
             mRefreshUiListener = null;
             mHandler.removeMessages(MSG_UPDATE_TIME);
         }
+        setListeningToUidImportance(false);
+    }
+
+    private void setListeningToUidImportance(boolean listening) {
+        synchronized (mUidImportanceLock) {
+            if (mListeningToUidImportance == listening) {
+                return;
+            }
+            try {
+                if (listening) {
+                    mAm.addOnUidImportanceListener(mUidImportanceListener,
+                            ActivityManager.RunningAppProcessInfo.IMPORTANCE_SERVICE);
+                } else {
+                    mAm.removeOnUidImportanceListener(mUidImportanceListener);
+                }
+                mListeningToUidImportance = listening;
+            } catch (SecurityException | IllegalArgumentException e) {
+                Log.w(TAG, "Unable to change uid importance listener", e);
+            }
+        }
     }
 
     private boolean isInterestingProcess(ActivityManager.RunningAppProcessInfo pi) {
@@ -862,6 +918,8 @@ public class RunningState {
     }
 
     private void reset() {
+        mLastSnapshot = null;
+        mContentsUpdateDelay = CONTENTS_UPDATE_DELAY;
         mServiceProcessesByName.clear();
         mServiceProcessesByPid.clear();
         mInterestingProcesses.clear();
@@ -902,8 +960,6 @@ public class RunningState {
     private boolean update(Context context, ActivityManager am) {
         final PackageManager pm = context.getPackageManager();
 
-        mSequence++;
-
         boolean changed = false;
 
         // Retrieve list of services, filtering out anything that definitely
@@ -933,11 +989,186 @@ public class RunningState {
             }
         }
 
-        // Retrieve list of running processes, organizing them into a sparse
-        // array for easy retrieval.
+        // Retrieve list of running processes.
         List<ActivityManager.RunningAppProcessInfo> processes
                 = am.getRunningAppProcesses();
         final int NP = processes != null ? processes.size() : 0;
+
+        // Most refreshes see exactly the same services and processes as the previous one. The
+        // item model is still valid then, and only memory use needs to be refreshed.
+        final Snapshot snapshot = buildSnapshot(services, NS, processes, NP);
+        final boolean structureUnchanged = snapshot.equals(mLastSnapshot);
+        mLastSnapshot = snapshot;
+        mLastUpdateChangedStructure = !structureUnchanged;
+        if (!structureUnchanged) {
+            mSequence++;
+            changed = updateStructure(context, pm, services, NS, processes, NP);
+        }
+
+        // Count number of interesting other (non-active) processes, and
+        // build a list of all processes we will retrieve memory for.
+        mAllProcessItems.clear();
+        mAllProcessItems.addAll(mProcessItems);
+        int numBackgroundProcesses = 0;
+        int numForegroundProcesses = 0;
+        int numServiceProcesses = 0;
+        final int NRP = mRunningProcesses.size();
+        for (int i = 0; i < NRP; i++) {
+            ProcessItem proc = mRunningProcesses.valueAt(i);
+            if (proc.mCurSeq != mSequence) {
+                // We didn't hit this process as a dependency on one
+                // of our active ones, so add it up if needed.
+                if (proc.mRunningProcessInfo.importance >=
+                        ActivityManager.RunningAppProcessInfo.IMPORTANCE_BACKGROUND) {
+                    numBackgroundProcesses++;
+                    mAllProcessItems.add(proc);
+                } else if (proc.mRunningProcessInfo.importance <=
+                        ActivityManager.RunningAppProcessInfo.IMPORTANCE_VISIBLE) {
+                    numForegroundProcesses++;
+                    mAllProcessItems.add(proc);
+                } else {
+                    Log.i("RunningState", "Unknown non-service process: "
+                            + proc.mProcessName + " #" + proc.mPid);
+                }
+            } else {
+                numServiceProcesses++;
+            }
+        }
+
+        long backgroundProcessMemory = 0;
+        long foregroundProcessMemory = 0;
+        long serviceProcessMemory = 0;
+        ArrayList<MergedItem> newBackgroundItems = null;
+        ArrayList<MergedItem> newUserBackgroundItems = null;
+        boolean diffUsers = false;
+        try {
+            final int numProc = mAllProcessItems.size();
+            int[] pids = new int[numProc];
+            for (int i = 0; i < numProc; i++) {
+                pids[i] = mAllProcessItems.get(i).mPid;
+            }
+            long[] pss = ActivityManager.getService()
+                    .getProcessPss(pids);
+            int bgIndex = 0;
+            for (int i = 0; i < pids.length; i++) {
+                ProcessItem proc = mAllProcessItems.get(i);
+                changed |= proc.updateSize(context, pss[i], mSequence);
+                if (proc.mCurSeq == mSequence) {
+                    serviceProcessMemory += proc.mSize;
+                } else if (proc.mRunningProcessInfo.importance >=
+                        ActivityManager.RunningAppProcessInfo.IMPORTANCE_BACKGROUND) {
+                    backgroundProcessMemory += proc.mSize;
+                    MergedItem mergedItem;
+                    if (newBackgroundItems != null) {
+                        mergedItem = proc.mMergedItem = new MergedItem(proc.mUserId);
+                        proc.mMergedItem.mProcess = proc;
+                        diffUsers |= mergedItem.mUserId != mMyUserId;
+                        newBackgroundItems.add(mergedItem);
+                    } else {
+                        if (bgIndex >= mBackgroundItems.size()
+                                || mBackgroundItems.get(bgIndex).mProcess != proc) {
+                            newBackgroundItems = new ArrayList<MergedItem>(numBackgroundProcesses);
+                            for (int bgi = 0; bgi < bgIndex; bgi++) {
+                                mergedItem = mBackgroundItems.get(bgi);
+                                diffUsers |= mergedItem.mUserId != mMyUserId;
+                                newBackgroundItems.add(mergedItem);
+                            }
+                            mergedItem = proc.mMergedItem = new MergedItem(proc.mUserId);
+                            proc.mMergedItem.mProcess = proc;
+                            diffUsers |= mergedItem.mUserId != mMyUserId;
+                            newBackgroundItems.add(mergedItem);
+                        } else {
+                            mergedItem = mBackgroundItems.get(bgIndex);
+                        }
+                    }
+                    mergedItem.update(context, true);
+                    mergedItem.updateSize(context);
+                    bgIndex++;
+                } else if (proc.mRunningProcessInfo.importance <=
+                        ActivityManager.RunningAppProcessInfo.IMPORTANCE_VISIBLE) {
+                    foregroundProcessMemory += proc.mSize;
+                }
+            }
+        } catch (RemoteException e) {
+        }
+
+        if (newBackgroundItems == null) {
+            // One or more at the bottom may no longer exist.
+            if (mBackgroundItems.size() > numBackgroundProcesses) {
+                newBackgroundItems = new ArrayList<MergedItem>(numBackgroundProcesses);
+                for (int bgi = 0; bgi < numBackgroundProcesses; bgi++) {
+                    MergedItem mergedItem = mBackgroundItems.get(bgi);
+                    diffUsers |= mergedItem.mUserId != mMyUserId;
+                    newBackgroundItems.add(mergedItem);
+                }
+            }
+        }
+
+        if (newBackgroundItems != null) {
+            // The background items have changed; we need to re-build the
+            // per-user items.
+            if (!diffUsers) {
+                // Easy: there are no other users, we can just use the same array.
+                newUserBackgroundItems = newBackgroundItems;
+            } else {
+                // We now need to re-build the per-user list so that background
+                // items for users are collapsed together.
+                newUserBackgroundItems = new ArrayList<MergedItem>();
+                final int NB = newBackgroundItems.size();
+                for (int i = 0; i < NB; i++) {
+                    MergedItem mergedItem = newBackgroundItems.get(i);
+                    if (mergedItem.mUserId != mMyUserId) {
+                        addOtherUserItem(context, newUserBackgroundItems,
+                                mOtherUserBackgroundItems, mergedItem);
+                    } else {
+                        newUserBackgroundItems.add(mergedItem);
+                    }
+                }
+                // And user aggregated merged items need to be
+                // updated now that they have all of their children.
+                final int NU = mOtherUserBackgroundItems.size();
+                for (int i = 0; i < NU; i++) {
+                    MergedItem user = mOtherUserBackgroundItems.valueAt(i);
+                    if (user.mCurSeq == mSequence) {
+                        user.update(context, true);
+                        user.updateSize(context);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < mMergedItems.size(); i++) {
+            mMergedItems.get(i).updateSize(context);
+        }
+
+        synchronized (mLock) {
+            mNumBackgroundProcesses = numBackgroundProcesses;
+            mNumForegroundProcesses = numForegroundProcesses;
+            mNumServiceProcesses = numServiceProcesses;
+            mBackgroundProcessMemory = backgroundProcessMemory;
+            mForegroundProcessMemory = foregroundProcessMemory;
+            mServiceProcessMemory = serviceProcessMemory;
+            if (newBackgroundItems != null) {
+                mBackgroundItems = newBackgroundItems;
+                mUserBackgroundItems = newUserBackgroundItems;
+                if (mWatchingBackgroundItems) {
+                    changed = true;
+                }
+            }
+            if (!mHaveData) {
+                mHaveData = true;
+                mLock.notifyAll();
+            }
+        }
+
+        return changed;
+    }
+
+    private boolean updateStructure(Context context, PackageManager pm,
+            List<ActivityManager.RunningServiceInfo> services, int NS,
+            List<ActivityManager.RunningAppProcessInfo> processes, int NP) {
+        boolean changed = false;
+
         mTmpAppProcesses.clear();
         for (int i = 0; i < NP; i++) {
             ActivityManager.RunningAppProcessInfo pi = processes.get(i);
@@ -1282,163 +1513,77 @@ public class RunningState {
             }
         }
 
-        // Count number of interesting other (non-active) processes, and
-        // build a list of all processes we will retrieve memory for.
-        mAllProcessItems.clear();
-        mAllProcessItems.addAll(mProcessItems);
-        int numBackgroundProcesses = 0;
-        int numForegroundProcesses = 0;
-        int numServiceProcesses = 0;
-        NRP = mRunningProcesses.size();
-        for (int i = 0; i < NRP; i++) {
-            ProcessItem proc = mRunningProcesses.valueAt(i);
-            if (proc.mCurSeq != mSequence) {
-                // We didn't hit this process as a dependency on one
-                // of our active ones, so add it up if needed.
-                if (proc.mRunningProcessInfo.importance >=
-                        ActivityManager.RunningAppProcessInfo.IMPORTANCE_BACKGROUND) {
-                    numBackgroundProcesses++;
-                    mAllProcessItems.add(proc);
-                } else if (proc.mRunningProcessInfo.importance <=
-                        ActivityManager.RunningAppProcessInfo.IMPORTANCE_VISIBLE) {
-                    numForegroundProcesses++;
-                    mAllProcessItems.add(proc);
-                } else {
-                    Log.i("RunningState", "Unknown non-service process: "
-                            + proc.mProcessName + " #" + proc.mPid);
-                }
-            } else {
-                numServiceProcesses++;
-            }
-        }
-
-        long backgroundProcessMemory = 0;
-        long foregroundProcessMemory = 0;
-        long serviceProcessMemory = 0;
-        ArrayList<MergedItem> newBackgroundItems = null;
-        ArrayList<MergedItem> newUserBackgroundItems = null;
-        boolean diffUsers = false;
-        try {
-            final int numProc = mAllProcessItems.size();
-            int[] pids = new int[numProc];
-            for (int i = 0; i < numProc; i++) {
-                pids[i] = mAllProcessItems.get(i).mPid;
-            }
-            long[] pss = ActivityManager.getService()
-                    .getProcessPss(pids);
-            int bgIndex = 0;
-            for (int i = 0; i < pids.length; i++) {
-                ProcessItem proc = mAllProcessItems.get(i);
-                changed |= proc.updateSize(context, pss[i], mSequence);
-                if (proc.mCurSeq == mSequence) {
-                    serviceProcessMemory += proc.mSize;
-                } else if (proc.mRunningProcessInfo.importance >=
-                        ActivityManager.RunningAppProcessInfo.IMPORTANCE_BACKGROUND) {
-                    backgroundProcessMemory += proc.mSize;
-                    MergedItem mergedItem;
-                    if (newBackgroundItems != null) {
-                        mergedItem = proc.mMergedItem = new MergedItem(proc.mUserId);
-                        proc.mMergedItem.mProcess = proc;
-                        diffUsers |= mergedItem.mUserId != mMyUserId;
-                        newBackgroundItems.add(mergedItem);
-                    } else {
-                        if (bgIndex >= mBackgroundItems.size()
-                                || mBackgroundItems.get(bgIndex).mProcess != proc) {
-                            newBackgroundItems = new ArrayList<MergedItem>(numBackgroundProcesses);
-                            for (int bgi = 0; bgi < bgIndex; bgi++) {
-                                mergedItem = mBackgroundItems.get(bgi);
-                                diffUsers |= mergedItem.mUserId != mMyUserId;
-                                newBackgroundItems.add(mergedItem);
-                            }
-                            mergedItem = proc.mMergedItem = new MergedItem(proc.mUserId);
-                            proc.mMergedItem.mProcess = proc;
-                            diffUsers |= mergedItem.mUserId != mMyUserId;
-                            newBackgroundItems.add(mergedItem);
-                        } else {
-                            mergedItem = mBackgroundItems.get(bgIndex);
-                        }
-                    }
-                    mergedItem.update(context, true);
-                    mergedItem.updateSize(context);
-                    bgIndex++;
-                } else if (proc.mRunningProcessInfo.importance <=
-                        ActivityManager.RunningAppProcessInfo.IMPORTANCE_VISIBLE) {
-                    foregroundProcessMemory += proc.mSize;
-                }
-            }
-        } catch (RemoteException e) {
-        }
+        return changed;
+    }
 
-        if (newBackgroundItems == null) {
-            // One or more at the bottom may no longer exist.
-            if (mBackgroundItems.size() > numBackgroundProcesses) {
-                newBackgroundItems = new ArrayList<MergedItem>(numBackgroundProcesses);
-                for (int bgi = 0; bgi < numBackgroundProcesses; bgi++) {
-                    MergedItem mergedItem = mBackgroundItems.get(bgi);
-                    diffUsers |= mergedItem.mUserId != mMyUserId;
-                    newBackgroundItems.add(mergedItem);
-                }
-            }
+    /**
+     * Flattens the parts of the running services and processes that affect the item model, so
+     * two snapshots can be compared cheaply.
+     */
+    @VisibleForTesting
+    static Snapshot buildSnapshot(List<ActivityManager.RunningServiceInfo> services, int NS,
+            List<ActivityManager.RunningAppProcessInfo> processes, int NP) {
+        final long[] values = new long[2 + NS * 5 + NP * 7];
+        final Object[] names = new Object[NS * 2 + NP];
+        int index = 0;
+        int nameIndex = 0;
+        values[index++] = NS;
+        for (int i = 0; i < NS; i++) {
+            ActivityManager.RunningServiceInfo si = services.get(i);
+            values[index++] = si.uid;
+            values[index++] = si.restarting == 0 ? si.pid : 0;
+            values[index++] = si.restarting == 0 ? si.activeSince : -1;
+            values[index++] = si.clientLabel;
+            values[index++] = (si.foreground ? 1 : 0) | (si.started ? 2 : 0);
+            names[nameIndex++] = si.service;
+            names[nameIndex++] = si.process;
         }
-
-        if (newBackgroundItems != null) {
-            // The background items have changed; we need to re-build the
-            // per-user items.
-            if (!diffUsers) {
-                // Easy: there are no other users, we can just use the same array.
-                newUserBackgroundItems = newBackgroundItems;
-            } else {
-                // We now need to re-build the per-user list so that background
-                // items for users are collapsed together.
-                newUserBackgroundItems = new ArrayList<MergedItem>();
-                final int NB = newBackgroundItems.size();
-                for (int i = 0; i < NB; i++) {
-                    MergedItem mergedItem = newBackgroundItems.get(i);
-                    if (mergedItem.mUserId != mMyUserId) {
-                        addOtherUserItem(context, newUserBackgroundItems,
-                                mOtherUserBackgroundItems, mergedItem);
-                    } else {
-                        newUserBackgroundItems.add(mergedItem);
-                    }
-                }
-                // And user aggregated merged items need to be
-                // updated now that they have all of their children.
-                final int NU = mOtherUserBackgroundItems.size();
-                for (int i = 0; i < NU; i++) {
-                    MergedItem user = mOtherUserBackgroundItems.valueAt(i);
-                    if (user.mCurSeq == mSequence) {
-                        user.update(context, true);
-                        user.updateSize(context);
-                    }
-                }
-            }
+        values[index++] = NP;
+        for (int i = 0; i < NP; i++) {
+            ActivityManager.RunningAppProcessInfo pi = processes.get(i);
+            values[index++] = pi.pid;
+            values[index++] = pi.uid;
+            values[index++] = pi.importance;
+            values[index++] = pi.importanceReasonPid;
+            values[index++] = pi.importanceReasonCode;
+            values[index++] = pi.flags;
+            // Background items are sorted by lru.
+            values[index++] = pi.lru;
+            names[nameIndex++] = pi.processName;
         }
+        return new Snapshot(values, names);
+    }
 
-        for (int i = 0; i < mMergedItems.size(); i++) {
-            mMergedItems.get(i).updateSize(context);
+    /**
+     * The fields of the running services and processes that the item model is built from. Two
+     * refreshes with equal snapshots result in the same items.
+     */
+    @VisibleForTesting
+    static final class Snapshot {
+        private final long[] mValues;
+        private final Object[] mNames;
+
+        Snapshot(long[] values, Object[] names) {
+            mValues = values;
+            mNames = names;
         }
 
-        synchronized (mLock) {
-            mNumBackgroundProcesses = numBackgroundProcesses;
-            mNumForegroundProcesses = numForegroundProcesses;
-            mNumServiceProcesses = numServiceProcesses;
-            mBackgroundProcessMemory = backgroundProcessMemory;
-            mForegroundProcessMemory = foregroundProcessMemory;
-            mServiceProcessMemory = serviceProcessMemory;
-            if (newBackgroundItems != null) {
-                mBackgroundItems = newBackgroundItems;
-                mUserBackgroundItems = newUserBackgroundItems;
-                if (mWatchingBackgroundItems) {
-                    changed = true;
-                }
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
-            if (!mHaveData) {
-                mHaveData = true;
-                mLock.notifyAll();
+            if (!(o instanceof Snapshot)) {
+                return false;
             }
+            final Snapshot other = (Snapshot) o;
+            return Arrays.equals(mValues, other.mValues) && Arrays.equals(mNames, other.mNames);
         }
 
-        return changed;
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(mValues) + Arrays.hashCode(mNames);
+        }
     }
 
     void setWatchingBackgroundItems(boolean watching) {
@@ -110,6 +110,7 @@ import com.android.settings.Settings.UsageAccessSettingsActivity;
 import com.android.settings.Settings.WriteSettingsActivity;
 import com.android.settings.SettingsActivity;
 import com.android.settings.Utils;
+import com.android.settings.applications.AppIconLabelCache;
 import com.android.settings.applications.AppInfoBase;
 import com.android.settings.applications.AppStateAlarmsAndRemindersBridge;
 import com.android.settings.applications.AppStateAppBatteryUsageBridge;
@@ -177,6 +178,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -1230,6 +1232,7 @@ public class ManageApplications extends InstrumentedFragment
         private final AppStateBaseBridge mExtraInfoBridge;
         private final LoadingViewController mLoadingViewController;
         private final IconDrawableFactory mIconDrawableFactory;
+        private final AppIconLabelCache mIconLabelCache;
 
         private AppFilterItem mAppFilter;
         private ArrayList<ApplicationsState.AppEntry> mEntries;
@@ -1266,6 +1269,7 @@ public class ManageApplications extends InstrumentedFragment
             );
             mContext = manageApplications.getActivity();
             mIconDrawableFactory = IconDrawableFactory.newInstance(mContext);
+            mIconLabelCache = AppIconLabelCache.getInstance(mContext);
             mAppFilter = appFilter;
             mBackend = PowerAllowlistBackend.getInstance(mContext);
             if (mManageApplications.mListType == LIST_TYPE_NOTIFICATION) {
@@ -1576,7 +1580,7 @@ public class ManageApplications extends InstrumentedFragment
             }
 
             // Preload top visible icons of app list.
-            AppUtils.preloadTopIcons(mContext, entries,
+            preloadTopIcons(entries,
                     mContext.getResources().getInteger(R.integer.config_num_visible_app_icons));
 
             final int filterType = mAppFilter.getFilterType();
@@ -1784,13 +1788,29 @@ public class ManageApplications extends InstrumentedFragment
             holder.itemView.setOnClickListener(mManageApplications);
         }
 
+        private void preloadTopIcons(List<AppEntry> entries, int count) {
+            final List<ApplicationInfo> infos = new ArrayList<>(count);
+            for (int i = 0; i < entries.size() && infos.size() < count; i++) {
+                final AppEntry entry = entries.get(i);
+                if (entry.mounted) {
+                    infos.add(entry.info);
+                }
+            }
+            mIconLabelCache.prewarm(infos);
+        }
+
         private void updateIcon(ApplicationViewHolder holder, AppEntry entry) {
-            final Drawable cachedIcon = AppUtils.getIconFromCache(entry);
-            if (cachedIcon != null && entry.mounted) {
+            // Icons of apps on unmounted storage are loaded by AppUtils, which tracks the mount
+            // state of the entry.
+            final Drawable cachedIcon =
+                    entry.mounted ? mIconLabelCache.getCachedBadgedIcon(entry.info) : null;
+            if (cachedIcon != null) {
                 holder.setIcon(cachedIcon);
             } else {
                 ThreadUtils.postOnBackgroundThread(() -> {
-                    final Drawable icon = AppUtils.getIcon(mContext, entry);
+                    final Drawable icon = entry.mounted
+                            ? mIconLabelCache.getBadgedIcon(entry.info)
+                            : AppUtils.getIcon(mContext, entry);
                     if (icon != null) {
                         ThreadUtils.postOnMainThread(() -> holder.setIcon(icon));
                     }
@@ -19,6 +19,7 @@ package com.android.settings.applications.specialaccess.premiumsms;
 import android.app.Application;
 import android.app.settings.SettingsEnums;
 import android.content.Context;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.telephony.SmsManager;
 import android.view.View;
@@ -31,6 +32,7 @@ import androidx.preference.PreferenceScreen;
 import androidx.preference.PreferenceViewHolder;
 
 import com.android.settings.R;
+import com.android.settings.applications.AppIconLabelCache;
 import com.android.settings.applications.AppStateBaseBridge.Callback;
 import com.android.settings.applications.AppStateSmsPremBridge;
 import com.android.settings.applications.AppStateSmsPremBridge.SmsState;
@@ -44,6 +46,7 @@ import com.android.settingslib.applications.ApplicationsState.Callbacks;
 import com.android.settingslib.applications.ApplicationsState.Session;
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 import com.android.settingslib.search.SearchIndexable;
+import com.android.settingslib.utils.ThreadUtils;
 import com.android.settingslib.widget.FooterPreference;
 
 import java.util.ArrayList;
@@ -209,14 +212,17 @@ public class PremiumSmsAccess extends EmptyTextSettings
 
     private class PremiumSmsPreference extends RestrictedDropDownPreference {
         private final AppEntry mAppEntry;
+        private final AppIconLabelCache mIconLabelCache;
 
         public PremiumSmsPreference(AppEntry appEntry, Context context) {
             super(context);
             mAppEntry = appEntry;
+            mIconLabelCache = AppIconLabelCache.getInstance(context);
             mAppEntry.ensureLabel(context);
             setTitle(mAppEntry.label);
-            if (mAppEntry.icon != null) {
-                setIcon(mAppEntry.icon);
+            final Drawable cachedIcon = mIconLabelCache.getCachedBadgedIcon(mAppEntry.info);
+            if (cachedIcon != null) {
+                setIcon(cachedIcon);
             }
             setEntries(R.array.security_settings_premium_sms_values);
             setEntryValues(new CharSequence[]{
@@ -238,12 +244,9 @@ public class PremiumSmsAccess extends EmptyTextSettings
         @Override
         public void onBindViewHolder(PreferenceViewHolder holder) {
             if (getIcon() == null) {
-                holder.itemView.post(new Runnable() {
-                    @Override
-                    public void run() {
-                        mApplicationsState.ensureIcon(mAppEntry);
-                        setIcon(mAppEntry.icon);
-                    }
+                ThreadUtils.postOnBackgroundThread(() -> {
+                    final Drawable icon = mIconLabelCache.getBadgedIcon(mAppEntry.info);
+                    ThreadUtils.postOnMainThread(() -> setIcon(icon));
                 });
             }
             super.onBindViewHolder(holder);
@@ -21,12 +21,14 @@ import static com.android.internal.jank.InteractionJankMonitor.Configuration;
 
 import android.content.Context;
 import android.os.Bundle;
+import android.view.ViewTreeObserver;
 
 import androidx.preference.Preference;
 import androidx.preference.TwoStatePreference;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.android.internal.jank.InteractionJankMonitor;
+import com.android.settings.core.instrumentation.PageLatencyTracker;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settings.survey.SurveyMixin;
 import com.android.settingslib.core.instrumentation.Instrumentable;
@@ -47,12 +49,17 @@ public abstract class InstrumentedPreferenceFragment extends ObservablePreferenc
     // metrics placeholder value. Only use this for development.
     protected final int PLACEHOLDER_METRIC = 10000;
 
+    /** Tracks the loading phases of this page, may be null before the fragment is attached. */
+    protected PageLatencyTracker mPageLatencyTracker;
+
     private VisibilityLoggerMixin mVisibilityLoggerMixin;
     private RecyclerView.OnScrollListener mOnScrollListener;
+    private ViewTreeObserver.OnDrawListener mOnDrawListener;
 
     @Override
     public void onAttach(Context context) {
         mMetricsFeatureProvider = FeatureFactory.getFeatureFactory().getMetricsFeatureProvider();
+        mPageLatencyTracker = new PageLatencyTracker(getClass(), getMetricsCategory());
         // Mixin that logs visibility change for activity.
         mVisibilityLoggerMixin = new VisibilityLoggerMixin(getMetricsCategory(),
                 mMetricsFeatureProvider);
@@ -82,8 +89,14 @@ public abstract class InstrumentedPreferenceFragment extends ObservablePreferenc
         if (recyclerView != null) {
             mOnScrollListener = new OnScrollListener(getClass().getName());
             recyclerView.addOnScrollListener(mOnScrollListener);
+            addFrameListener(recyclerView);
         }
         super.onResume();
+        // Subclasses bind their initial state in onResume, and no frame can be drawn before
+        // the whole onResume chain returns.
+        if (mPageLatencyTracker != null) {
+            mPageLatencyTracker.onContentReady();
+        }
     }
 
     @Override
@@ -93,6 +106,7 @@ public abstract class InstrumentedPreferenceFragment extends ObservablePreferenc
             recyclerView.removeOnScrollListener(mOnScrollListener);
             mOnScrollListener = null;
         }
+        removeFrameListener(recyclerView);
         super.onPause();
     }
 
@@ -137,6 +151,27 @@ public abstract class InstrumentedPreferenceFragment extends ObservablePreferenc
         mMetricsFeatureProvider.logClickedPreference(preference, getMetricsCategory());
     }
 
+    private void addFrameListener(RecyclerView recyclerView) {
+        if (mPageLatencyTracker == null || mOnDrawListener != null) {
+            return;
+        }
+        mOnDrawListener = () -> {
+            if (mPageLatencyTracker.onFrameDrawn(recyclerView.getChildCount() > 0,
+                    mMetricsFeatureProvider)) {
+                // Listeners can't be removed while the draw is being dispatched.
+                recyclerView.post(() -> removeFrameListener(recyclerView));
+            }
+        };
+        recyclerView.getViewTreeObserver().addOnDrawListener(mOnDrawListener);
+    }
+
+    private void removeFrameListener(RecyclerView recyclerView) {
+        if (mOnDrawListener != null && recyclerView != null) {
+            recyclerView.getViewTreeObserver().removeOnDrawListener(mOnDrawListener);
+        }
+        mOnDrawListener = null;
+    }
+
     private static final class OnScrollListener extends RecyclerView.OnScrollListener {
         private final InteractionJankMonitor mMonitor = InteractionJankMonitor.getInstance();
         private final String mClassName;
@@ -26,6 +26,7 @@ import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.text.LineBreakConfig;
 import android.os.Bundle;
+import android.os.Trace;
 import android.text.TextUtils;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -86,6 +87,15 @@ public class SettingsBaseActivity extends FragmentActivity implements CategoryHa
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
+        Trace.beginSection(TAG + "#onCreate");
+        try {
+            onCreateInternal(savedInstanceState);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void onCreateInternal(@Nullable Bundle savedInstanceState) {
         final boolean isAnySetupWizard = WizardManagerHelper.isAnySetupWizard(getIntent());
         if (isAnySetupWizard) {
             TransitionHelper.applyForwardTransition(this);
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import android.content.ContentResolver;
+import android.provider.Settings;
+import android.util.ArrayMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.internal.annotations.GuardedBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memoizes reads of {@link Settings.Secure}, {@link Settings.System} and {@link Settings.Global}
+ * during a refresh pass of a page.
+ *
+ * <p>Controllers of a page often read the same keys several times while the page updates, e.g.
+ * in {@code isAvailable}, {@code updateState} and {@code getSummary}. While a {@link Pass} is open
+ * on a thread, the getters of this class read each key of each user from the provider once and
+ * return the same value afterwards. Outside a pass, and on other threads, they read through to
+ * {@link Settings}. Values are dropped when the outermost pass ends, so a pass should only span
+ * one refresh of a page; changes made while it is open aren't seen by its later reads.
+ *
+ * <p>Pages opt in by opening a pass around a refresh that doesn't write settings. No page does by
+ * default, so the getters read through until a page opens one.
+ */
+public final class SettingsSnapshot {
+
+    private static final String TABLE_SECURE = "secure";
+    private static final String TABLE_SYSTEM = "system";
+    private static final String TABLE_GLOBAL = "global";
+
+    private static final Object sLock = new Object();
+    @GuardedBy("sLock")
+    private static final Map<String, String> sValues = new ArrayMap<>();
+    @GuardedBy("sLock")
+    private static final List<Pass> sOpenPasses = new ArrayList<>();
+    @GuardedBy("sLock")
+    private static Thread sPassThread;
+
+    private SettingsSnapshot() {}
+
+    /**
+     * Opens a refresh pass on the calling thread. Passes may be nested; values are kept until the
+     * outermost pass is closed. Reads on other threads aren't memoized while it is open.
+     */
+    @NonNull
+    public static Pass beginPass() {
+        synchronized (sLock) {
+            final Pass pass = new Pass();
+            if (sOpenPasses.isEmpty()) {
+                sPassThread = Thread.currentThread();
+            }
+            sOpenPasses.add(pass);
+            return pass;
+        }
+    }
+
+    /** Returns the value of a {@link Settings.Secure} key. */
+    @Nullable
+    public static String getSecureString(@NonNull ContentResolver resolver, @NonNull String name) {
+        return getString(resolver, TABLE_SECURE, name);
+    }
+
+    /** Returns the value of a {@link Settings.Secure} key as an int. */
+    public static int getSecureInt(
+            @NonNull ContentResolver resolver, @NonNull String name, int def) {
+        return parseInt(getSecureString(resolver, name), def);
+    }
+
+    /** Returns the value of a {@link Settings.System} key. */
+    @Nullable
+    public static String getSystemString(@NonNull ContentResolver resolver, @NonNull String name) {
+        return getString(resolver, TABLE_SYSTEM, name);
+    }
+
+    /** Returns the value of a {@link Settings.System} key as an int. */
+    public static int getSystemInt(
+            @NonNull ContentResolver resolver, @NonNull String name, int def) {
+        return parseInt(getSystemString(resolver, name), def);
+    }
+
+    /** Returns the value of a {@link Settings.Global} key. */
+    @Nullable
+    public static String getGlobalString(@NonNull ContentResolver resolver, @NonNull String name) {
+        return getString(resolver, TABLE_GLOBAL, name);
+    }
+
+    /** Returns the value of a {@link Settings.Global} key as an int. */
+    public static int getGlobalInt(
+            @NonNull ContentResolver resolver, @NonNull String name, int def) {
+        return parseInt(getGlobalString(resolver, name), def);
+    }
+
+    @VisibleForTesting
+    static void reset() {
+        synchronized (sLock) {
+            sValues.clear();
+            sOpenPasses.clear();
+            sPassThread = null;
+        }
+    }
+
+    private static String getString(ContentResolver resolver, String table, String name) {
+        // The resolver reads the settings of its context's user.
+        final String key = resolver.getUserId() + "/" + table + "/" + name;
+        final boolean memoize;
+        synchronized (sLock) {
+            memoize = !sOpenPasses.isEmpty() && sPassThread == Thread.currentThread();
+            if (memoize && sValues.containsKey(key)) {
+                return sValues.get(key);
+            }
+        }
+        final String value = readFromProvider(resolver, table, name);
+        if (memoize) {
+            synchronized (sLock) {
+                // Don't keep the value if the pass ended while reading, e.g. through a listener.
+                if (!sOpenPasses.isEmpty()) {
+                    sValues.put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    private static String readFromProvider(ContentResolver resolver, String table, String name) {
+        switch (table) {
+            case TABLE_SECURE:
+                return Settings.Secure.getString(resolver, name);
+            case TABLE_SYSTEM:
+                return Settings.System.getString(resolver, name);
+            default:
+                return Settings.Global.getString(resolver, name);
+        }
+    }
+
+    private static int parseInt(String value, int def) {
+        if (value == null) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    /** A refresh pass, closing it ends the pass. */
+    public static final class Pass implements AutoCloseable {
+        // Guarded by sLock
+        private boolean mClosed;
+
+        private Pass() {}
+
+        @Override
+        public void close() {
+            synchronized (sLock) {
+                if (mClosed) {
+                    return;
+                }
+                mClosed = true;
+                sOpenPasses.remove(this);
+                if (sOpenPasses.isEmpty()) {
+                    sValues.clear();
+                    sPassThread = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Trace;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Runs startup work in stages, so that only the work needed to draw the first frame delays it.
+ *
+ * <p>Work of {@link #STAGE_BEFORE_FIRST_FRAME} runs right away, work of
+ * {@link #STAGE_AFTER_FIRST_FRAME} runs once the first frame of the given view is drawn, and work
+ * of {@link #STAGE_IDLE} runs one task at a time when the main thread is idle after that. Each
+ * task is wrapped in a systrace section named {@code <name>#<task>}. Must be used on the main
+ * thread.
+ */
+public class StartupScheduler {
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({STAGE_BEFORE_FIRST_FRAME, STAGE_AFTER_FIRST_FRAME, STAGE_IDLE})
+    public @interface Stage {}
+
+    /** Work needed to draw the first frame. */
+    public static final int STAGE_BEFORE_FIRST_FRAME = 0;
+    /** Work that must run soon, but isn't visible in the first frame. */
+    public static final int STAGE_AFTER_FIRST_FRAME = 1;
+    /** Work that can wait until the main thread has nothing else to do. */
+    public static final int STAGE_IDLE = 2;
+
+    private final String mName;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final List<Runnable> mAfterFirstFrameTasks = new ArrayList<>();
+    private final Queue<Runnable> mIdleTasks = new ArrayDeque<>();
+    private View mView;
+    private boolean mStarted;
+    private boolean mFirstFrameDrawn;
+    private boolean mIdleHandlerAdded;
+
+    private final ViewTreeObserver.OnPreDrawListener mPreDrawListener =
+            new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    mView.getViewTreeObserver().removeOnPreDrawListener(this);
+                    // Runs after the traversal that draws the frame.
+                    mHandler.post(StartupScheduler.this::onFirstFrameDrawn);
+                    return true;
+                }
+            };
+
+    private final MessageQueue.IdleHandler mIdleHandler = () -> {
+        final Runnable task = mIdleTasks.poll();
+        if (task != null) {
+            task.run();
+        }
+        mIdleHandlerAdded = !mIdleTasks.isEmpty();
+        return mIdleHandlerAdded;
+    };
+
+    public StartupScheduler(@NonNull String name) {
+        mName = name;
+    }
+
+    /** Schedules the task to run in the given stage. */
+    public void schedule(@Stage int stage, @NonNull String taskName, @NonNull Runnable task) {
+        final Runnable tracedTask = () -> {
+            Trace.beginSection(mName + "#" + taskName);
+            try {
+                task.run();
+            } finally {
+                Trace.endSection();
+            }
+        };
+        switch (stage) {
+            case STAGE_BEFORE_FIRST_FRAME:
+                tracedTask.run();
+                break;
+            case STAGE_AFTER_FIRST_FRAME:
+                if (mFirstFrameDrawn) {
+                    mHandler.post(tracedTask);
+                } else {
+                    mAfterFirstFrameTasks.add(tracedTask);
+                }
+                break;
+            case STAGE_IDLE:
+                mIdleTasks.add(tracedTask);
+                if (mFirstFrameDrawn) {
+                    addIdleHandler();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Starts to wait for the first frame of the view. Without a view, e.g. when there is no UI,
+     * the later stages start right away.
+     */
+    public void start(@Nullable View view) {
+        if (mStarted) {
+            return;
+        }
+        mStarted = true;
+        if (view == null) {
+            mHandler.post(this::onFirstFrameDrawn);
+            return;
+        }
+        mView = view;
+        mView.getViewTreeObserver().addOnPreDrawListener(mPreDrawListener);
+    }
+
+    /** Drops all work that has not run yet, e.g. when the activity is destroyed. */
+    public void cancel() {
+        if (mView != null) {
+            mView.getViewTreeObserver().removeOnPreDrawListener(mPreDrawListener);
+            mView = null;
+        }
+        mHandler.removeCallbacksAndMessages(null);
+        mAfterFirstFrameTasks.clear();
+        mIdleTasks.clear();
+        if (mIdleHandlerAdded) {
+            Looper.myQueue().removeIdleHandler(mIdleHandler);
+            mIdleHandlerAdded = false;
+        }
+    }
+
+    @VisibleForTesting
+    void onFirstFrameDrawn() {
+        if (mFirstFrameDrawn) {
+            return;
+        }
+        mFirstFrameDrawn = true;
+        mView = null;
+        // Post each task separately so that input can be handled in between.
+        for (Runnable task : mAfterFirstFrameTasks) {
+            mHandler.post(task);
+        }
+        mAfterFirstFrameTasks.clear();
+        if (!mIdleTasks.isEmpty()) {
+            addIdleHandler();
+        }
+    }
+
+    private void addIdleHandler() {
+        if (!mIdleHandlerAdded) {
+            mIdleHandlerAdded = true;
+            Looper.myQueue().addIdleHandler(mIdleHandler);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.core.instrumentation.LogWriter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * {@link LogWriter} that moves the actual writes off the caller's thread.
+ *
+ * <p>Every call is recorded into a bounded, lock-free queue and returns immediately. A single
+ * background drainer replays the queued records to the delegate writers in submission order,
+ * flushing everything that piled up while it was busy in one batch. Delegates implementing
+ * {@link TimestampedLogWriter} get the time each record was queued, not the time it is written. {@link #flush()} drains the
+ * queue synchronously and should be called before the process goes away.
+ */
+public class AsyncLogWriter implements LogWriter {
+    private static final String TAG = "AsyncLogWriter";
+
+    @VisibleForTesting
+    static final int MAX_PENDING_RECORDS = 512;
+
+    private final LogWriter[] mDelegates;
+    private final Executor mExecutor;
+    private final Queue<Record> mPending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mPendingCount = new AtomicInteger();
+    private final AtomicBoolean mDrainScheduled = new AtomicBoolean();
+    private final AtomicInteger mDroppedCount = new AtomicInteger();
+    private final Object mDrainLock = new Object();
+    private final Runnable mDrainRunnable = this::drainAndReschedule;
+
+    public AsyncLogWriter(@NonNull LogWriter... delegates) {
+        this(Executors.newSingleThreadExecutor(r -> {
+            final Thread thread = new Thread(r, TAG);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }), delegates);
+    }
+
+    @VisibleForTesting
+    AsyncLogWriter(@NonNull Executor executor, @NonNull LogWriter... delegates) {
+        mExecutor = executor;
+        mDelegates = delegates;
+    }
+
+    @Override
+    public void visible(Context context, int attribution, int pageId, int latency) {
+        enqueue(writer -> writer.visible(context, attribution, pageId, latency));
+    }
+
+    @Override
+    public void hidden(Context context, int pageId, int visibleTime) {
+        enqueue(writer -> writer.hidden(context, pageId, visibleTime));
+    }
+
+    @Override
+    public void clicked(int sourceCategory, String key) {
+        enqueue(writer -> writer.clicked(sourceCategory, key));
+    }
+
+    @Override
+    public void changed(int category, String key, int value) {
+        enqueue(writer -> writer.changed(category, key, value));
+    }
+
+    @Override
+    public void action(Context context, int category, Pair<Integer, Object>... taggedData) {
+        enqueue(writer -> writer.action(context, category, taggedData));
+    }
+
+    @Override
+    public void action(Context context, int category, int value) {
+        enqueue(writer -> writer.action(context, category, value));
+    }
+
+    @Override
+    public void action(Context context, int category, boolean value) {
+        enqueue(writer -> writer.action(context, category, value));
+    }
+
+    @Override
+    public void action(Context context, int category, String pkg) {
+        enqueue(writer -> writer.action(context, category, pkg));
+    }
+
+    @Override
+    public void action(int attribution, int action, int pageId, String key, int value) {
+        enqueue(writer -> writer.action(attribution, action, pageId, key, value));
+    }
+
+    /** Writes all pending records on the calling thread. */
+    public void flush() {
+        drain();
+    }
+
+    /** Returns the number of records dropped because the queue was full. */
+    public int getDroppedCount() {
+        return mDroppedCount.get();
+    }
+
+    @VisibleForTesting
+    int getPendingCount() {
+        return mPendingCount.get();
+    }
+
+    private void enqueue(Consumer<LogWriter> record) {
+        if (mPendingCount.incrementAndGet() > MAX_PENDING_RECORDS) {
+            mPendingCount.decrementAndGet();
+            if (mDroppedCount.getAndIncrement() == 0) {
+                Log.w(TAG, "Log queue is full, dropping records");
+            }
+            return;
+        }
+        mPending.offer(new Record(System.currentTimeMillis(), record));
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (mDrainScheduled.compareAndSet(false, true)) {
+            mExecutor.execute(mDrainRunnable);
+        }
+    }
+
+    private void drainAndReschedule() {
+        drain();
+        mDrainScheduled.set(false);
+        // A record may have been queued after the last poll but before the flag was cleared.
+        if (!mPending.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void drain() {
+        synchronized (mDrainLock) {
+            Record record;
+            while ((record = mPending.poll()) != null) {
+                mPendingCount.decrementAndGet();
+                for (LogWriter writer : mDelegates) {
+                    try {
+                        record.mWrite.accept(writer instanceof TimestampedLogWriter
+                                ? ((TimestampedLogWriter) writer).atTime(record.mEventTimeMillis)
+                                : writer);
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Failed to write log record", e);
+                    }
+                }
+            }
+        }
+    }
+
+    /** A queued call to the delegates, with the time it was made. */
+    private static final class Record {
+        final long mEventTimeMillis;
+        final Consumer<LogWriter> mWrite;
+
+        Record(long eventTimeMillis, Consumer<LogWriter> write) {
+            mEventTimeMillis = eventTimeMillis;
+            mWrite = write;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.ArrayMap;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks how long each loading phase of a settings page takes.
+ *
+ * <p>Each phase is wrapped in a systrace section named {@code <Page>#<phase>}. Once the page is
+ * fully drawn the durations are reported through {@link SettingsMetricsFeatureProvider} and
+ * aggregated per page class, together with the number of preference rows the page inflated, so
+ * that they can be inspected with
+ * {@code adb shell dumpsys activity service com.android.settings/.SettingsDumpService}.
+ */
+public class PageLatencyTracker {
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({
+            PHASE_CONTROLLER_CONSTRUCTION,
+            PHASE_DISPLAY_PREFERENCE,
+            PHASE_UPDATE_STATE,
+            PHASE_TILE_INJECTION,
+            PHASE_FIRST_FRAME,
+            PHASE_FULLY_DRAWN})
+    public @interface Phase {}
+
+    /** Creation of all preference controllers of the page. */
+    public static final int PHASE_CONTROLLER_CONSTRUCTION = 0;
+    /** {@code displayPreference} calls of all controllers. */
+    public static final int PHASE_DISPLAY_PREFERENCE = 1;
+    /** {@code updateState} calls of all controllers. */
+    public static final int PHASE_UPDATE_STATE = 2;
+    /** Injection of dashboard tiles. */
+    public static final int PHASE_TILE_INJECTION = 3;
+    /** Time from page creation until the first preference row is drawn. */
+    public static final int PHASE_FIRST_FRAME = 4;
+    /** Time from page creation until the first frame after all content is bound. */
+    public static final int PHASE_FULLY_DRAWN = 5;
+
+    private static final String[] PHASE_NAMES = {
+            "controller_construction",
+            "display_preference",
+            "update_state",
+            "tile_injection",
+            "first_frame",
+            "fully_drawn",
+    };
+    private static final int PHASE_COUNT = PHASE_NAMES.length;
+    private static final int MAX_SLOW_CONTROLLERS = 5;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    @VisibleForTesting
+    static final Map<String, PageStats> sPageStats = new ArrayMap<>();
+
+    private final String mPageName;
+    private final int mPageId;
+    private final long mCreatedNanos;
+    private final String[] mSectionNames = new String[PHASE_COUNT];
+    private final long[] mPhaseStartNanos = new long[PHASE_COUNT];
+    private final long[] mPhaseDurationNanos = new long[PHASE_COUNT];
+    private final Map<String, Long> mControllerNanos = new ArrayMap<>();
+    private int mInflatedViewCount;
+    private boolean mContentReady;
+    private boolean mFirstFrameDrawn;
+    private boolean mReported;
+
+    public PageLatencyTracker(@NonNull Class<?> pageClass, int pageId) {
+        mPageName = pageClass.getSimpleName();
+        mPageId = pageId;
+        mCreatedNanos = SystemClock.elapsedRealtimeNanos();
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            mSectionNames[phase] = mPageName + "#" + PHASE_NAMES[phase];
+        }
+    }
+
+    /** Starts measuring the given phase. */
+    public void beginPhase(@Phase int phase) {
+        Trace.beginSection(mSectionNames[phase]);
+        mPhaseStartNanos[phase] = SystemClock.elapsedRealtimeNanos();
+    }
+
+    /** Stops measuring the given phase, adding the elapsed time to the phase total. */
+    public void endPhase(@Phase int phase) {
+        mPhaseDurationNanos[phase] +=
+                SystemClock.elapsedRealtimeNanos() - mPhaseStartNanos[phase];
+        Trace.endSection();
+    }
+
+    /** Attributes time spent in a phase to a single controller. */
+    public void recordController(@NonNull Object controller, long durationNanos) {
+        final String name = controller.getClass().getSimpleName();
+        final Long total = mControllerNanos.get(name);
+        mControllerNanos.put(name, total == null ? durationNanos : total + durationNanos);
+    }
+
+    /** Counts a preference row inflated for the page. */
+    public void recordViewHolderInflated() {
+        if (mReported) {
+            return;
+        }
+        mInflatedViewCount++;
+    }
+
+    /** Marks that all preferences are added and their initial state is bound. */
+    public void onContentReady() {
+        mContentReady = true;
+    }
+
+    /**
+     * Called for each frame drawn by the page's list.
+     *
+     * @return {@code true} once the page is fully drawn and no more frames need to be reported.
+     */
+    public boolean onFrameDrawn(boolean hasPreferences, @NonNull MetricsFeatureProvider provider) {
+        if (mReported) {
+            return true;
+        }
+        final long sinceCreated = SystemClock.elapsedRealtimeNanos() - mCreatedNanos;
+        if (hasPreferences && !mFirstFrameDrawn) {
+            mFirstFrameDrawn = true;
+            mPhaseDurationNanos[PHASE_FIRST_FRAME] = sinceCreated;
+        }
+        if (!mContentReady || !mFirstFrameDrawn) {
+            return false;
+        }
+        mPhaseDurationNanos[PHASE_FULLY_DRAWN] = sinceCreated;
+        mReported = true;
+        report(provider);
+        return true;
+    }
+
+    @VisibleForTesting
+    long getPhaseDurationMillis(@Phase int phase) {
+        return mPhaseDurationNanos[phase] / NANOS_PER_MILLI;
+    }
+
+    private void report(MetricsFeatureProvider provider) {
+        if (provider instanceof SettingsMetricsFeatureProvider) {
+            final SettingsMetricsFeatureProvider settingsProvider =
+                    (SettingsMetricsFeatureProvider) provider;
+            for (int phase = 0; phase < PHASE_COUNT; phase++) {
+                settingsProvider.logPageLatency(mPageId, PHASE_NAMES[phase],
+                        getPhaseDurationMillis(phase));
+            }
+        }
+        synchronized (sPageStats) {
+            PageStats stats = sPageStats.get(mPageName);
+            if (stats == null) {
+                stats = new PageStats();
+                sPageStats.put(mPageName, stats);
+            }
+            stats.add(mPhaseDurationNanos, mControllerNanos, mInflatedViewCount);
+        }
+    }
+
+    /** Returns the aggregated latency of all pages shown in this process as JSON. */
+    public static JSONObject dumpToJson() throws JSONException {
+        final JSONObject result = new JSONObject();
+        synchronized (sPageStats) {
+            for (Map.Entry<String, PageStats> entry : sPageStats.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().toJson());
+            }
+        }
+        return result;
+    }
+
+    @VisibleForTesting
+    static final class PageStats {
+        int mCount;
+        final long[] mLastNanos = new long[PHASE_COUNT];
+        final long[] mTotalNanos = new long[PHASE_COUNT];
+        final long[] mMaxNanos = new long[PHASE_COUNT];
+        final Map<String, Long> mControllerMaxNanos = new ArrayMap<>();
+        int mLastInflatedViews;
+        long mTotalInflatedViews;
+
+        void add(long[] phaseNanos, Map<String, Long> controllerNanos, int inflatedViews) {
+            mCount++;
+            mLastInflatedViews = inflatedViews;
+            mTotalInflatedViews += inflatedViews;
+            for (int phase = 0; phase < PHASE_COUNT; phase++) {
+                mLastNanos[phase] = phaseNanos[phase];
+                mTotalNanos[phase] += phaseNanos[phase];
+                mMaxNanos[phase] = Math.max(mMaxNanos[phase], phaseNanos[phase]);
+            }
+            for (Map.Entry<String, Long> entry : controllerNanos.entrySet()) {
+                final Long max = mControllerMaxNanos.get(entry.getKey());
+                if (max == null || max < entry.getValue()) {
+                    mControllerMaxNanos.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        JSONObject toJson() throws JSONException {
+            final JSONObject json = new JSONObject();
+            json.put("count", mCount);
+            for (int phase = 0; phase < PHASE_COUNT; phase++) {
+                final JSONObject phaseJson = new JSONObject();
+                phaseJson.put("last_ms", mLastNanos[phase] / NANOS_PER_MILLI);
+                phaseJson.put("avg_ms", mTotalNanos[phase] / mCount / NANOS_PER_MILLI);
+                phaseJson.put("max_ms", mMaxNanos[phase] / NANOS_PER_MILLI);
+                json.put(PHASE_NAMES[phase], phaseJson);
+            }
+            final List<Map.Entry<String, Long>> controllers =
+                    new ArrayList<>(mControllerMaxNanos.entrySet());
+            controllers.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+            final JSONArray slowest = new JSONArray();
+            for (int i = 0; i < Math.min(MAX_SLOW_CONTROLLERS, controllers.size()); i++) {
+                final JSONObject controller = new JSONObject();
+                controller.put("name", controllers.get(i).getKey());
+                controller.put("max_ms", controllers.get(i).getValue() / NANOS_PER_MILLI);
+                slowest.put(controller);
+            }
+            json.put("slowest_controllers", slowest);
+            final JSONObject views = new JSONObject();
+            views.put("last_inflated", mLastInflatedViews);
+            views.put("avg_inflated", mTotalInflatedViews / mCount);
+            json.put("view_holders", views);
+            return json;
+        }
+    }
+}
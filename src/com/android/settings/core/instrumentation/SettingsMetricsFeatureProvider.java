@@ -17,18 +17,45 @@
 package com.android.settings.core.instrumentation;
 
 import android.content.Context;
+import android.util.EventLog;
 import android.util.Log;
 import android.util.Pair;
 
+import com.android.settings.EventLogTags;
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 
 public class SettingsMetricsFeatureProvider extends MetricsFeatureProvider {
     private static final String TAG = "SettingsMetricsFeature";
 
+    private AsyncLogWriter mAsyncLogWriter;
+
     @Override
     protected void installLogWriters() {
-        mLoggerWriters.add(new StatsLogWriter());
-        mLoggerWriters.add(new SettingsEventLogWriter());
+        // Writes go through a background drainer so logging never blocks UI interactions.
+        mAsyncLogWriter = new AsyncLogWriter(new StatsLogWriter(), new SettingsEventLogWriter());
+        mLoggerWriters.add(mAsyncLogWriter);
+    }
+
+    /** Synchronously writes all pending log records, e.g. before the process is killed. */
+    public void flush() {
+        if (mAsyncLogWriter != null) {
+            mAsyncLogWriter.flush();
+        }
+    }
+
+    /**
+     * Logs how long a loading phase of a page took.
+     *
+     * <p>Latency goes to its own event log tag instead of {@code SETTINGS_UI_CHANGED}, so that it
+     * isn't counted as a page visit.
+     *
+     * @param pageId the metrics category of the page
+     * @param phase the name of the phase, see {@link PageLatencyTracker}
+     * @param durationMillis the duration of the phase
+     */
+    public void logPageLatency(int pageId, String phase, long durationMillis) {
+        EventLog.writeEvent(EventLogTags.SETTINGS_PAGE_LATENCY, pageId, phase,
+                (int) Math.min(durationMillis, Integer.MAX_VALUE));
     }
 
     /**
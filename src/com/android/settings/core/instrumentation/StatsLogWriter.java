@@ -20,9 +20,30 @@ import android.app.settings.SettingsEnums;
 import android.content.Context;
 import android.util.Pair;
 
+import androidx.annotation.NonNull;
+
 import com.android.settingslib.core.instrumentation.LogWriter;
 
-public class StatsLogWriter implements LogWriter {
+public class StatsLogWriter implements TimestampedLogWriter {
+
+    private static final long EVENT_TIME_NOW = -1L;
+
+    // The time the records happened at, or EVENT_TIME_NOW if they're written as they happen.
+    private final long mEventTimeMillis;
+
+    public StatsLogWriter() {
+        this(EVENT_TIME_NOW);
+    }
+
+    private StatsLogWriter(long eventTimeMillis) {
+        mEventTimeMillis = eventTimeMillis;
+    }
+
+    @NonNull
+    @Override
+    public LogWriter atTime(long eventTimeMillis) {
+        return new StatsLogWriter(eventTimeMillis);
+    }
 
     @Override
     public void visible(Context context, int attribution, int pageId, int latency) {
@@ -32,7 +53,7 @@ public class StatsLogWriter implements LogWriter {
                 pageId, /* target pageId */
                 "" /* changedPreferenceKey */,
                 latency /* changedPreferenceIntValue */,
-                ElapsedTimeUtils.getElapsedTime(System.currentTimeMillis()));
+                getElapsedTime());
     }
 
     @Override
@@ -43,7 +64,7 @@ public class StatsLogWriter implements LogWriter {
                 pageId,
                 "" /* changedPreferenceKey */,
                 visibleTime /* changedPreferenceIntValue */,
-                ElapsedTimeUtils.getElapsedTime(System.currentTimeMillis()));
+                getElapsedTime());
     }
 
     @Override
@@ -54,7 +75,7 @@ public class StatsLogWriter implements LogWriter {
                 SettingsEnums.PAGE_UNKNOWN /* pageId */,
                 key /* changedPreferenceKey */,
                 0 /* changedPreferenceIntValue */,
-                ElapsedTimeUtils.getElapsedTime(System.currentTimeMillis()));
+                getElapsedTime());
     }
 
     @Override
@@ -65,7 +86,7 @@ public class StatsLogWriter implements LogWriter {
                 SettingsEnums.PAGE_UNKNOWN /* pageId */,
                 key /* changedPreferenceKey */,
                 value /* changedPreferenceIntValue */,
-                ElapsedTimeUtils.getElapsedTime(System.currentTimeMillis()));
+                getElapsedTime());
     }
 
     @Override
@@ -112,6 +133,11 @@ public class StatsLogWriter implements LogWriter {
                 pageId,
                 key,
                 value,
-                ElapsedTimeUtils.getElapsedTime(System.currentTimeMillis()));
+                getElapsedTime());
+    }
+
+    private long getElapsedTime() {
+        return ElapsedTimeUtils.getElapsedTime(mEventTimeMillis != EVENT_TIME_NOW
+                ? mEventTimeMillis : System.currentTimeMillis());
     }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import androidx.annotation.NonNull;
+
+import com.android.settingslib.core.instrumentation.LogWriter;
+
+/** A {@link LogWriter} which can write records with the time they happened instead of now. */
+public interface TimestampedLogWriter extends LogWriter {
+
+    /**
+     * Returns a writer which writes its records as if they happened at {@code eventTimeMillis}.
+     *
+     * @param eventTimeMillis the wall clock time of the event, see
+     *                        {@link System#currentTimeMillis()}
+     */
+    @NonNull
+    LogWriter atTime(long eventTimeMillis);
+}
@@ -21,6 +21,7 @@ import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.preference.PreferenceManager.OnActivityResultListener;
 import android.text.TextUtils;
 import android.util.ArrayMap;
@@ -46,6 +47,7 @@ import com.android.settings.core.BasePreferenceController;
 import com.android.settings.core.CategoryMixin.CategoryHandler;
 import com.android.settings.core.CategoryMixin.CategoryListener;
 import com.android.settings.core.PreferenceControllerListHelper;
+import com.android.settings.core.instrumentation.PageLatencyTracker;
 import com.android.settings.flags.Flags;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.PrimarySwitchPreference;
@@ -100,33 +102,11 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         mDashboardFeatureProvider =
                 FeatureFactory.getFeatureFactory().getDashboardFeatureProvider();
 
-        PreferenceScreenCreator preferenceScreenCreator = getPreferenceScreenCreator();
-        if (preferenceScreenCreator == null || !preferenceScreenCreator.hasCompleteHierarchy()) {
-            // Load preference controllers from code
-            final List<AbstractPreferenceController> controllersFromCode =
-                    createPreferenceControllers(context);
-            // Load preference controllers from xml definition
-            final List<BasePreferenceController> controllersFromXml = PreferenceControllerListHelper
-                    .getPreferenceControllersFromXml(context, getPreferenceScreenResId());
-            // Filter xml-based controllers in case a similar controller is created from code
-            // already.
-            final List<BasePreferenceController> uniqueControllerFromXml =
-                    PreferenceControllerListHelper.filterControllers(
-                            controllersFromXml, controllersFromCode);
-
-            // Add unique controllers to list.
-            if (controllersFromCode != null) {
-                mControllers.addAll(controllersFromCode);
-            }
-            mControllers.addAll(uniqueControllerFromXml);
-
-            // And wire up with lifecycle.
-            final Lifecycle lifecycle = getSettingsLifecycle();
-            uniqueControllerFromXml.forEach(controller -> {
-                if (controller instanceof LifecycleObserver) {
-                    lifecycle.addObserver((LifecycleObserver) controller);
-                }
-            });
+        beginLatencyPhase(PageLatencyTracker.PHASE_CONTROLLER_CONSTRUCTION);
+        try {
+            addPreferenceControllers(context);
+        } finally {
+            endLatencyPhase(PageLatencyTracker.PHASE_CONTROLLER_CONSTRUCTION);
         }
 
         // Set metrics category for BasePreferenceController.
@@ -403,6 +383,37 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         displayResourceTilesToScreen(screen);
     }
 
+    private void addPreferenceControllers(Context context) {
+        PreferenceScreenCreator preferenceScreenCreator = getPreferenceScreenCreator();
+        if (preferenceScreenCreator == null || !preferenceScreenCreator.hasCompleteHierarchy()) {
+            // Load preference controllers from code
+            final List<AbstractPreferenceController> controllersFromCode =
+                    createPreferenceControllers(context);
+            // Load preference controllers from xml definition
+            final List<BasePreferenceController> controllersFromXml = PreferenceControllerListHelper
+                    .getPreferenceControllersFromXml(context, getPreferenceScreenResId());
+            // Filter xml-based controllers in case a similar controller is created from code
+            // already.
+            final List<BasePreferenceController> uniqueControllerFromXml =
+                    PreferenceControllerListHelper.filterControllers(
+                            controllersFromXml, controllersFromCode);
+
+            // Add unique controllers to list.
+            if (controllersFromCode != null) {
+                mControllers.addAll(controllersFromCode);
+            }
+            mControllers.addAll(uniqueControllerFromXml);
+
+            // And wire up with lifecycle.
+            final Lifecycle lifecycle = getSettingsLifecycle();
+            uniqueControllerFromXml.forEach(controller -> {
+                if (controller instanceof LifecycleObserver) {
+                    lifecycle.addObserver((LifecycleObserver) controller);
+                }
+            });
+        }
+    }
+
     /**
      * Removes preference controllers that have been migrated to catalyst.
      *
@@ -437,8 +448,17 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      * on all {@link AbstractPreferenceController}s.
      */
     protected void displayResourceTilesToScreen(PreferenceScreen screen) {
-        mPreferenceControllers.values().stream().flatMap(Collection::stream).forEach(
-                controller -> controller.displayPreference(screen));
+        beginLatencyPhase(PageLatencyTracker.PHASE_DISPLAY_PREFERENCE);
+        try {
+            mPreferenceControllers.values().stream().flatMap(Collection::stream).forEach(
+                    controller -> {
+                        final long startNanos = SystemClock.elapsedRealtimeNanos();
+                        controller.displayPreference(screen);
+                        recordControllerLatency(controller, startNanos);
+                    });
+        } finally {
+            endLatencyPhase(PageLatencyTracker.PHASE_DISPLAY_PREFERENCE);
+        }
     }
 
     /**
@@ -452,6 +472,15 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      * Update state of each preference managed by PreferenceController.
      */
     protected void updatePreferenceStates() {
+        beginLatencyPhase(PageLatencyTracker.PHASE_UPDATE_STATE);
+        try {
+            updatePreferenceStatesInternal();
+        } finally {
+            endLatencyPhase(PageLatencyTracker.PHASE_UPDATE_STATE);
+        }
+    }
+
+    private void updatePreferenceStatesInternal() {
         final PreferenceScreen screen = getPreferenceScreen();
         Collection<List<AbstractPreferenceController>> controllerLists =
                 mPreferenceControllers.values();
@@ -474,11 +503,33 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
                             key, controller.getClass().getSimpleName()));
                     continue;
                 }
+                final long startNanos = SystemClock.elapsedRealtimeNanos();
                 controller.updateState(preference);
+                recordControllerLatency(controller, startNanos);
             }
         }
     }
 
+    private void beginLatencyPhase(@PageLatencyTracker.Phase int phase) {
+        if (mPageLatencyTracker != null) {
+            mPageLatencyTracker.beginPhase(phase);
+        }
+    }
+
+    private void endLatencyPhase(@PageLatencyTracker.Phase int phase) {
+        if (mPageLatencyTracker != null) {
+            mPageLatencyTracker.endPhase(phase);
+        }
+    }
+
+    private void recordControllerLatency(AbstractPreferenceController controller,
+            long startNanos) {
+        if (mPageLatencyTracker != null) {
+            mPageLatencyTracker.recordController(controller,
+                    SystemClock.elapsedRealtimeNanos() - startNanos);
+        }
+    }
+
     /**
      * Refresh all preference items, including both static prefs from xml, and dynamic items from
      * DashboardCategory.
@@ -561,6 +612,15 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      * Refresh preference items backed by DashboardCategory.
      */
     private void refreshDashboardTiles(final String tag) {
+        beginLatencyPhase(PageLatencyTracker.PHASE_TILE_INJECTION);
+        try {
+            refreshDashboardTilesInternal(tag);
+        } finally {
+            endLatencyPhase(PageLatencyTracker.PHASE_TILE_INJECTION);
+        }
+    }
+
+    private void refreshDashboardTilesInternal(final String tag) {
         final PreferenceScreen screen = getPreferenceScreen();
 
         final DashboardCategory category =
@@ -16,7 +16,6 @@
 
 package com.android.settings.datetime.timezone;
 
-import android.icu.text.BreakIterator;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -33,11 +32,8 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.android.settings.R;
 import com.android.settings.datetime.timezone.BaseTimeZonePicker.OnListItemClickListener;
 
-import java.text.Normalizer;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.regex.Pattern;
 
 /**
  * Used with {@class BaseTimeZonePicker}. It renders text in each item into list view. A list of
@@ -50,9 +46,6 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
     @VisibleForTesting
     static final int TYPE_ITEM = 1;
 
-    private static final Pattern PATTERN_REMOVE_DIACRITICS = Pattern.compile(
-            "\\p{InCombiningDiacriticalMarks}+");
-
     private final List<T> mOriginalItems;
     private final OnListItemClickListener<T> mOnListItemClickListener;
     private final Locale mLocale;
@@ -188,19 +181,6 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
         }
     }
 
-    /**
-     * Removes diacritics (e.g. accents) from a string
-     */
-    private static String removeDiacritics(final String str) {
-        if (str == null || str.isEmpty()) {
-            return str;
-        }
-        // decomposes the original characters into a base character and a diacritic sign
-        final String decomposed = Normalizer.normalize(str, Normalizer.Form.NFKD);
-        // replaces the diacritic signs with empty strings
-        return PATTERN_REMOVE_DIACRITICS.matcher(decomposed).replaceAll("");
-    }
-
     @VisibleForTesting
     public static class ItemViewHolder<T extends BaseTimeZoneAdapter.AdapterItem>
             extends RecyclerView.ViewHolder implements View.OnClickListener {
@@ -243,14 +223,14 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
      * a prefix. Each item that does not start with the supplied prefix
      * is removed from the list.</p>
      *
-     * The filtering operation is not optimized, due to small data size (~260 regions),
-     * require additional pre-processing. Potentially, a trie structure can be used to match
-     * prefixes of the search keys.
+     * The search keys are indexed in a {@link TimeZoneSearchIndex} the first time the list is
+     * filtered, so each keystroke only walks the prefix instead of all the search keys.
      */
     @VisibleForTesting
     public class ArrayFilter extends Filter {
 
-        private BreakIterator mBreakIterator = BreakIterator.getWordInstance(mLocale);
+        // Only accessed on the filter thread
+        private TimeZoneSearchIndex<T> mSearchIndex;
 
         @WorkerThread
         @Override
@@ -259,33 +239,10 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
             if (TextUtils.isEmpty(prefix)) {
                 newItems = mOriginalItems;
             } else {
-                final String prefixString = removeDiacritics(
-                        prefix.toString().toLowerCase(mLocale));
-                newItems = new ArrayList<>();
-
-                for (T item : mOriginalItems) {
-                    outer:
-                    for (String searchKey : item.getSearchKeys()) {
-                        searchKey = removeDiacritics(searchKey.toLowerCase(mLocale));
-                        // First match against the whole, non-splitted value
-                        if (searchKey.startsWith(prefixString)) {
-                            newItems.add(item);
-                            break outer;
-                        } else {
-                            mBreakIterator.setText(searchKey);
-                            for (int wordStart = 0, wordLimit = mBreakIterator.next();
-                                    wordLimit != BreakIterator.DONE;
-                                    wordStart = wordLimit,
-                                            wordLimit = mBreakIterator.next()) {
-                                if (mBreakIterator.getRuleStatus() != BreakIterator.WORD_NONE
-                                        && searchKey.startsWith(prefixString, wordStart)) {
-                                    newItems.add(item);
-                                    break outer;
-                                }
-                            }
-                        }
-                    }
+                if (mSearchIndex == null) {
+                    mSearchIndex = new TimeZoneSearchIndex<>(mOriginalItems, mLocale);
                 }
+                newItems = mSearchIndex.search(prefix);
             }
 
             final FilterResults results = new FilterResults();
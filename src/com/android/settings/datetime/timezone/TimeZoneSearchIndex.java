@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datetime.timezone;
+
+import android.icu.text.BreakIterator;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * A prefix trie over the search keys of the items of a {@link BaseTimeZoneAdapter}.
+ *
+ * <p>Search keys are lowercased and stripped of diacritics once, when the index is built. Each key
+ * is added from its start and from the start of each of its words, so that a search matches the
+ * prefix of any word in the key. Every node keeps the items whose keys pass through it, in the
+ * order of the list, so a search only walks the query and copies the matches.
+ */
+final class TimeZoneSearchIndex<T extends BaseTimeZoneAdapter.AdapterItem> {
+
+    private static final Pattern PATTERN_REMOVE_DIACRITICS = Pattern.compile(
+            "\\p{InCombiningDiacriticalMarks}+");
+
+    private final List<T> mItems;
+    private final Locale mLocale;
+    private final Node mRoot = new Node();
+
+    @WorkerThread
+    TimeZoneSearchIndex(@NonNull List<T> items, @NonNull Locale locale) {
+        mItems = items;
+        mLocale = locale;
+        final BreakIterator breakIterator = BreakIterator.getWordInstance(locale);
+        for (int i = 0; i < items.size(); i++) {
+            for (String searchKey : items.get(i).getSearchKeys()) {
+                if (searchKey != null) {
+                    addSearchKey(i, fold(searchKey), breakIterator);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the items with a search key, or a word of a search key, starting with the prefix.
+     * Items are returned in the order of the list the index was built with.
+     */
+    @NonNull
+    List<T> search(@NonNull CharSequence prefix) {
+        final String folded = fold(prefix.toString());
+        Node node = mRoot;
+        for (int i = 0; i < folded.length() && node != null; i++) {
+            node = node.mChildren != null ? node.mChildren.get(folded.charAt(i)) : null;
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        if (node == mRoot) {
+            return mItems;
+        }
+        final List<T> result = new ArrayList<>(node.mItemCount);
+        for (int i = 0; i < node.mItemCount; i++) {
+            result.add(mItems.get(node.mItemIndexes[i]));
+        }
+        return result;
+    }
+
+    private void addSearchKey(int itemIndex, String searchKey, BreakIterator breakIterator) {
+        // First match against the whole, non-splitted value
+        addSuffix(itemIndex, searchKey, 0);
+        breakIterator.setText(searchKey);
+        for (int wordStart = 0, wordLimit = breakIterator.next();
+                wordLimit != BreakIterator.DONE;
+                wordStart = wordLimit, wordLimit = breakIterator.next()) {
+            if (wordStart > 0 && breakIterator.getRuleStatus() != BreakIterator.WORD_NONE) {
+                addSuffix(itemIndex, searchKey, wordStart);
+            }
+        }
+    }
+
+    private void addSuffix(int itemIndex, String searchKey, int start) {
+        Node node = mRoot;
+        for (int i = start; i < searchKey.length(); i++) {
+            node = node.getOrCreateChild(searchKey.charAt(i));
+            node.addItem(itemIndex);
+        }
+    }
+
+    private String fold(String str) {
+        return removeDiacritics(str.toLowerCase(mLocale));
+    }
+
+    /**
+     * Removes diacritics (e.g. accents) from a string
+     */
+    private static String removeDiacritics(final String str) {
+        if (str == null || str.isEmpty()) {
+            return str;
+        }
+        // decomposes the original characters into a base character and a diacritic sign
+        final String decomposed = Normalizer.normalize(str, Normalizer.Form.NFKD);
+        // replaces the diacritic signs with empty strings
+        return PATTERN_REMOVE_DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+
+    private static final class Node {
+        private SparseArray<Node> mChildren;
+        private int[] mItemIndexes;
+        private int mItemCount;
+
+        Node getOrCreateChild(char c) {
+            if (mChildren == null) {
+                mChildren = new SparseArray<>(1);
+            }
+            Node child = mChildren.get(c);
+            if (child == null) {
+                child = new Node();
+                mChildren.put(c, child);
+            }
+            return child;
+        }
+
+        void addItem(int itemIndex) {
+            // Items are added in order, so a repeated item is always the last one.
+            if (mItemCount > 0 && mItemIndexes[mItemCount - 1] == itemIndex) {
+                return;
+            }
+            if (mItemIndexes == null) {
+                mItemIndexes = new int[1];
+            } else if (mItemCount == mItemIndexes.length) {
+                mItemIndexes = Arrays.copyOf(mItemIndexes, mItemCount * 2);
+            }
+            mItemIndexes[mItemCount++] = itemIndex;
+        }
+    }
+}
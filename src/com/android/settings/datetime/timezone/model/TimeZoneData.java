@@ -22,7 +22,6 @@ import com.android.i18n.timezone.CountryTimeZones;
 import com.android.i18n.timezone.CountryZonesFinder;
 import com.android.i18n.timezone.TimeZoneFinder;
 
-import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -33,23 +32,21 @@ import java.util.Set;
  * Wrapper of CountryZonesFinder to normalize the country code and only show the regions that are
  * has time zone shown in the time zone picker.
  * getInstance() reads the data from underlying file, and this means it should not be called
- * from the UI thread.
+ * from the UI thread. The data doesn't depend on the locale, so it's read once and kept for the
+ * lifetime of the process; locale dependent names are created by the pickers.
  */
 public class TimeZoneData {
 
-    private static WeakReference<TimeZoneData> sCache = null;
+    private static TimeZoneData sInstance;
 
     private final CountryZonesFinder mCountryZonesFinder;
     private final Set<String> mRegionIds;
 
     public static synchronized TimeZoneData getInstance() {
-        TimeZoneData data = sCache == null ? null : sCache.get();
-        if (data != null) {
-            return data;
+        if (sInstance == null) {
+            sInstance = new TimeZoneData(TimeZoneFinder.getInstance().getCountryZonesFinder());
         }
-        data = new TimeZoneData(TimeZoneFinder.getInstance().getCountryZonesFinder());
-        sCache = new WeakReference<>(data);
-        return data;
+        return sInstance;
     }
 
     @VisibleForTesting
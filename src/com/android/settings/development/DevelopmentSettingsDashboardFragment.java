@@ -235,10 +235,14 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
         mIsBiometricsAuthenticated = false;
         cr.registerContentObserver(mDevelopEnabled, false, mDeveloperSettingsObserver);
 
+        if (mPreferenceControllers.isEmpty()) {
+            // The page is finishing in onCreate(), there is no UI state to restore.
+            return;
+        }
         // Restore UI state based on whether developer options is enabled
         if (DevelopmentSettingsEnabler.isDevelopmentSettingsEnabled(getContext())) {
             enableDeveloperOptions();
-            handleQsTileLongPressActionIfAny();
+            handleQsTileLongPressActionIfAny(getActivity().getIntent());
         } else {
             disableDeveloperOptions();
         }
@@ -310,8 +314,8 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
      * QS_TILE_PREFERENCES in the manifest) take you to the developer options page.
      * Some tiles may want to go into their own page within the developer options.
      */
-    private void handleQsTileLongPressActionIfAny() {
-        Intent intent = getActivity().getIntent();
+    @VisibleForTesting
+    void handleQsTileLongPressActionIfAny(Intent intent) {
         if (intent == null || !TextUtils.equals(ACTION_QS_TILE_PREFERENCES, intent.getAction())) {
             return;
         }
@@ -323,9 +327,11 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
             return;
         }
 
+        final WirelessDebuggingPreferenceController wirelessDebuggingController =
+                getDevelopmentOptionsController(WirelessDebuggingPreferenceController.class);
         if (DevelopmentTiles.WirelessDebugging.class.getName().equals(
-                componentName.getClassName()) && getDevelopmentOptionsController(
-                WirelessDebuggingPreferenceController.class).isAvailable()) {
+                componentName.getClassName()) && wirelessDebuggingController != null
+                && wirelessDebuggingController.isAvailable()) {
             Log.d(TAG, "Long press from wireless debugging qstile");
             new SubSettingLauncher(getContext())
                     .setDestination(WirelessDebuggingFragment.class.getName())
@@ -618,9 +624,16 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
         return Utils.isMonkeyRunning() ? R.xml.placeholder_prefs : R.xml.development_settings;
     }
 
+    /**
+     * Builds the controllers of all preferences on the page. Nothing is built when the page is
+     * finished in onCreate(), but with developer options enabled every controller is still built
+     * up front: all categories are expanded and each controller is displayed before the first
+     * frame.
+     */
     @Override
     protected List<AbstractPreferenceController> createPreferenceControllers(Context context) {
-        if (Utils.isMonkeyRunning()) {
+        if (Utils.isMonkeyRunning() || !canShowPreferences(context)) {
+            // The page finishes in onCreate(), don't construct controllers that are never shown.
             mPreferenceControllers = new ArrayList<>();
             return null;
         }
@@ -630,6 +643,16 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
         return mPreferenceControllers;
     }
 
+    /**
+     * Returns whether the preferences can be shown, i.e. the user is an admin and developer
+     * options are enabled. Otherwise the page is finished before any preference is displayed.
+     */
+    private static boolean canShowPreferences(Context context) {
+        final UserManager um = context.getSystemService(UserManager.class);
+        return um != null && um.isAdminUser()
+                && DevelopmentSettingsEnabler.isDevelopmentSettingsEnabled(context);
+    }
+
     private void registerReceivers() {
         LocalBroadcastManager.getInstance(getContext())
                 .registerReceiver(mEnableAdbReceiver, new IntentFilter(
@@ -901,6 +924,12 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
                 @Override
                 public List<AbstractPreferenceController> createPreferenceControllers(Context
                         context) {
+                    if (!isPageSearchEnabled(context)) {
+                        // The whole page is non-indexable, the keys come from xml. Availability
+                        // of each controller doesn't matter, so don't construct them. While the
+                        // page is enabled, all controllers are needed for their availability.
+                        return new ArrayList<>();
+                    }
                     return buildPreferenceControllers(context, null /* activity */,
                             null /* lifecycle */, null /* devOptionsDashboardFragment */,
                             null /* bluetoothA2dpConfigStore */);
@@ -25,6 +25,7 @@ import androidx.preference.Preference;
 
 import com.android.internal.widget.LockPatternUtils;
 import com.android.settings.R;
+import com.android.settings.core.SettingsSnapshot;
 import com.android.settings.core.TogglePreferenceController;
 import com.android.settings.overlay.FeatureFactory;
 
@@ -44,7 +45,7 @@ public class ControlsPrivacyPreferenceController extends TogglePreferenceControl
 
     @Override
     public boolean isChecked() {
-        return Settings.Secure.getInt(mContext.getContentResolver(), SETTING_KEY, 0) != 0;
+        return SettingsSnapshot.getSecureInt(mContext.getContentResolver(), SETTING_KEY, 0) != 0;
     }
 
     @Override
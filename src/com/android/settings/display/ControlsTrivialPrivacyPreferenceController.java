@@ -23,6 +23,7 @@ import androidx.preference.Preference;
 import androidx.preference.PreferenceScreen;
 
 import com.android.settings.R;
+import com.android.settings.core.SettingsSnapshot;
 import com.android.settings.core.TogglePreferenceController;
 
 /**
@@ -39,7 +40,7 @@ public class ControlsTrivialPrivacyPreferenceController extends TogglePreference
 
     @Override
     public boolean isChecked() {
-        return Settings.Secure.getInt(mContext.getContentResolver(), SETTING_KEY, 0) != 0;
+        return SettingsSnapshot.getSecureInt(mContext.getContentResolver(), SETTING_KEY, 0) != 0;
     }
 
     @Override
@@ -77,7 +78,7 @@ public class ControlsTrivialPrivacyPreferenceController extends TogglePreference
 
     private boolean showDeviceControlsSettingsEnabled() {
         return CustomizableLockScreenUtils.isFeatureEnabled(mContext)
-                || Settings.Secure.getInt(
+                || SettingsSnapshot.getSecureInt(
                         mContext.getContentResolver(), DEPENDENCY_SETTING_KEY, 0) != 0;
     }
 
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import android.os.BatteryStats.HistoryItem;
+import android.os.BatteryUsageStats;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.internal.os.BatteryStatsHistoryIterator;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * The battery history of a {@link BatteryUsageStats}, decoded once into primitive arrays.
+ *
+ * <p>The history is walked a single time; each record keeps only the fields the {@link
+ * BatteryInfo.BatteryDataParser}s read: command, times, battery level and state flags. Runs of
+ * updates with the same level and flags are collapsed to their first and last record, which is the
+ * resolution the chart, the flag bars and the usage detectors work at. The timeline of the last
+ * decoded stats is kept, so parsing the same history again only replays the arrays.
+ */
+final class BatteryHistoryTimeline {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Guarded by BatteryHistoryTimeline.class
+    private static WeakReference<BatteryUsageStats> sCachedStats;
+    // Guarded by BatteryHistoryTimeline.class
+    private static BatteryHistoryTimeline sCachedTimeline;
+
+    private byte[] mCmds = new byte[INITIAL_CAPACITY];
+    private long[] mTimes = new long[INITIAL_CAPACITY];
+    private long[] mCurrentTimes = new long[INITIAL_CAPACITY];
+    private byte[] mLevels = new byte[INITIAL_CAPACITY];
+    private int[] mStates = new int[INITIAL_CAPACITY];
+    private int[] mStates2 = new int[INITIAL_CAPACITY];
+    private int mCount;
+
+    private long mHistoryStart;
+    private long mStartWalltime;
+    private long mLastWallTime;
+    private long mLastRealtime;
+    private long mHistoryEnd;
+    // Records after the last update don't add anything to the parsers.
+    private int mInterestingCount;
+
+    /** Returns the timeline of the stats, decoding their history unless it was just decoded. */
+    @NonNull
+    static synchronized BatteryHistoryTimeline of(@NonNull BatteryUsageStats stats) {
+        if (sCachedTimeline != null && sCachedStats.get() == stats) {
+            return sCachedTimeline;
+        }
+        final BatteryHistoryTimeline timeline =
+                decode(stats.iterateBatteryStatsHistory());
+        sCachedStats = new WeakReference<>(stats);
+        sCachedTimeline = timeline;
+        return timeline;
+    }
+
+    @VisibleForTesting
+    static synchronized void clearCache() {
+        sCachedStats = null;
+        sCachedTimeline = null;
+    }
+
+    @VisibleForTesting
+    @NonNull
+    static BatteryHistoryTimeline decode(@NonNull BatteryStatsHistoryIterator iterator) {
+        final BatteryHistoryTimeline timeline = new BatteryHistoryTimeline();
+        boolean first = true;
+        HistoryItem rec;
+        while ((rec = iterator.next()) != null) {
+            if (first) {
+                first = false;
+                timeline.mHistoryStart = rec.time;
+            }
+            if (rec.cmd == HistoryItem.CMD_CURRENT_TIME || rec.cmd == HistoryItem.CMD_RESET) {
+                // If there is a ridiculously large jump in time, then we won't be
+                // able to create a good chart with that data, so just ignore the
+                // times we got before and pretend like our data extends back from
+                // the time we have now.
+                // Also, if we are getting a time change and we are less than 5 minutes
+                // since the start of the history real time, then also use this new
+                // time to compute the base time, since whatever time we had before is
+                // pretty much just noise.
+                if (rec.currentTime > (timeline.mLastWallTime + (180 * 24 * 60 * 60 * 1000L))
+                        || rec.time < (timeline.mHistoryStart + (5 * 60 * 1000L))) {
+                    timeline.mStartWalltime = 0;
+                }
+                timeline.mLastWallTime = rec.currentTime;
+                timeline.mLastRealtime = rec.time;
+                if (timeline.mStartWalltime == 0) {
+                    timeline.mStartWalltime =
+                            timeline.mLastWallTime - (timeline.mLastRealtime
+                                    - timeline.mHistoryStart);
+                }
+            }
+            timeline.add(rec);
+            if (rec.isDeltaData()) {
+                timeline.mInterestingCount = timeline.mCount;
+                timeline.mHistoryEnd = rec.time;
+            }
+        }
+        return timeline;
+    }
+
+    private BatteryHistoryTimeline() {}
+
+    @VisibleForTesting
+    int getRecordCount() {
+        return mCount;
+    }
+
+    /** Feeds the decoded history to the parsers, as if they iterated the history itself. */
+    void replay(@NonNull BatteryInfo.BatteryDataParser... parsers) {
+        final long startWalltime = mStartWalltime;
+        final long endWalltime = mLastWallTime + mHistoryEnd - mLastRealtime;
+        for (int j = 0; j < parsers.length; j++) {
+            parsers[j].onParsingStarted(startWalltime, endWalltime);
+        }
+
+        if (endWalltime > startWalltime) {
+            // Same starting point as the second walk over the history used to have.
+            long curWalltime = 0;
+            long lastRealtime = mLastRealtime;
+            final HistoryItem rec = new HistoryItem();
+            for (int i = 0; i < mInterestingCount; i++) {
+                fill(rec, i);
+                if (rec.isDeltaData()) {
+                    curWalltime += rec.time - lastRealtime;
+                    lastRealtime = rec.time;
+                    long x = (curWalltime - startWalltime);
+                    if (x < 0) {
+                        x = 0;
+                    }
+                    for (int j = 0; j < parsers.length; j++) {
+                        parsers[j].onDataPoint(x, rec);
+                    }
+                } else {
+                    long lastWalltime = curWalltime;
+                    if (rec.cmd == HistoryItem.CMD_CURRENT_TIME
+                            || rec.cmd == HistoryItem.CMD_RESET) {
+                        if (rec.currentTime >= startWalltime) {
+                            curWalltime = rec.currentTime;
+                        } else {
+                            curWalltime = startWalltime + (rec.time - mHistoryStart);
+                        }
+                        lastRealtime = rec.time;
+                    }
+
+                    if (rec.cmd != HistoryItem.CMD_OVERFLOW
+                            && (rec.cmd != HistoryItem.CMD_CURRENT_TIME
+                                    || Math.abs(lastWalltime - curWalltime) > (60 * 60 * 1000))) {
+                        for (int j = 0; j < parsers.length; j++) {
+                            parsers[j].onDataGap();
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int j = 0; j < parsers.length; j++) {
+            parsers[j].onParsingDone();
+        }
+    }
+
+    private void add(HistoryItem rec) {
+        // Replace the end of a run of identical updates instead of growing it. Only wall time
+        // deltas are accumulated between updates, so the skipped records don't move any point.
+        if (mCount >= 2
+                && rec.cmd == HistoryItem.CMD_UPDATE
+                && isSameUpdate(mCount - 1, rec)
+                && isSameUpdate(mCount - 2, rec)) {
+            mTimes[mCount - 1] = rec.time;
+            mCurrentTimes[mCount - 1] = rec.currentTime;
+            return;
+        }
+        if (mCount == mCmds.length) {
+            final int capacity = mCount * 2;
+            mCmds = Arrays.copyOf(mCmds, capacity);
+            mTimes = Arrays.copyOf(mTimes, capacity);
+            mCurrentTimes = Arrays.copyOf(mCurrentTimes, capacity);
+            mLevels = Arrays.copyOf(mLevels, capacity);
+            mStates = Arrays.copyOf(mStates, capacity);
+            mStates2 = Arrays.copyOf(mStates2, capacity);
+        }
+        mCmds[mCount] = rec.cmd;
+        mTimes[mCount] = rec.time;
+        mCurrentTimes[mCount] = rec.currentTime;
+        mLevels[mCount] = rec.batteryLevel;
+        mStates[mCount] = rec.states;
+        mStates2[mCount] = rec.states2;
+        mCount++;
+    }
+
+    private boolean isSameUpdate(int index, HistoryItem rec) {
+        return mCmds[index] == HistoryItem.CMD_UPDATE
+                && mLevels[index] == rec.batteryLevel
+                && mStates[index] == rec.states
+                && mStates2[index] == rec.states2;
+    }
+
+    private void fill(HistoryItem rec, int index) {
+        rec.cmd = mCmds[index];
+        rec.time = mTimes[index];
+        rec.currentTime = mCurrentTimes[index];
+        rec.batteryLevel = mLevels[index];
+        rec.states = mStates[index];
+        rec.states2 = mStates2[index];
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+import android.os.SystemClock;
+import android.text.format.DateUtils;
+import android.util.ArrayMap;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Shares the {@link BatteryUsageStats} loaded from {@link BatteryStatsManager} within the process.
+ *
+ * <p>Opening a battery page loads the stats several times, e.g. for the usage list, the battery
+ * info and the tips. Each load is an expensive binder call returning a large parcel. Snapshots are
+ * kept by the shape of their query for a short time, and concurrent loads of the same shape wait
+ * for a single call. Every snapshot returned by {@link #acquire} must be given back with {@link
+ * #release}; the stats are closed once the cache and all of their users have released them.
+ */
+public final class BatteryUsageStatsSnapshots {
+    private static final String TAG = "BatteryUsageStatsSnapshots";
+
+    /** How long a snapshot is handed out again after it was loaded. */
+    @VisibleForTesting static final long TTL_MS = 3 * DateUtils.SECOND_IN_MILLIS;
+
+    private static final int FLAG_INCLUDE_BATTERY_HISTORY = 1;
+    private static final int FLAG_INCLUDE_PROCESS_STATE_DATA = 1 << 1;
+
+    private static BatteryUsageStatsSnapshots sInstance;
+
+    private final LongSupplier mClock;
+    // Guarded by this
+    private final Map<Integer, Entry> mEntries = new ArrayMap<>();
+    // Guarded by this
+    private final Map<BatteryUsageStats, Entry> mEntriesByStats = new IdentityHashMap<>();
+
+    /** Returns the snapshots shared by the process. */
+    public static synchronized BatteryUsageStatsSnapshots getInstance() {
+        if (sInstance == null) {
+            sInstance = new BatteryUsageStatsSnapshots(SystemClock::elapsedRealtime);
+        }
+        return sInstance;
+    }
+
+    /** For test to reset single instance. */
+    @VisibleForTesting
+    public static synchronized void resetInstance() {
+        if (sInstance != null) {
+            sInstance.clear();
+        }
+        sInstance = null;
+    }
+
+    @VisibleForTesting
+    BatteryUsageStatsSnapshots(@NonNull LongSupplier clock) {
+        mClock = clock;
+    }
+
+    /**
+     * Returns the stats of the query shape, loading them if there is no recent snapshot. The
+     * result must be given back with {@link #release} once it is no longer used.
+     *
+     * @throws RuntimeException if loading the stats failed, like {@link
+     *     BatteryStatsManager#getBatteryUsageStats}
+     */
+    @WorkerThread
+    public BatteryUsageStats acquire(
+            @NonNull BatteryStatsManager batteryStatsManager,
+            boolean includeBatteryHistory,
+            boolean includeProcessStateData) {
+        final int flags =
+                (includeBatteryHistory ? FLAG_INCLUDE_BATTERY_HISTORY : 0)
+                        | (includeProcessStateData ? FLAG_INCLUDE_PROCESS_STATE_DATA : 0);
+        final Entry entry;
+        final boolean shouldLoad;
+        synchronized (this) {
+            Entry cached = mEntries.get(flags);
+            if (cached != null && cached.isExpired(mClock.getAsLong())) {
+                evict(cached);
+                cached = null;
+            }
+            shouldLoad = cached == null;
+            entry = shouldLoad ? new Entry(flags) : cached;
+            if (shouldLoad) {
+                mEntries.put(flags, entry);
+            }
+            entry.mRefCount++;
+        }
+        if (shouldLoad) {
+            load(batteryStatsManager, entry);
+        }
+        return entry.await();
+    }
+
+    /**
+     * Gives back stats returned by {@link #acquire}. Stats which weren't loaded by this class are
+     * closed right away.
+     */
+    public void release(@Nullable BatteryUsageStats stats) {
+        if (stats == null) {
+            return;
+        }
+        final boolean shouldClose;
+        synchronized (this) {
+            final Entry entry = mEntriesByStats.get(stats);
+            shouldClose = entry == null || decrementRefCount(entry);
+        }
+        if (shouldClose) {
+            close(stats);
+        }
+    }
+
+    /**
+     * Takes another reference to the stats, e.g. to use them on another thread than their owner.
+     *
+     * @return whether a reference was taken and must be given back with {@link #release}, i.e.
+     *     the stats were loaded by this class and are still open
+     */
+    public synchronized boolean retain(@Nullable BatteryUsageStats stats) {
+        final Entry entry = stats != null ? mEntriesByStats.get(stats) : null;
+        if (entry == null) {
+            return false;
+        }
+        entry.mRefCount++;
+        return true;
+    }
+
+    /** Drops the cached snapshots, they're closed once their users have released them. */
+    public synchronized void clear() {
+        for (Entry entry : mEntries.values().toArray(new Entry[0])) {
+            evict(entry);
+        }
+    }
+
+    @VisibleForTesting
+    synchronized int getCachedSnapshotCount() {
+        return mEntries.size();
+    }
+
+    private void load(BatteryStatsManager batteryStatsManager, Entry entry) {
+        final BatteryUsageStatsQuery.Builder builder = new BatteryUsageStatsQuery.Builder();
+        if ((entry.mFlags & FLAG_INCLUDE_BATTERY_HISTORY) != 0) {
+            builder.includeBatteryHistory();
+        }
+        if ((entry.mFlags & FLAG_INCLUDE_PROCESS_STATE_DATA) != 0) {
+            builder.includeProcessStateData();
+        }
+        BatteryUsageStats stats = null;
+        RuntimeException error = null;
+        try {
+            final long startTime = System.currentTimeMillis();
+            stats = batteryStatsManager.getBatteryUsageStats(builder.build());
+            BatteryUtils.logRuntime(TAG, "getBatteryUsageStats() flags=" + entry.mFlags,
+                    startTime);
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        synchronized (this) {
+            if (stats != null) {
+                mEntriesByStats.put(stats, entry);
+                entry.mLoadedTime = mClock.getAsLong();
+            } else if (mEntries.get(entry.mFlags) == entry) {
+                // Don't keep failures, the next caller tries again.
+                mEntries.remove(entry.mFlags);
+                entry.mRefCount--;
+            }
+            entry.complete(stats, error);
+        }
+        if (stats != null) {
+            ThreadUtils.getUiThreadHandler().postDelayed(() -> expire(entry), TTL_MS);
+        }
+    }
+
+    private void expire(Entry entry) {
+        synchronized (this) {
+            if (mEntries.get(entry.mFlags) == entry) {
+                evict(entry);
+            }
+        }
+    }
+
+    // Guarded by this
+    private void evict(Entry entry) {
+        if (mEntries.get(entry.mFlags) == entry) {
+            mEntries.remove(entry.mFlags);
+            if (decrementRefCount(entry)) {
+                ThreadUtils.postOnBackgroundThread(() -> close(entry.mStats));
+            }
+        }
+    }
+
+    // Guarded by this, returns whether the stats of the entry should be closed.
+    private boolean decrementRefCount(Entry entry) {
+        if (--entry.mRefCount > 0 || entry.mStats == null) {
+            return false;
+        }
+        mEntriesByStats.remove(entry.mStats);
+        return true;
+    }
+
+    private static void close(BatteryUsageStats stats) {
+        try {
+            stats.close();
+        } catch (Exception e) {
+            Log.e(TAG, "BatteryUsageStats.close() failed", e);
+        }
+    }
+
+    private static final class Entry {
+        final int mFlags;
+        // The cache holds a reference until the entry is evicted.
+        int mRefCount = 1;
+        long mLoadedTime;
+        @Nullable BatteryUsageStats mStats;
+        @Nullable RuntimeException mError;
+        boolean mCompleted;
+
+        Entry(int flags) {
+            mFlags = flags;
+        }
+
+        boolean isExpired(long now) {
+            return mCompleted && mStats != null && now - mLoadedTime > TTL_MS;
+        }
+
+        // Called while holding the lock of the snapshots.
+        void complete(@Nullable BatteryUsageStats stats, @Nullable RuntimeException error) {
+            synchronized (this) {
+                mStats = stats;
+                mError = error;
+                mCompleted = true;
+                notifyAll();
+            }
+        }
+
+        synchronized BatteryUsageStats await() {
+            boolean interrupted = false;
+            while (!mCompleted) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (mError != null) {
+                throw mError;
+            }
+            return mStats;
+        }
+    }
+}
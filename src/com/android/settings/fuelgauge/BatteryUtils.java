@@ -27,7 +27,6 @@ import android.os.BatteryManager;
 import android.os.BatteryStats;
 import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Build;
 import android.os.SystemClock;
 import android.os.UidBatteryConsumer;
@@ -444,8 +443,11 @@ public class BatteryUtils {
         BatteryUsageStats batteryUsageStats;
         try {
             batteryUsageStats =
-                    systemService.getBatteryUsageStats(
-                            new BatteryUsageStatsQuery.Builder().includeBatteryHistory().build());
+                    BatteryUsageStatsSnapshots.getInstance()
+                            .acquire(
+                                    systemService,
+                                    /* includeBatteryHistory= */ true,
+                                    /* includeProcessStateData= */ false);
         } catch (RuntimeException e) {
             Log.e(TAG, "getBatteryInfo() error from getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
@@ -482,11 +484,7 @@ public class BatteryUtils {
                         false /* shortString */);
         BatteryUtils.logRuntime(tag, "BatteryInfoLoader.loadInBackground", startTime);
 
-        try {
-            batteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        }
+        BatteryUsageStatsSnapshots.getInstance().release(batteryUsageStats);
         return batteryInfo;
     }
 
@@ -56,7 +56,11 @@ public class DebugEstimatesLoader extends AsyncLoaderCompat<List<BatteryInfo>> {
         BatteryUsageStats batteryUsageStats;
         try {
             batteryUsageStats =
-                    context.getSystemService(BatteryStatsManager.class).getBatteryUsageStats();
+                    BatteryUsageStatsSnapshots.getInstance()
+                            .acquire(
+                                    context.getSystemService(BatteryStatsManager.class),
+                                    /* includeBatteryHistory= */ false,
+                                    /* includeProcessStateData= */ false);
         } catch (RuntimeException e) {
             Log.e(TAG, "getBatteryInfo() from getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
@@ -87,11 +91,7 @@ public class DebugEstimatesLoader extends AsyncLoaderCompat<List<BatteryInfo>> {
         infos.add(oldinfo);
         infos.add(newInfo);
 
-        try {
-            batteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        }
+        BatteryUsageStatsSnapshots.getInstance().release(batteryUsageStats);
         return infos;
     }
 }
@@ -31,7 +31,9 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
     private static final String TAG = "BatteryDatabaseHelper";
 
     private static final String DATABASE_NAME = "battery_settings.db";
-    private static final int DATABASE_VERSION = 5;
+    private static final int DATABASE_VERSION = 6;
+    // The last version whose tables can be kept, only indexes were added since.
+    private static final int DATABASE_VERSION_WITHOUT_INDEXES = 5;
 
     @Retention(RetentionPolicy.SOURCE)
     @IntDef({State.NEW, State.HANDLED, State.AUTO_HANDLED})
@@ -102,6 +104,28 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
                     + ")"
                     + ")";
 
+    // Serves queries of new anomalies since a time, by state then time.
+    private static final String CREATE_ANOMALY_STATE_TIME_STAMP_INDEX =
+            "CREATE INDEX IF NOT EXISTS "
+                    + Tables.TABLE_ANOMALY
+                    + "_state_time_stamp_index ON "
+                    + Tables.TABLE_ANOMALY
+                    + "("
+                    + AnomalyColumns.ANOMALY_STATE
+                    + ","
+                    + AnomalyColumns.TIME_STAMP_MS
+                    + ")";
+
+    // Serves the deletion of old anomalies.
+    private static final String CREATE_ANOMALY_TIME_STAMP_INDEX =
+            "CREATE INDEX IF NOT EXISTS "
+                    + Tables.TABLE_ANOMALY
+                    + "_time_stamp_index ON "
+                    + Tables.TABLE_ANOMALY
+                    + "("
+                    + AnomalyColumns.TIME_STAMP_MS
+                    + ")";
+
     public interface ActionColumns {
         /** The package name of an app been performed an action */
         String PACKAGE_NAME = "package_name";
@@ -152,6 +176,8 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
 
     private AnomalyDatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // Let queries from the UI run while anomalies are written.
+        setWriteAheadLoggingEnabled(true);
     }
 
     @Override
@@ -161,7 +187,9 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        if (oldVersion < DATABASE_VERSION) {
+        if (oldVersion == DATABASE_VERSION_WITHOUT_INDEXES) {
+            createIndexes(db);
+        } else if (oldVersion < DATABASE_VERSION) {
             Log.w(
                     TAG,
                     "Detected schema version '"
@@ -197,9 +225,15 @@ public class AnomalyDatabaseHelper extends SQLiteOpenHelper {
     private void bootstrapDB(SQLiteDatabase db) {
         db.execSQL(CREATE_ANOMALY_TABLE);
         db.execSQL(CREATE_ACTION_TABLE);
+        createIndexes(db);
         Log.i(TAG, "Bootstrapped database");
     }
 
+    private void createIndexes(SQLiteDatabase db) {
+        db.execSQL(CREATE_ANOMALY_STATE_TIME_STAMP_INDEX);
+        db.execSQL(CREATE_ANOMALY_TIME_STAMP_INDEX);
+    }
+
     private void dropTables(SQLiteDatabase db) {
         db.execSQL("DROP TABLE IF EXISTS " + Tables.TABLE_ANOMALY);
         db.execSQL("DROP TABLE IF EXISTS " + Tables.TABLE_ACTION);
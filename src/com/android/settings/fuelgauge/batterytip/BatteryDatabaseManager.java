@@ -47,8 +47,9 @@ import java.util.Map;
 /**
  * Database manager for battery data. Now it only contains anomaly data stored in {@link AppInfo}.
  *
- * <p>This manager may be accessed by multi-threads. All the database related methods are
- * synchronized so each operation won't be interfered by other threads.
+ * <p>This manager may be accessed by multi-threads. Each method runs a single statement on the
+ * thread-safe {@link SQLiteDatabase}. The database uses write-ahead logging, so queries from the
+ * UI run concurrently with writes from the background.
  */
 public class BatteryDatabaseManager {
     private static BatteryDatabaseManager sSingleton;
@@ -81,7 +82,7 @@ public class BatteryDatabaseManager {
      * @param timestampMs the time when it is happened
      * @return {@code true} if insert operation succeed
      */
-    public synchronized boolean insertAnomaly(
+    public boolean insertAnomaly(
             int uid, String packageName, int type, int anomalyState, long timestampMs) {
         final SQLiteDatabase db = mDatabaseHelper.getWritableDatabase();
         ContentValues values = new ContentValues();
@@ -97,7 +98,7 @@ public class BatteryDatabaseManager {
     /**
      * Query all the anomalies that happened after {@code timestampMsAfter} and with {@code state}.
      */
-    public synchronized List<AppInfo> queryAllAnomalies(long timestampMsAfter, int state) {
+    public List<AppInfo> queryAllAnomalies(long timestampMsAfter, int state) {
         final List<AppInfo> appInfos = new ArrayList<>();
         final SQLiteDatabase db = mDatabaseHelper.getReadableDatabase();
         final String[] projection = {PACKAGE_NAME, ANOMALY_TYPE, UID};
@@ -139,7 +140,7 @@ public class BatteryDatabaseManager {
         return appInfos;
     }
 
-    public synchronized void deleteAllAnomaliesBeforeTimeStamp(long timestampMs) {
+    public void deleteAllAnomaliesBeforeTimeStamp(long timestampMs) {
         final SQLiteDatabase db = mDatabaseHelper.getWritableDatabase();
         db.delete(
                 TABLE_ANOMALY, TIME_STAMP_MS + " < ?", new String[] {String.valueOf(timestampMs)});
@@ -151,7 +152,7 @@ public class BatteryDatabaseManager {
      * @param appInfos represents the anomalies
      * @param state which state to update to
      */
-    public synchronized void updateAnomalies(List<AppInfo> appInfos, int state) {
+    public void updateAnomalies(List<AppInfo> appInfos, int state) {
         if (!appInfos.isEmpty()) {
             final int size = appInfos.size();
             final String[] whereArgs = new String[size];
@@ -179,7 +180,7 @@ public class BatteryDatabaseManager {
      * @param type of action been performed
      * @return {@link SparseLongArray} where key is uid and value is timestamp
      */
-    public synchronized SparseLongArray queryActionTime(
+    public SparseLongArray queryActionTime(
             @AnomalyDatabaseHelper.ActionType int type) {
         final SparseLongArray timeStamps = new SparseLongArray();
         final SQLiteDatabase db = mDatabaseHelper.getReadableDatabase();
@@ -210,7 +211,7 @@ public class BatteryDatabaseManager {
     }
 
     /** Insert an action, or update it if already existed */
-    public synchronized boolean insertAction(
+    public boolean insertAction(
             @AnomalyDatabaseHelper.ActionType int type,
             int uid,
             String packageName,
@@ -226,7 +227,7 @@ public class BatteryDatabaseManager {
     }
 
     /** Remove an action */
-    public synchronized boolean deleteAction(
+    public boolean deleteAction(
             @AnomalyDatabaseHelper.ActionType int type, int uid, String packageName) {
         SQLiteDatabase db = mDatabaseHelper.getWritableDatabase();
         final String where =
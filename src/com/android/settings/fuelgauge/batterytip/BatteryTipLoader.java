@@ -18,10 +18,14 @@ package com.android.settings.fuelgauge.batterytip;
 
 import android.content.Context;
 import android.os.BatteryUsageStats;
+import android.os.SystemClock;
+import android.text.format.DateUtils;
+import android.util.Log;
 
 import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.fuelgauge.BatteryInfo;
+import com.android.settings.fuelgauge.BatteryUsageStatsSnapshots;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.batterytip.detectors.BatteryDefenderDetector;
 import com.android.settings.fuelgauge.batterytip.detectors.HighUsageDetector;
@@ -33,43 +37,181 @@ import com.android.settingslib.utils.AsyncLoaderCompat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
- * Loader to compute and return a battery tip list. It will always return a full length list even
- * though some tips may have state {@code BaseBatteryTip.StateType.INVISIBLE}.
+ * Loader to compute and return a battery tip list, sorted by tip order. It contains the tip of
+ * every detector which finished in time, even though some tips may have state
+ * {@code BaseBatteryTip.StateType.INVISIBLE}.
+ *
+ * <p>Detectors run concurrently, each one as soon as the data it needs is loaded. All of them
+ * share one deadline of {@link #DETECTOR_TIMEOUT_MS} from the start of the load. The tip of a
+ * detector which doesn't finish by then, or which fails, is left out of the list, so it can't hold
+ * up the other tips. Callers must not expect a tip of each type.
  */
 public class BatteryTipLoader extends AsyncLoaderCompat<List<BatteryTip>> {
     private static final String TAG = "BatteryTipLoader";
 
+    /** How long the tips wait for the detectors before they're shown without the late ones. */
+    private static final long DETECTOR_TIMEOUT_MS = 2 * DateUtils.SECOND_IN_MILLIS;
+
+    // One thread per detector task in loadBatteryTips(), so no detector waits in the queue.
+    private static final int DETECTOR_THREADS = 4;
+    private static final long DETECTOR_THREAD_KEEP_ALIVE_SECONDS = 10;
+    private static final ExecutorService sDetectorExecutor = createDetectorExecutor();
+
     private BatteryUsageStats mBatteryUsageStats;
+    // Whether the loader holds a reference to the shared stats, guarded by this
+    private boolean mHoldsBatteryUsageStats;
+    private boolean mLoadStarted;
 
     @VisibleForTesting BatteryUtils mBatteryUtils;
+    @VisibleForTesting long mDetectorTimeoutMs = DETECTOR_TIMEOUT_MS;
 
     public BatteryTipLoader(Context context, BatteryUsageStats batteryUsageStats) {
         super(context);
         mBatteryUsageStats = batteryUsageStats;
+        // The owner of the stats may release them while the tips are being loaded.
+        mHoldsBatteryUsageStats =
+                BatteryUsageStatsSnapshots.getInstance().retain(batteryUsageStats);
         mBatteryUtils = BatteryUtils.getInstance(context);
     }
 
     @Override
     public List<BatteryTip> loadInBackground() {
-        final List<BatteryTip> tips = new ArrayList<>();
+        synchronized (this) {
+            mLoadStarted = true;
+        }
+        try {
+            return loadBatteryTips();
+        } finally {
+            releaseBatteryUsageStats();
+        }
+    }
+
+    @Override
+    protected void onReset() {
+        super.onReset();
+        synchronized (this) {
+            if (mLoadStarted) {
+                // Released once the running load is done.
+                return;
+            }
+        }
+        releaseBatteryUsageStats();
+    }
+
+    private List<BatteryTip> loadBatteryTips() {
+        final Context context = getContext().getApplicationContext();
+        final long deadlineMs = SystemClock.uptimeMillis() + mDetectorTimeoutMs;
+        final List<DetectorTask> tasks = new ArrayList<>();
+        // Detectors which only read system state don't wait for the battery info.
+        tasks.add(submitDetector("IncompatibleChargerDetector",
+                () -> new IncompatibleChargerDetector(context).detect()));
+
         final BatteryTipPolicy batteryTipPolicy = new BatteryTipPolicy(getContext());
         final BatteryInfo batteryInfo = mBatteryUtils.getBatteryInfo(TAG);
-        final Context context = getContext().getApplicationContext();
+        // Keeps the stats open until the detector is done, even if it outlives the load.
+        final BatteryUsageStatsSnapshots snapshots = BatteryUsageStatsSnapshots.getInstance();
+        final boolean statsRetained = snapshots.retain(mBatteryUsageStats);
+        tasks.add(submitDetector("HighUsageDetector", () -> {
+            try {
+                return new HighUsageDetector(
+                                context, batteryTipPolicy, mBatteryUsageStats, batteryInfo)
+                        .detect();
+            } finally {
+                if (statsRetained) {
+                    snapshots.release(mBatteryUsageStats);
+                }
+            }
+        }));
+        tasks.add(submitDetector("BatteryDefenderDetector",
+                () -> new BatteryDefenderDetector(batteryInfo, context).detect()));
+        tasks.add(new DetectorTask("BatteryTipDetectors from feature provider", () -> {
+            final List<BatteryTip> tips = new ArrayList<>();
+            FeatureFactory.getFeatureFactory()
+                    .getBatterySettingsFeatureProvider()
+                    .addBatteryTipDetector(context, tips, batteryInfo, batteryTipPolicy);
+            return tips;
+        }));
 
-        tips.add(
-                new HighUsageDetector(context, batteryTipPolicy, mBatteryUsageStats, batteryInfo)
-                        .detect());
-        tips.add(new BatteryDefenderDetector(batteryInfo, context).detect());
-        tips.add(new IncompatibleChargerDetector(context).detect());
-        FeatureFactory.getFeatureFactory()
-                .getBatterySettingsFeatureProvider()
-                .addBatteryTipDetector(context, tips, batteryInfo, batteryTipPolicy);
+        final List<BatteryTip> tips = new ArrayList<>();
+        for (DetectorTask task : tasks) {
+            tips.addAll(task.await(deadlineMs));
+        }
         Collections.sort(tips);
         return tips;
     }
 
+    private static DetectorTask submitDetector(String name, Supplier<BatteryTip> detector) {
+        return new DetectorTask(name, () -> Collections.singletonList(detector.get()));
+    }
+
     @Override
     protected void onDiscardResult(List<BatteryTip> result) {}
+
+    private void releaseBatteryUsageStats() {
+        synchronized (this) {
+            if (!mHoldsBatteryUsageStats) {
+                return;
+            }
+            mHoldsBatteryUsageStats = false;
+        }
+        BatteryUsageStatsSnapshots.getInstance().release(mBatteryUsageStats);
+    }
+
+    private static ExecutorService createDetectorExecutor() {
+        final ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(
+                        DETECTOR_THREADS,
+                        DETECTOR_THREADS,
+                        DETECTOR_THREAD_KEEP_ALIVE_SECONDS,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /** A detector running on the detector pool, whose result is given up after the deadline. */
+    private static class DetectorTask {
+        private final String mName;
+        private final long mStartTime;
+        private final Future<List<BatteryTip>> mFuture;
+
+        DetectorTask(String name, Callable<List<BatteryTip>> detector) {
+            mName = name;
+            mStartTime = System.currentTimeMillis();
+            mFuture = sDetectorExecutor.submit(() -> {
+                try {
+                    return detector.call();
+                } finally {
+                    BatteryUtils.logRuntime(TAG, mName, mStartTime);
+                }
+            });
+        }
+
+        /** Returns the tips of the detector, or none if it isn't done by {@code deadlineMs}. */
+        List<BatteryTip> await(long deadlineMs) {
+            final long remainingMs = deadlineMs - SystemClock.uptimeMillis();
+            try {
+                return mFuture.get(Math.max(remainingMs, 0), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                Log.w(TAG, mName + " not done by the deadline");
+            } catch (ExecutionException e) {
+                Log.e(TAG, mName + " failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Not cancelled, the detector finishes in the background and releases what it holds.
+            return Collections.emptyList();
+        }
+    }
 }
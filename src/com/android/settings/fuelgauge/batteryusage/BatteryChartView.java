@@ -35,7 +35,6 @@ import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
-import android.util.ArraySet;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.HapticFeedbackConstants;
@@ -57,9 +56,9 @@ import com.android.settings.R;
 import com.android.settingslib.Utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 
 /** A widget component to draw chart graph. */
 public class BatteryChartView extends AppCompatImageView implements View.OnClickListener {
@@ -78,7 +77,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
     private final Rect mIndent = new Rect();
     private final Rect[] mPercentageBounds = new Rect[] {new Rect(), new Rect(), new Rect()};
     private final List<Rect> mAxisLabelsBounds = new ArrayList<>();
-    private final Set<Integer> mLabelDrawnIndexes = new ArraySet<>();
+    private final Path mTrapezoidPath = new Path();
     private final int mLayoutDirection =
             getContext().getResources().getConfiguration().getLayoutDirection();
 
@@ -109,6 +108,17 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
     private BatteryChartView.OnSelectListener mOnSelectListener;
 
     @VisibleForTesting TrapezoidSlot[] mTrapezoidSlots;
+    // The chart geometry, computed by updateGeometry() once per data or size change so that
+    // drawing a frame doesn't measure text or allocate.
+    private boolean mGeometryDirty = true;
+    private boolean mTextBoundsDirty = true;
+    private float mTrapezoidBottom;
+    private float[] mTrapezoidLeftTops = new float[0];
+    private float[] mTrapezoidRightTops = new float[0];
+    private float mAxisLabelBaselineY;
+    private Rect[] mAxisLabelDisplayAreas = new Rect[0];
+    private boolean[] mAxisLabelShown = new boolean[0];
+    private boolean[] mDividerHighlighted = new boolean[0];
     // Records the location to calculate selected index.
     @VisibleForTesting float mTouchUpEventX = Float.MIN_VALUE;
 
@@ -132,6 +142,11 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
             invalidate();
             return;
         }
+        if (viewModel == mViewModel) {
+            // Only the selected or highlighted slot changed, the geometry is still valid.
+            invalidate();
+            return;
+        }
 
         Log.d(
                 TAG,
@@ -144,6 +159,8 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         initializeAxisLabelsBounds();
         initializeTrapezoidSlots(viewModel.size() - 1);
         setClickable(hasAnyValidTrapezoid(viewModel));
+        mTextBoundsDirty = true;
+        mGeometryDirty = true;
         requestLayout();
     }
 
@@ -162,6 +179,8 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         } else {
             mTextPaint = null;
         }
+        mTextBoundsDirty = true;
+        mGeometryDirty = true;
         requestLayout();
     }
 
@@ -170,6 +189,11 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
         // Measures text bounds and updates indent configuration.
         if (mTextPaint != null) {
+            if (!mTextBoundsDirty) {
+                return;
+            }
+            mTextBoundsDirty = false;
+            mGeometryDirty = true;
             mTextPaint.setTextAlign(Paint.Align.LEFT);
             for (int index = 0; index < mPercentages.length; index++) {
                 mTextPaint.getTextBounds(
@@ -202,6 +226,19 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         }
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mGeometryDirty = true;
+    }
+
+    @Override
+    public void onRtlPropertiesChanged(int layoutDirection) {
+        super.onRtlPropertiesChanged(layoutDirection);
+        mTextBoundsDirty = true;
+        mGeometryDirty = true;
+    }
+
     @Override
     public void draw(Canvas canvas) {
         super.draw(canvas);
@@ -211,6 +248,9 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         if (mViewModel == null) {
             return;
         }
+        if (mGeometryDirty) {
+            updateGeometry();
+        }
         drawVerticalDividers(canvas);
         drawTrapezoids(canvas);
         drawTransomLine(canvas);
@@ -322,10 +362,16 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
     }
 
     private void initializeTrapezoidSlots(int count) {
+        if (mTrapezoidSlots != null && mTrapezoidSlots.length == count) {
+            return;
+        }
         mTrapezoidSlots = new TrapezoidSlot[count];
         for (int index = 0; index < mTrapezoidSlots.length; index++) {
             mTrapezoidSlots[index] = new TrapezoidSlot();
         }
+        mTrapezoidLeftTops = new float[count];
+        mTrapezoidRightTops = new float[count];
+        mDividerHighlighted = new boolean[count + 1];
     }
 
     private void initializeColors(Context context) {
@@ -432,6 +478,74 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         }
     }
 
+    /** Computes the slot, label and trapezoid positions for the current data and size. */
+    private void updateGeometry() {
+        mGeometryDirty = false;
+        final int width = getWidth() - abs(mIndent.width());
+        final int dividerCount = mTrapezoidSlots.length + 1;
+        final float dividerSpace = dividerCount * mDividerWidth;
+        final float unitWidth = (width - dividerSpace) / (float) mTrapezoidSlots.length;
+        final float trapezoidSlotOffset = mTrapezoidHOffset + mDividerWidth * .5f;
+        // Updates the trapezoid slots.
+        float startX = mDividerWidth * .5f + mIndent.left;
+        for (int index = 0; index < mTrapezoidSlots.length; index++) {
+            final float nextX = startX + mDividerWidth + unitWidth;
+            final int trapezoidIndex = isRTL() ? mTrapezoidSlots.length - index - 1 : index;
+            mTrapezoidSlots[trapezoidIndex].mLeft = round(startX + trapezoidSlotOffset);
+            mTrapezoidSlots[trapezoidIndex].mRight = round(nextX - trapezoidSlotOffset);
+            startX = nextX;
+        }
+        // Updates the axis label slot information.
+        mAxisLabelBaselineY = getHeight() - mTextPadding;
+        switch (mViewModel.axisLabelPosition()) {
+            case CENTER_OF_TRAPEZOIDS:
+                updateAxisLabelDisplayAreas(
+                        /* size= */ mViewModel.size() - 1,
+                        /* baselineX= */ mIndent.left + mDividerWidth + unitWidth * .5f,
+                        /* offsetX= */ mDividerWidth + unitWidth,
+                        mAxisLabelBaselineY,
+                        /* shiftFirstAndLast= */ false);
+                break;
+            case BETWEEN_TRAPEZOIDS:
+            default:
+                updateAxisLabelDisplayAreas(
+                        /* size= */ mViewModel.size(),
+                        /* baselineX= */ mIndent.left + mDividerWidth * .5f,
+                        /* offsetX= */ mDividerWidth + unitWidth,
+                        mAxisLabelBaselineY,
+                        /* shiftFirstAndLast= */ true);
+                break;
+        }
+        updateShownAxisLabels();
+        // Updates the trapezoid heights.
+        mTrapezoidBottom =
+                getHeight() - mIndent.bottom - mDividerHeight - mDividerWidth - mTrapezoidVOffset;
+        final float availableSpace =
+                mTrapezoidBottom - mDividerWidth * .5f - mIndent.top - mTrapezoidVOffset;
+        final float unitHeight = availableSpace / 100f;
+        for (int index = 0; index < mTrapezoidSlots.length; index++) {
+            if (!isValidToDraw(mViewModel, index)) {
+                continue;
+            }
+            float leftTop =
+                    round(
+                            mTrapezoidBottom
+                                    - requireNonNull(mViewModel.getLevel(index)) * unitHeight);
+            float rightTop =
+                    round(
+                            mTrapezoidBottom
+                                    - requireNonNull(mViewModel.getLevel(index + 1)) * unitHeight);
+            // Mirror the shape of the trapezoid for RTL
+            if (isRTL()) {
+                float temp = leftTop;
+                leftTop = rightTop;
+                rightTop = temp;
+            }
+            mTrapezoidLeftTops[index] = leftTop;
+            mTrapezoidRightTops[index] = rightTop;
+        }
+    }
+
     private void drawVerticalDividers(Canvas canvas) {
         final int width = getWidth() - abs(mIndent.width());
         final int dividerCount = mTrapezoidSlots.length + 1;
@@ -439,66 +553,39 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         final float unitWidth = (width - dividerSpace) / (float) mTrapezoidSlots.length;
         final float bottomY = getHeight() - mIndent.bottom;
         final float startY = bottomY - mDividerHeight;
-        final float trapezoidSlotOffset = mTrapezoidHOffset + mDividerWidth * .5f;
         // Draws the axis label slot information.
-        if (mViewModel != null) {
-            final float baselineY = getHeight() - mTextPadding;
-            Rect[] axisLabelDisplayAreas;
-            switch (mViewModel.axisLabelPosition()) {
-                case CENTER_OF_TRAPEZOIDS:
-                    axisLabelDisplayAreas =
-                            getAxisLabelDisplayAreas(
-                                    /* size= */ mViewModel.size() - 1,
-                                    /* baselineX= */ mIndent.left + mDividerWidth + unitWidth * .5f,
-                                    /* offsetX= */ mDividerWidth + unitWidth,
-                                    baselineY,
-                                    /* shiftFirstAndLast= */ false);
-                    break;
-                case BETWEEN_TRAPEZOIDS:
-                default:
-                    axisLabelDisplayAreas =
-                            getAxisLabelDisplayAreas(
-                                    /* size= */ mViewModel.size(),
-                                    /* baselineX= */ mIndent.left + mDividerWidth * .5f,
-                                    /* offsetX= */ mDividerWidth + unitWidth,
-                                    baselineY,
-                                    /* shiftFirstAndLast= */ true);
-                    break;
-            }
-            drawAxisLabels(canvas, axisLabelDisplayAreas, baselineY);
-        }
+        drawAxisLabels(canvas);
         // Draws each vertical dividers.
         float startX = mDividerWidth * .5f + mIndent.left;
         for (int index = 0; index < dividerCount; index++) {
             float dividerY = bottomY;
             if (mViewModel.axisLabelPosition() == BETWEEN_TRAPEZOIDS
-                    && mLabelDrawnIndexes.contains(index)) {
+                    && mDividerHighlighted[index]) {
                 mDividerPaint.setColor(mTrapezoidSolidColor);
                 dividerY += mDividerHeight / 4f;
             } else {
                 mDividerPaint.setColor(DIVIDER_COLOR);
             }
             canvas.drawLine(startX, startY, startX, dividerY, mDividerPaint);
-            final float nextX = startX + mDividerWidth + unitWidth;
-            // Updates the trapezoid slots for drawing.
-            if (index < mTrapezoidSlots.length) {
-                final int trapezoidIndex = isRTL() ? mTrapezoidSlots.length - index - 1 : index;
-                mTrapezoidSlots[trapezoidIndex].mLeft = round(startX + trapezoidSlotOffset);
-                mTrapezoidSlots[trapezoidIndex].mRight = round(nextX - trapezoidSlotOffset);
-            }
-            startX = nextX;
+            startX += mDividerWidth + unitWidth;
         }
     }
 
-    /** Gets all the axis label texts displaying area positions if they are shown. */
-    private Rect[] getAxisLabelDisplayAreas(
+    /** Updates all the axis label texts displaying area positions if they are shown. */
+    private void updateAxisLabelDisplayAreas(
             final int size,
             final float baselineX,
             final float offsetX,
             final float baselineY,
             final boolean shiftFirstAndLast) {
-        final Rect[] result = new Rect[size];
-        for (int index = 0; index < result.length; index++) {
+        if (mAxisLabelDisplayAreas.length != size) {
+            mAxisLabelDisplayAreas = new Rect[size];
+            for (int index = 0; index < size; index++) {
+                mAxisLabelDisplayAreas[index] = new Rect();
+            }
+            mAxisLabelShown = new boolean[size];
+        }
+        for (int index = 0; index < size; index++) {
             final float width = mAxisLabelsBounds.get(index).width();
             float middle = baselineX + index * offsetX;
             if (shiftFirstAndLast) {
@@ -513,35 +600,31 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
             final float right = left + width;
             final float top = baselineY + mAxisLabelsBounds.get(index).top;
             final float bottom = top + mAxisLabelsBounds.get(index).height();
-            result[index] = new Rect(round(left), round(top), round(right), round(bottom));
+            mAxisLabelDisplayAreas[index].set(round(left), round(top), round(right), round(bottom));
         }
-        return result;
     }
 
-    private void drawAxisLabels(Canvas canvas, final Rect[] displayAreas, final float baselineY) {
+    /** Decides which axis labels are shown, so that they don't overlap each other. */
+    private void updateShownAxisLabels() {
+        final Rect[] displayAreas = mAxisLabelDisplayAreas;
         final int lastIndex = displayAreas.length - 1;
-        mLabelDrawnIndexes.clear();
+        Arrays.fill(mAxisLabelShown, false);
+        Arrays.fill(mDividerHighlighted, false);
         // Suppose first and last labels are always able to draw.
-        drawAxisLabelText(canvas, 0, displayAreas[0], baselineY);
-        mLabelDrawnIndexes.add(0);
-        drawAxisLabelText(canvas, lastIndex, displayAreas[lastIndex], baselineY);
-        mLabelDrawnIndexes.add(lastIndex);
-        drawAxisLabelsBetweenStartIndexAndEndIndex(canvas, displayAreas, 0, lastIndex, baselineY);
+        showAxisLabel(0);
+        showAxisLabel(lastIndex);
+        showAxisLabelsBetweenStartIndexAndEndIndex(displayAreas, 0, lastIndex);
     }
 
     /**
-     * Recursively draws axis labels between the start index and the end index. If the inner number
-     * can be exactly divided into 2 parts, check and draw the middle index label and then
-     * recursively draw the 2 parts. Otherwise, divide into 3 parts. Check and draw the middle two
-     * labels and then recursively draw the 3 parts. If there are any overlaps, skip drawing and go
+     * Recursively shows axis labels between the start index and the end index. If the inner
+     * number can be exactly divided into 2 parts, check and show the middle index label and then
+     * recursively show the 2 parts. Otherwise, divide into 3 parts. Check and show the middle two
+     * labels and then recursively show the 3 parts. If there are any overlaps, skip showing and go
      * back to the uplevel of the recursion.
      */
-    private void drawAxisLabelsBetweenStartIndexAndEndIndex(
-            Canvas canvas,
-            final Rect[] displayAreas,
-            final int startIndex,
-            final int endIndex,
-            final float baselineY) {
+    private void showAxisLabelsBetweenStartIndexAndEndIndex(
+            final Rect[] displayAreas, final int startIndex, final int endIndex) {
         if (endIndex - startIndex <= 1) {
             return;
         }
@@ -551,12 +634,9 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
                     || hasOverlap(displayAreas, middleIndex, endIndex)) {
                 return;
             }
-            drawAxisLabelText(canvas, middleIndex, displayAreas[middleIndex], baselineY);
-            mLabelDrawnIndexes.add(middleIndex);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, startIndex, middleIndex, baselineY);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, middleIndex, endIndex, baselineY);
+            showAxisLabel(middleIndex);
+            showAxisLabelsBetweenStartIndexAndEndIndex(displayAreas, startIndex, middleIndex);
+            showAxisLabelsBetweenStartIndexAndEndIndex(displayAreas, middleIndex, endIndex);
         } else {
             int middleIndex1 = startIndex + round((endIndex - startIndex) / 3f);
             int middleIndex2 = startIndex + round((endIndex - startIndex) * 2 / 3f);
@@ -565,19 +645,20 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
                     || hasOverlap(displayAreas, middleIndex2, endIndex)) {
                 return;
             }
-            drawAxisLabelText(canvas, middleIndex1, displayAreas[middleIndex1], baselineY);
-            mLabelDrawnIndexes.add(middleIndex1);
-            drawAxisLabelText(canvas, middleIndex2, displayAreas[middleIndex2], baselineY);
-            mLabelDrawnIndexes.add(middleIndex2);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, startIndex, middleIndex1, baselineY);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, middleIndex1, middleIndex2, baselineY);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, middleIndex2, endIndex, baselineY);
+            showAxisLabel(middleIndex1);
+            showAxisLabel(middleIndex2);
+            showAxisLabelsBetweenStartIndexAndEndIndex(displayAreas, startIndex, middleIndex1);
+            showAxisLabelsBetweenStartIndexAndEndIndex(displayAreas, middleIndex1, middleIndex2);
+            showAxisLabelsBetweenStartIndexAndEndIndex(displayAreas, middleIndex2, endIndex);
         }
     }
 
+    private void showAxisLabel(int index) {
+        mAxisLabelShown[index] = true;
+        mDividerHighlighted[index] = true;
+        mDividerHighlighted[getAxisLabelTextIndex(index)] = true;
+    }
+
     private boolean hasOverlap(
             final Rect[] displayAreas, final int leftIndex, final int rightIndex) {
         return displayAreas[leftIndex].right + mTextPadding * 2.3f > displayAreas[rightIndex].left;
@@ -587,19 +668,28 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         return mLayoutDirection == View.LAYOUT_DIRECTION_RTL;
     }
 
-    private void drawAxisLabelText(
-            Canvas canvas, int index, final Rect displayArea, final float baselineY) {
+    private void drawAxisLabels(Canvas canvas) {
         mTextPaint.setColor(mTrapezoidSolidColor);
         mTextPaint.setTextAlign(Paint.Align.CENTER);
+        for (int index = 0; index < mAxisLabelDisplayAreas.length; index++) {
+            if (mAxisLabelShown[index]) {
+                canvas.drawText(
+                        mViewModel.getText(getAxisLabelTextIndex(index)),
+                        mAxisLabelDisplayAreas[index].centerX(),
+                        mAxisLabelBaselineY,
+                        mTextPaint);
+            }
+        }
+    }
+
+    private int getAxisLabelTextIndex(int index) {
         // Reverse the sort of axis labels for RTL
         if (isRTL()) {
-            index =
-                    mViewModel.axisLabelPosition() == BETWEEN_TRAPEZOIDS
-                            ? mViewModel.size() - index - 1 // for hourly
-                            : mViewModel.size() - index - 2; // for daily
+            return mViewModel.axisLabelPosition() == BETWEEN_TRAPEZOIDS
+                    ? mViewModel.size() - index - 1 // for hourly
+                    : mViewModel.size() - index - 2; // for daily
         }
-        canvas.drawText(mViewModel.getText(index), displayArea.centerX(), baselineY, mTextPaint);
-        mLabelDrawnIndexes.add(index);
+        return index;
     }
 
     private void drawTrapezoids(Canvas canvas) {
@@ -607,14 +697,8 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         if (mViewModel == null) {
             return;
         }
-        final float trapezoidBottom =
-                getHeight() - mIndent.bottom - mDividerHeight - mDividerWidth - mTrapezoidVOffset;
-        final float availableSpace =
-                trapezoidBottom - mDividerWidth * .5f - mIndent.top - mTrapezoidVOffset;
-        final float unitHeight = availableSpace / 100f;
         // Draws all trapezoid shapes into the canvas.
-        final Path trapezoidPath = new Path();
-        Path trapezoidCurvePath = null;
+        final float trapezoidBottom = mTrapezoidBottom;
         for (int index = 0; index < mTrapezoidSlots.length; index++) {
             // Not draws the trapezoid for corner or not initialization cases.
             if (!isValidToDraw(mViewModel, index)) {
@@ -630,20 +714,9 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
                     mHoveredIndex == index && isValidToDraw(mViewModel, mHoveredIndex);
             mTrapezoidPaint.setColor(isHoverState ? mTrapezoidHoverColor : trapezoidColor);
 
-            float leftTop =
-                    round(
-                            trapezoidBottom
-                                    - requireNonNull(mViewModel.getLevel(index)) * unitHeight);
-            float rightTop =
-                    round(
-                            trapezoidBottom
-                                    - requireNonNull(mViewModel.getLevel(index + 1)) * unitHeight);
-            // Mirror the shape of the trapezoid for RTL
-            if (isRTL()) {
-                float temp = leftTop;
-                leftTop = rightTop;
-                rightTop = temp;
-            }
+            final float leftTop = mTrapezoidLeftTops[index];
+            final float rightTop = mTrapezoidRightTops[index];
+            final Path trapezoidPath = mTrapezoidPath;
             trapezoidPath.reset();
             trapezoidPath.moveTo(mTrapezoidSlots[index].mLeft, trapezoidBottom);
             trapezoidPath.lineTo(mTrapezoidSlots[index].mLeft, leftTop);
@@ -670,8 +743,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         mTransomLinePaint.setColor(mTransomLineDefaultColor);
         final int width = getWidth() - abs(mIndent.width());
         final float transomOffset = mTrapezoidHOffset + mDividerWidth * .5f + mTransomPadding;
-        final float trapezoidBottom =
-                getHeight() - mIndent.bottom - mDividerHeight - mDividerWidth - mTrapezoidVOffset;
+        final float trapezoidBottom = mTrapezoidBottom;
         canvas.drawLine(
                 mIndent.left + transomOffset,
                 mTransomTop,
@@ -724,8 +796,10 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
     }
 
     private void initializeAxisLabelsBounds() {
-        mAxisLabelsBounds.clear();
-        for (int i = 0; i < mViewModel.size(); i++) {
+        while (mAxisLabelsBounds.size() > mViewModel.size()) {
+            mAxisLabelsBounds.remove(mAxisLabelsBounds.size() - 1);
+        }
+        while (mAxisLabelsBounds.size() < mViewModel.size()) {
             mAxisLabelsBounds.add(new Rect());
         }
     }
@@ -15,51 +15,71 @@
  */
 package com.android.settings.fuelgauge.batteryusage;
 
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.graphics.drawable.Drawable;
+import android.net.Uri;
 import android.os.UserHandle;
 import android.os.UserManager;
 import android.text.TextUtils;
-import android.util.ArrayMap;
 import android.util.Log;
 import android.util.Pair;
 
-import androidx.annotation.GuardedBy;
 import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.R;
+import com.android.settings.applications.AppIconLabelCache;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.batteryusage.BatteryEntry.NameAndIcon;
 import com.android.settingslib.utils.StringUtil;
 
+import java.io.PrintWriter;
 import java.util.Comparator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /** A container class to carry battery data in a specific time slot. */
 public class BatteryDiffEntry {
     private static final String TAG = "BatteryDiffEntry";
-    private static final Object sResourceCacheLock = new Object();
-    private static final Object sPackageNameAndUidCacheLock = new Object();
-    private static final Object sValidForRestrictionLock = new Object();
+    private static final int RESOURCE_CACHE_MAX_SIZE_BYTES = 4 * 1024 * 1024;
+    private static final int FLAG_CACHE_MAX_SIZE_BYTES = 256 * 1024;
+    private static final AtomicBoolean sPackageReceiverRegistered = new AtomicBoolean();
 
     static Locale sCurrentLocale = null;
 
     // Caches app label and icon to improve loading performance.
-    @GuardedBy("sResourceCacheLock")
-    static final Map<String, NameAndIcon> sResourceCache = new ArrayMap<>();
+    static final BatteryEntryCache<NameAndIcon> sResourceCache =
+            new BatteryEntryCache<>(
+                    "resourceCache",
+                    RESOURCE_CACHE_MAX_SIZE_BYTES,
+                    nameAndIcon -> BatteryEntryCache.estimateSize(nameAndIcon.mIcon));
 
     // Caches package name and uid to improve loading performance.
-    @GuardedBy("sPackageNameAndUidCacheLock")
-    static final Map<String, Integer> sPackageNameAndUidCache = new ArrayMap<>();
+    static final BatteryEntryCache<Integer> sPackageNameAndUidCache =
+            new BatteryEntryCache<>("packageUidCache", FLAG_CACHE_MAX_SIZE_BYTES, uid -> 0);
 
     // Whether a specific item is valid to launch restriction page?
     @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
-    @GuardedBy("sValidForRestrictionLock")
-    static final Map<String, Boolean> sValidForRestriction = new ArrayMap<>();
+    static final BatteryEntryCache<Boolean> sValidForRestriction =
+            new BatteryEntryCache<>("restrictionCache", FLAG_CACHE_MAX_SIZE_BYTES, valid -> 0);
+
+    private static final BroadcastReceiver sPackageReceiver =
+            new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    final Uri data = intent.getData();
+                    final String packageName = data != null ? data.getSchemeSpecificPart() : null;
+                    if (packageName != null) {
+                        invalidatePackage(packageName);
+                    }
+                }
+            };
 
     /** A comparator for {@link BatteryDiffEntry} based on the sorting key. */
     static final Comparator<BatteryDiffEntry> COMPARATOR =
@@ -135,6 +155,7 @@ public class BatteryDiffEntry {
             double backgroundUsageConsumePower,
             double cachedUsageConsumePower) {
         mContext = context;
+        registerPackageReceiver(context);
         mUid = uid;
         mUserId = userId;
         mKey = key;
@@ -318,17 +339,14 @@ public class BatteryDiffEntry {
     }
 
     private int getPackageUid(String packageName) {
-        synchronized (sPackageNameAndUidCacheLock) {
-            if (sPackageNameAndUidCache.containsKey(packageName)) {
-                return sPackageNameAndUidCache.get(packageName);
-            }
+        final Integer cachedUid = sPackageNameAndUidCache.get(packageName);
+        if (cachedUid != null) {
+            return cachedUid;
         }
 
         int uid =
                 BatteryUtils.getInstance(mContext).getPackageUidAsUser(packageName, (int) mUserId);
-        synchronized (sPackageNameAndUidCacheLock) {
-            sPackageNameAndUidCache.put(packageName, uid);
-        }
+        sPackageNameAndUidCache.put(packageName, uid, packageName);
         return uid;
     }
 
@@ -343,10 +361,7 @@ public class BatteryDiffEntry {
             mAppIcon = nameAndIcon.mIcon;
             mAppIconId = nameAndIcon.mIconId;
         }
-        Boolean validForRestriction = null;
-        synchronized (sValidForRestrictionLock) {
-            validForRestriction = sValidForRestriction.get(getKey());
-        }
+        final Boolean validForRestriction = sValidForRestriction.get(getKey());
         if (validForRestriction != null) {
             mValidForRestriction = validForRestriction;
         }
@@ -358,9 +373,8 @@ public class BatteryDiffEntry {
 
         // Configures whether we can launch restriction page or not.
         updateRestrictionFlagState();
-        synchronized (sValidForRestrictionLock) {
-            sValidForRestriction.put(getKey(), Boolean.valueOf(mValidForRestriction));
-        }
+        sValidForRestriction.put(
+                getKey(), Boolean.valueOf(mValidForRestriction), getPackageName());
 
         if (getKey() != null && SPECIAL_ENTRY_MAP.containsKey(getKey())) {
             Pair<Integer, Integer> pair = SPECIAL_ENTRY_MAP.get(getKey());
@@ -460,21 +474,21 @@ public class BatteryDiffEntry {
             sCurrentLocale = locale;
             clearCache();
         }
-        synchronized (sResourceCacheLock) {
-            return sResourceCache.get(getKey());
-        }
+        return sResourceCache.get(getKey());
     }
 
     private void loadNameAndIconForUid() {
         final String packageName = getPackageName();
         final PackageManager packageManager = mContext.getPackageManager();
-        // Gets the application label from PackageManager.
+        // Gets the application label from the shared cache. The icon is badged below and kept in
+        // sResourceCache, so it is loaded from PackageManager.
         if (packageName != null && packageName.length() != 0) {
             try {
                 final ApplicationInfo appInfo =
                         packageManager.getApplicationInfo(packageName, /*no flags*/ 0);
                 if (appInfo != null) {
-                    mAppLabel = packageManager.getApplicationLabel(appInfo).toString();
+                    mAppLabel =
+                            AppIconLabelCache.getInstance(mContext).getLabel(appInfo).toString();
                     mAppIcon = packageManager.getApplicationIcon(appInfo);
                 }
             } catch (NameNotFoundException e) {
@@ -500,8 +514,6 @@ public class BatteryDiffEntry {
         final NameAndIcon nameAndIcon =
                 BatteryEntry.loadNameAndIcon(
                         mContext, uid, /* batteryEntry= */ null, packageName, mAppLabel, mAppIcon);
-        // Clears BatteryEntry internal cache since we will have another one.
-        BatteryEntry.clearUidCache();
         if (nameAndIcon != null) {
             mAppLabel = nameAndIcon.mName;
             mAppIcon = nameAndIcon.mIcon;
@@ -568,21 +580,49 @@ public class BatteryDiffEntry {
 
     /** Clears all cache data. */
     public static void clearCache() {
-        synchronized (sResourceCacheLock) {
-            sResourceCache.clear();
-        }
-        synchronized (sValidForRestrictionLock) {
-            sValidForRestriction.clear();
+        sResourceCache.clear();
+        sValidForRestriction.clear();
+        sPackageNameAndUidCache.clear();
+    }
+
+    /** Clears the cache data of the given package, e.g. when it is updated. */
+    static void invalidatePackage(String packageName) {
+        sResourceCache.invalidatePackage(packageName);
+        sValidForRestriction.invalidatePackage(packageName);
+        sPackageNameAndUidCache.invalidatePackage(packageName);
+    }
+
+    /** Dumps the size and hit rate of the caches. */
+    public static void dumpCache(PrintWriter writer) {
+        sResourceCache.dump(writer);
+        sValidForRestriction.dump(writer);
+        sPackageNameAndUidCache.dump(writer);
+    }
+
+    private static void registerPackageReceiver(Context context) {
+        final Context appContext = context != null ? context.getApplicationContext() : null;
+        if (appContext == null || !sPackageReceiverRegistered.compareAndSet(false, true)) {
+            return;
         }
-        synchronized (sPackageNameAndUidCacheLock) {
-            sPackageNameAndUidCache.clear();
+        final IntentFilter filter = new IntentFilter(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addDataScheme("package");
+        try {
+            appContext.registerReceiverAsUser(
+                    sPackageReceiver,
+                    UserHandle.ALL,
+                    filter,
+                    /* broadcastPermission= */ null,
+                    /* scheduler= */ null);
+        } catch (SecurityException e) {
+            Log.w(TAG, "cannot listen to package changes, caches may be stale", e);
         }
     }
 
-    private static void putResourceCache(String key, NameAndIcon nameAndIcon) {
-        synchronized (sResourceCacheLock) {
-            sResourceCache.put(key, nameAndIcon);
-        }
+    private void putResourceCache(String key, NameAndIcon nameAndIcon) {
+        sResourceCache.put(key, nameAndIcon, getPackageName());
     }
 
     private Drawable getBadgeIconForUser(Drawable icon) {
@@ -32,11 +32,11 @@ import android.os.UidBatteryConsumer;
 import android.os.UserBatteryConsumer;
 import android.os.UserHandle;
 import android.os.UserManager;
-import android.util.ArrayMap;
 import android.util.DebugUtils;
 import android.util.Log;
 
 import com.android.settings.R;
+import com.android.settings.applications.AppIconLabelCache;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settingslib.Utils;
 import com.android.settingslib.utils.StringUtil;
@@ -91,15 +91,8 @@ public class BatteryEntry {
                         BatteryConsumer.POWER_COMPONENT_ANY, BatteryConsumer.PROCESS_STATE_CACHED),
             };
 
-    static final ArrayMap<String, UidToDetail> sUidCache = new ArrayMap<>();
-
     static Locale sCurrentLocale = null;
 
-    /** Clears the UID cache. */
-    public static void clearUidCache() {
-        sUidCache.clear();
-    }
-
     public static final Comparator<BatteryEntry> COMPARATOR =
             (a, b) -> Double.compare(b.getConsumedPower(), a.getConsumedPower());
 
@@ -125,12 +118,6 @@ public class BatteryEntry {
     private double mConsumedPowerInBackground;
     private double mConsumedPowerInCached;
 
-    static class UidToDetail {
-        String mName;
-        String mPackageName;
-        Drawable mIcon;
-    }
-
     public BatteryEntry(
             Context context,
             UserManager um,
@@ -296,6 +283,7 @@ public class BatteryEntry {
 
             // Convert package names to user-facing labels where possible
             final IPackageManager ipm = AppGlobals.getPackageManager();
+            final AppIconLabelCache cache = AppIconLabelCache.getInstance(context);
             final int userId = UserHandle.getUserId(uid);
             for (int i = 0; i < packageLabels.length; i++) {
                 try {
@@ -310,10 +298,7 @@ public class BatteryEntry {
                                         + userId);
                         continue;
                     }
-                    final CharSequence label = ai.loadLabel(pm);
-                    if (label != null) {
-                        packageLabels[i] = label.toString();
-                    }
+                    packageLabels[i] = cache.getLabel(ai).toString();
                     if (ai.icon != 0) {
                         defaultPackageName = packages[i];
                         icon = ai.loadIcon(pm);
@@ -371,17 +356,9 @@ public class BatteryEntry {
             }
         }
 
-        final String uidString = Integer.toString(uid);
         if (icon == null) {
             icon = pm.getDefaultActivityIcon();
         }
-
-        UidToDetail utd = new UidToDetail();
-        utd.mName = name;
-        utd.mIcon = icon;
-        utd.mPackageName = defaultPackageName;
-
-        sUidCache.put(uidString, utd);
         return new NameAndIcon(name, defaultPackageName, icon, /* iconId= */ 0);
     }
 
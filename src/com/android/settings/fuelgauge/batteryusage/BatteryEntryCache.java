@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.PrintWriter;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A bounded cache of per-app battery usage data, e.g. the labels and icons of the entries.
+ *
+ * <p>Reads don't take a lock, so loading entries on several threads doesn't contend. The least
+ * recently used entries are evicted once the estimated size of the cached values exceeds the
+ * limit. Each entry remembers the package it was loaded for, so that only the entries of a
+ * package are dropped when it is installed, updated or removed.
+ */
+final class BatteryEntryCache<V> extends AbstractMap<String, V> {
+    /** Estimated overhead of an entry, without its value. */
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    /** The share of the limit evicted at once, so that eviction doesn't run on every put. */
+    private static final float EVICTION_RATIO = .9f;
+
+    private final String mName;
+    private final long mMaxSizeBytes;
+    private final ToIntFunction<V> mSizeEstimator;
+    private final ConcurrentHashMap<String, Node<V>> mMap = new ConcurrentHashMap<>();
+    private final AtomicLong mClock = new AtomicLong();
+    private final AtomicLong mSizeBytes = new AtomicLong();
+    private final AtomicLong mHitCount = new AtomicLong();
+    private final AtomicLong mMissCount = new AtomicLong();
+    private final AtomicLong mEvictionCount = new AtomicLong();
+    private final Object mEvictionLock = new Object();
+
+    /**
+     * @param name the name shown in {@link #dump}
+     * @param maxSizeBytes the limit of the estimated size of the cached values
+     * @param sizeEstimator estimates the size of a value in bytes
+     */
+    BatteryEntryCache(
+            @NonNull String name, long maxSizeBytes, @NonNull ToIntFunction<V> sizeEstimator) {
+        mName = name;
+        mMaxSizeBytes = maxSizeBytes;
+        mSizeEstimator = sizeEstimator;
+    }
+
+    @Override
+    public V get(Object key) {
+        final Node<V> node = key != null ? mMap.get(key) : null;
+        if (node == null) {
+            mMissCount.incrementAndGet();
+            return null;
+        }
+        mHitCount.incrementAndGet();
+        node.mLastAccess = mClock.incrementAndGet();
+        return node.mValue;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && mMap.containsKey(key);
+    }
+
+    @Override
+    public V put(String key, V value) {
+        return put(key, value, /* packageName= */ null);
+    }
+
+    /** Caches the value of the key, loaded for the given package. Null keys aren't cached. */
+    V put(@Nullable String key, @NonNull V value, @Nullable String packageName) {
+        if (key == null) {
+            return null;
+        }
+        final Node<V> node =
+                new Node<>(
+                        value,
+                        packageName,
+                        mSizeEstimator.applyAsInt(value) + key.length() * 2 + ENTRY_OVERHEAD_BYTES,
+                        mClock.incrementAndGet());
+        final Node<V> previous = mMap.put(key, node);
+        mSizeBytes.addAndGet(node.mSizeBytes - (previous != null ? previous.mSizeBytes : 0));
+        if (mSizeBytes.get() > mMaxSizeBytes) {
+            trimToSize((long) (mMaxSizeBytes * EVICTION_RATIO));
+        }
+        return previous != null ? previous.mValue : null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        final Node<V> node = key != null ? mMap.remove(key) : null;
+        if (node == null) {
+            return null;
+        }
+        mSizeBytes.addAndGet(-node.mSizeBytes);
+        return node.mValue;
+    }
+
+    @Override
+    public void clear() {
+        for (String key : mMap.keySet()) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        return mMap.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mMap.isEmpty();
+    }
+
+    /** Returns a snapshot of the cached entries. */
+    @NonNull
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return mMap.entrySet().stream()
+                .map(entry -> new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().mValue))
+                .collect(Collectors.toSet());
+    }
+
+    /** Drops the entries loaded for the given package. */
+    void invalidatePackage(@NonNull String packageName) {
+        mMap.forEach(
+                (key, node) -> {
+                    if (packageName.equals(node.mPackageName) && mMap.remove(key, node)) {
+                        mSizeBytes.addAndGet(-node.mSizeBytes);
+                    }
+                });
+    }
+
+    /** Returns the estimated size of the cached values in bytes. */
+    long getSizeBytes() {
+        return mSizeBytes.get();
+    }
+
+    /** Dumps the size and the hit rate of the cache. */
+    void dump(@NonNull PrintWriter writer) {
+        writer.println(
+                String.format(
+                        "\t%s: entries=%d size=%dKB/%dKB hits=%d misses=%d evictions=%d",
+                        mName,
+                        size(),
+                        getSizeBytes() / 1024,
+                        mMaxSizeBytes / 1024,
+                        mHitCount.get(),
+                        mMissCount.get(),
+                        mEvictionCount.get()));
+    }
+
+    @VisibleForTesting
+    void trimToSize(long maxSizeBytes) {
+        synchronized (mEvictionLock) {
+            while (mSizeBytes.get() > maxSizeBytes) {
+                String eldestKey = null;
+                long eldestAccess = Long.MAX_VALUE;
+                for (Map.Entry<String, Node<V>> entry : mMap.entrySet()) {
+                    if (entry.getValue().mLastAccess < eldestAccess) {
+                        eldestAccess = entry.getValue().mLastAccess;
+                        eldestKey = entry.getKey();
+                    }
+                }
+                if (eldestKey == null) {
+                    return;
+                }
+                remove(eldestKey);
+                mEvictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    /** Estimates the memory used by the bitmap of the icon. */
+    static int estimateSize(@Nullable Drawable icon) {
+        if (icon == null) {
+            return 0;
+        }
+        if (icon instanceof BitmapDrawable) {
+            final Bitmap bitmap = ((BitmapDrawable) icon).getBitmap();
+            if (bitmap != null) {
+                return bitmap.getAllocationByteCount();
+            }
+        }
+        // Vector and adaptive icons are rasterized at their intrinsic size when drawn.
+        return Math.max(icon.getIntrinsicWidth(), 1) * Math.max(icon.getIntrinsicHeight(), 1) * 4;
+    }
+
+    private static final class Node<V> {
+        final V mValue;
+        @Nullable final String mPackageName;
+        final int mSizeBytes;
+        volatile long mLastAccess;
+
+        Node(V value, @Nullable String packageName, int sizeBytes, long lastAccess) {
+            mValue = value;
+            mPackageName = packageName;
+            mSizeBytes = sizeBytes;
+            mLastAccess = lastAccess;
+        }
+    }
+}
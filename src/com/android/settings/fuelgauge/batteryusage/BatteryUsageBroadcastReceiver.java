@@ -98,7 +98,6 @@ public final class BatteryUsageBroadcastReceiver extends BroadcastReceiver {
             case ACTION_CLEAR_BATTERY_CACHE_DATA:
                 if (sIsDebugMode) {
                     BatteryDiffEntry.clearCache();
-                    BatteryEntry.clearUidCache();
                 }
                 break;
         }
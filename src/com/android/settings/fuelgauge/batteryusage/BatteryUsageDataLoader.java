@@ -25,11 +25,11 @@ import android.util.Log;
 import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.fuelgauge.BatteryUsageHistoricalLogEntry.Action;
+import com.android.settings.fuelgauge.BatteryUsageStatsSnapshots;
 import com.android.settings.fuelgauge.PowerUsageFeatureProvider;
 import com.android.settings.fuelgauge.batteryusage.bugreport.BatteryUsageLogUtils;
 import com.android.settings.overlay.FeatureFactory;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -57,7 +57,8 @@ public final class BatteryUsageDataLoader {
     static void loadBatteryStatsData(final Context context, final boolean isFullChargeStart) {
         BatteryUsageLogUtils.writeLog(context, Action.FETCH_USAGE_DATA, "");
         final long currentTime = System.currentTimeMillis();
-        try (BatteryUsageStats batteryUsageStats = DataProcessor.getBatteryUsageStats(context)) {
+        final BatteryUsageStats batteryUsageStats = DataProcessor.getBatteryUsageStats(context);
+        try {
             final List<BatteryEntry> batteryEntryList =
                     sFakeBatteryEntryListSupplier != null
                             ? sFakeBatteryEntryListSupplier.get()
@@ -80,8 +81,8 @@ public final class BatteryUsageDataLoader {
             // Uploads the BatteryEntry data into database.
             DatabaseUtils.sendBatteryEntryData(
                     context, currentTime, batteryEntryList, batteryUsageStats, isFullChargeStart);
-        } catch (IOException e) {
-            Log.e(TAG, "loadBatteryStatsData:", e);
+        } finally {
+            BatteryUsageStatsSnapshots.getInstance().release(batteryUsageStats);
         }
     }
 
@@ -19,12 +19,15 @@ package com.android.settings.fuelgauge.batteryusage;
 import android.content.Context;
 import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.util.Log;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsSnapshots;
 import com.android.settingslib.utils.AsyncLoaderCompat;
 
-/** Loader to get new {@link BatteryUsageStats} in the background */
+/**
+ * Loader to get new {@link BatteryUsageStats} in the background. The stats are shared through
+ * {@link BatteryUsageStatsSnapshots}, the owner of the result must release them there.
+ */
 public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats> {
     private static final String TAG = "BatteryUsageStatsLoader";
     private final BatteryStatsManager mBatteryStatsManager;
@@ -38,13 +41,12 @@ public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats
 
     @Override
     public BatteryUsageStats loadInBackground() {
-        final BatteryUsageStatsQuery.Builder builder = new BatteryUsageStatsQuery.Builder();
-        if (mIncludeBatteryHistory) {
-            builder.includeBatteryHistory();
-        }
         try {
-            return mBatteryStatsManager.getBatteryUsageStats(
-                    builder.includeProcessStateData().build());
+            return BatteryUsageStatsSnapshots.getInstance()
+                    .acquire(
+                            mBatteryStatsManager,
+                            mIncludeBatteryHistory,
+                            /* includeProcessStateData= */ true);
         } catch (RuntimeException e) {
             Log.e(TAG, "loadInBackground() for getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
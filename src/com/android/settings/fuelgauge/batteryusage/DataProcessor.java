@@ -31,7 +31,6 @@ import android.content.pm.PackageManager;
 import android.os.BatteryConsumer;
 import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Process;
 import android.os.RemoteException;
 import android.os.ServiceManager;
@@ -51,6 +50,7 @@ import androidx.annotation.Nullable;
 
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.internal.os.PowerProfile;
+import com.android.settings.fuelgauge.BatteryUsageStatsSnapshots;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.fuelgauge.BatteryStatus;
@@ -169,18 +169,19 @@ public final class DataProcessor {
                         batteryLevelData);
     }
 
-    /** Gets the {@link BatteryUsageStats} from system service. */
+    /**
+     * Gets the {@link BatteryUsageStats} from system service. The stats are shared through {@link
+     * BatteryUsageStatsSnapshots} and must be released there.
+     */
     @NonNull
     public static BatteryUsageStats getBatteryUsageStats(final Context context) {
         final long startTime = System.currentTimeMillis();
-        final BatteryUsageStatsQuery batteryUsageStatsQuery =
-                new BatteryUsageStatsQuery.Builder()
-                        .includeBatteryHistory()
-                        .includeProcessStateData()
-                        .build();
         final BatteryUsageStats batteryUsageStats =
-                context.getSystemService(BatteryStatsManager.class)
-                        .getBatteryUsageStats(batteryUsageStatsQuery);
+                BatteryUsageStatsSnapshots.getInstance()
+                        .acquire(
+                                context.getSystemService(BatteryStatsManager.class),
+                                /* includeBatteryHistory= */ true,
+                                /* includeProcessStateData= */ true);
         Log.d(
                 TAG,
                 String.format(
@@ -1063,13 +1064,17 @@ public final class DataProcessor {
 
     @Nullable
     private static List<BatteryHistEntry> getBatteryHistListFromFromStatsService(Context context) {
-        try (BatteryUsageStats batteryUsageStats = getBatteryUsageStats(context)) {
+        BatteryUsageStats batteryUsageStats = null;
+        try {
+            batteryUsageStats = getBatteryUsageStats(context);
             final List<BatteryEntry> batteryEntryList =
                     generateBatteryEntryListFromBatteryUsageStats(context, batteryUsageStats);
             return convertToBatteryHistEntry(batteryEntryList, batteryUsageStats);
         } catch (Exception e) {
             Log.e(TAG, "getBatteryHistListFromFromStatsService:", e);
             return null;
+        } finally {
+            BatteryUsageStatsSnapshots.getInstance().release(batteryUsageStats);
         }
     }
 
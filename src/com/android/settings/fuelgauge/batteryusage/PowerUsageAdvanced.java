@@ -107,9 +107,6 @@ public class PowerUsageAdvanced extends PowerUsageBase {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        if (getActivity().isChangingConfigurations()) {
-            BatteryEntry.clearUidCache();
-        }
         mExecutor.shutdown();
     }
 
@@ -22,6 +22,8 @@ import static android.provider.Settings.EXTRA_SETTINGS_EMBEDDED_DEEP_LINK_INTENT
 
 import static com.android.settings.SettingsActivity.EXTRA_IS_DEEPLINK_HOME_STARTED_FROM_SEARCH;
 import static com.android.settings.SettingsActivity.EXTRA_USER_HANDLE;
+import static com.android.settings.core.StartupScheduler.STAGE_AFTER_FIRST_FRAME;
+import static com.android.settings.core.StartupScheduler.STAGE_BEFORE_FIRST_FRAME;
 
 import android.animation.LayoutTransition;
 import android.app.ActivityManager;
@@ -74,6 +76,7 @@ import com.android.settings.activityembedding.ActivityEmbeddingUtils;
 import com.android.settings.activityembedding.EmbeddedDeepLinkUtils;
 import com.android.settings.core.CategoryMixin;
 import com.android.settings.core.FeatureFlags;
+import com.android.settings.core.StartupScheduler;
 import com.android.settings.flags.Flags;
 import com.android.settings.homepage.contextualcards.ContextualCardsFragment;
 import com.android.settings.overlay.FeatureFactory;
@@ -124,6 +127,8 @@ public class SettingsHomepageActivity extends FragmentActivity implements
     private SplitControllerCallbackAdapter mSplitControllerAdapter;
     private SplitInfoCallback mCallback;
     private boolean mAllowUpdateSuggestion = true;
+    private StartupScheduler mStartupScheduler;
+    private boolean mIsFullyDrawnReported;
 
     /** A listener receiving homepage loaded events. */
     public interface HomepageLoadedListener {
@@ -179,6 +184,7 @@ public class SettingsHomepageActivity extends FragmentActivity implements
         mLoadedListeners.forEach(listener -> listener.onHomepageLoaded());
         mLoadedListeners.clear();
         homepageView.setVisibility(View.VISIBLE);
+        reportHomepageFullyDrawn();
     }
 
     /** Returns the main content fragment */
@@ -253,21 +259,24 @@ public class SettingsHomepageActivity extends FragmentActivity implements
             return;
         }
 
-        setupEdgeToEdge();
-        setContentView(
-                Flags.homepageRevamp()
-                        ? R.layout.settings_homepage_container_v2
-                        : R.layout.settings_homepage_container);
+        mStartupScheduler = new StartupScheduler(TAG);
+        mStartupScheduler.schedule(STAGE_BEFORE_FIRST_FRAME, "initContainer", () -> {
+            setupEdgeToEdge();
+            setContentView(
+                    Flags.homepageRevamp()
+                            ? R.layout.settings_homepage_container_v2
+                            : R.layout.settings_homepage_container);
 
-        mIsTwoPane = ActivityEmbeddingUtils.isAlreadyEmbedded(this);
+            mIsTwoPane = ActivityEmbeddingUtils.isAlreadyEmbedded(this);
 
-        updateAppBarMinHeight();
-        initHomepageContainer();
-        updateHomepageAppBar();
-        updateHomepageBackground();
-        mLoadedListeners = new ArraySet<>();
+            updateAppBarMinHeight();
+            initHomepageContainer();
+            updateHomepageAppBar();
+            updateHomepageBackground();
+            mLoadedListeners = new ArraySet<>();
 
-        initSearchBarView();
+            initSearchBarView();
+        });
 
         getLifecycle().addObserver(new HideNonSystemOverlayMixin(this));
         mCategoryMixin = new CategoryMixin(this);
@@ -279,20 +288,25 @@ public class SettingsHomepageActivity extends FragmentActivity implements
             initAvatarView();
             final boolean scrollNeeded = mIsEmbeddingActivityEnabled
                     && !TextUtils.equals(getString(DEFAULT_HIGHLIGHT_MENU_KEY), highlightMenuKey);
-            showSuggestionFragment(scrollNeeded);
+            mStartupScheduler.schedule(STAGE_BEFORE_FIRST_FRAME, "showSuggestion",
+                    () -> showSuggestionFragment(scrollNeeded));
             if (!Flags.updatedSuggestionCardAosp()
                     && FeatureFlagUtils.isEnabled(this, FeatureFlags.CONTEXTUAL_HOME)) {
-                showFragment(() -> new ContextualCardsFragment(), R.id.contextual_cards_content);
-                ((FrameLayout) findViewById(R.id.main_content))
-                        .getLayoutTransition().enableTransitionType(LayoutTransition.CHANGING);
+                mStartupScheduler.schedule(STAGE_BEFORE_FIRST_FRAME, "showContextualCards", () -> {
+                    showFragment(() -> new ContextualCardsFragment(),
+                            R.id.contextual_cards_content);
+                    ((FrameLayout) findViewById(R.id.main_content))
+                            .getLayoutTransition().enableTransitionType(LayoutTransition.CHANGING);
+                });
             }
         }
-        mMainFragment = showFragment(() -> {
-            final TopLevelSettings fragment = new TopLevelSettings();
-            fragment.getArguments().putString(SettingsActivity.EXTRA_FRAGMENT_ARG_KEY,
-                    highlightMenuKey);
-            return fragment;
-        }, R.id.main_content);
+        mStartupScheduler.schedule(STAGE_BEFORE_FIRST_FRAME, "showMainFragment", () ->
+                mMainFragment = showFragment(() -> {
+                    final TopLevelSettings fragment = new TopLevelSettings();
+                    fragment.getArguments().putString(SettingsActivity.EXTRA_FRAGMENT_ARG_KEY,
+                            highlightMenuKey);
+                    return fragment;
+                }, R.id.main_content));
 
         // Launch the intent from deep link for large screen devices.
         if (shouldLaunchDeepLinkIntentToRight()) {
@@ -310,6 +324,32 @@ public class SettingsHomepageActivity extends FragmentActivity implements
         updateSplitLayout();
 
         enableTaskLocaleOverride();
+
+        // Without a suggestion to wait for, the homepage is shown with the first frame. Otherwise
+        // it is reported once showHomepageWithSuggestion() shows it.
+        mStartupScheduler.schedule(STAGE_AFTER_FIRST_FRAME, "reportFullyDrawn", () -> {
+            if (mHomepageView == null) {
+                reportHomepageFullyDrawn();
+            }
+        });
+        mStartupScheduler.start(findViewById(android.R.id.content));
+    }
+
+    /** Lets the system and the startup benchmark know when the homepage is fully drawn. */
+    private void reportHomepageFullyDrawn() {
+        if (mIsFullyDrawnReported) {
+            return;
+        }
+        mIsFullyDrawnReported = true;
+        reportFullyDrawn();
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (mStartupScheduler != null) {
+            mStartupScheduler.cancel();
+        }
+        super.onDestroy();
     }
 
     @VisibleForTesting
@@ -418,10 +458,15 @@ public class SettingsHomepageActivity extends FragmentActivity implements
                         SettingsEnums.SETTINGS_HOMEPAGE);
 
         if (mIsEmbeddingActivityEnabled) {
-            View toolbarTwoPaneVersion = findViewById(R.id.search_action_bar_two_pane);
-            FeatureFactory.getFeatureFactory().getSearchFeatureProvider()
-                    .initSearchToolbar(this /* activity */, toolbarTwoPaneVersion,
-                            SettingsEnums.SETTINGS_HOMEPAGE);
+            // The two pane search bar is hidden in one pane mode, set it up after the first frame.
+            mStartupScheduler.schedule(
+                    mIsTwoPane ? STAGE_BEFORE_FIRST_FRAME : STAGE_AFTER_FIRST_FRAME,
+                    "initTwoPaneSearchBar", () -> {
+                        View toolbarTwoPaneVersion = findViewById(R.id.search_action_bar_two_pane);
+                        FeatureFactory.getFeatureFactory().getSearchFeatureProvider()
+                                .initSearchToolbar(this /* activity */, toolbarTwoPaneVersion,
+                                        SettingsEnums.SETTINGS_HOMEPAGE);
+                    });
         }
 
         AppBarLayout appBarLayout = findViewById(R.id.app_bar);
@@ -447,12 +492,17 @@ public class SettingsHomepageActivity extends FragmentActivity implements
         final ImageView avatarTwoPaneView = findViewById(R.id.account_avatar_two_pane_version);
         if (AvatarViewMixin.isAvatarSupported(this)) {
             avatarView.setVisibility(View.VISIBLE);
-            getLifecycle().addObserver(new AvatarViewMixin(this, avatarView));
-
             if (mIsEmbeddingActivityEnabled) {
                 avatarTwoPaneView.setVisibility(View.VISIBLE);
-                getLifecycle().addObserver(new AvatarViewMixin(this, avatarTwoPaneView));
             }
+            // The avatar is loaded asynchronously anyway, so start loading it after the first
+            // frame instead of holding the frame back.
+            mStartupScheduler.schedule(STAGE_AFTER_FIRST_FRAME, "initAvatar", () -> {
+                getLifecycle().addObserver(new AvatarViewMixin(this, avatarView));
+                if (mIsEmbeddingActivityEnabled) {
+                    getLifecycle().addObserver(new AvatarViewMixin(this, avatarTwoPaneView));
+                }
+            });
         }
     }
 
@@ -31,6 +31,7 @@ import androidx.slice.SliceMetadata;
 import androidx.slice.SliceViewManager;
 import androidx.slice.core.SliceAction;
 
+import com.android.settings.homepage.contextualcards.slices.CardSliceCache;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 import com.android.settingslib.utils.ThreadUtils;
@@ -111,6 +112,13 @@ public class EligibleCardChecker implements Callable<ContextualCard> {
 
     @VisibleForTesting
     Slice bindSlice(Uri uri) {
+        // The renderer keeps the slice of a shown card current, reuse it when it's that recent.
+        final CardSliceCache cache = CardSliceCache.getInstance();
+        final Slice cachedSlice = cache.get(uri);
+        if (cachedSlice != null) {
+            return cachedSlice;
+        }
+
         final SliceViewManager manager = SliceViewManager.getInstance(mContext);
         final SliceViewManager.SliceCallback callback = slice -> { };
 
@@ -128,6 +136,10 @@ public class EligibleCardChecker implements Callable<ContextualCard> {
             }
         }));
 
+        // Hand the slice over to the renderer, so that it doesn't bind it again.
+        if (slice != null && !slice.hasHint(HINT_ERROR)) {
+            cache.put(uri, slice);
+        }
         return slice;
     }
 
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.homepage.contextualcards.slices;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import android.text.format.DateUtils;
+import android.util.ArrayMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.slice.Slice;
+
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the slices of contextual cards that were bound moments ago.
+ *
+ * <p>The slice bound while checking whether a card is eligible is handed to the renderer through
+ * this cache, so that the renderer doesn't bind it a second time. Entries expire shortly after, so
+ * a later load of the homepage binds fresh slices.
+ */
+public class CardSliceCache {
+
+    /** How long a bound slice is considered current. */
+    @VisibleForTesting
+    static final long TTL_MS = 5 * DateUtils.SECOND_IN_MILLIS;
+
+    private static CardSliceCache sInstance;
+
+    private final LongSupplier mClock;
+    // Guarded by this
+    private final Map<Uri, Entry> mEntries = new ArrayMap<>();
+
+    /** Returns the cache shared by the card loader and the renderer. */
+    public static synchronized CardSliceCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new CardSliceCache(SystemClock::elapsedRealtime);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    CardSliceCache(@NonNull LongSupplier clock) {
+        mClock = clock;
+    }
+
+    /** Returns the slice bound for the uri, or null if there is none or it has expired. */
+    @Nullable
+    public synchronized Slice get(@NonNull Uri uri) {
+        final Entry entry = mEntries.get(uri);
+        if (entry == null) {
+            return null;
+        }
+        if (mClock.getAsLong() - entry.mBoundTime > TTL_MS) {
+            mEntries.remove(uri);
+            return null;
+        }
+        return entry.mSlice;
+    }
+
+    /** Caches the slice just bound for the uri. */
+    public synchronized void put(@NonNull Uri uri, @NonNull Slice slice) {
+        final long now = mClock.getAsLong();
+        mEntries.values().removeIf(entry -> now - entry.mBoundTime > TTL_MS);
+        mEntries.put(uri, new Entry(slice, now));
+    }
+
+    /** Drops the slice of the uri, e.g. when binding it has failed. */
+    public synchronized void remove(@NonNull Uri uri) {
+        mEntries.remove(uri);
+    }
+
+    private static final class Entry {
+        final Slice mSlice;
+        final long mBoundTime;
+
+        Entry(Slice slice, long boundTime) {
+            mSlice = slice;
+            mBoundTime = boundTime;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.homepage.contextualcards.slices;
+
+import static android.app.slice.Slice.HINT_ERROR;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.AsyncTask;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.slice.Slice;
+import androidx.slice.SliceViewManager;
+import androidx.slice.widget.SliceLiveData;
+
+/**
+ * A {@link LiveData} of the slice of a contextual card, like {@link SliceLiveData#fromUri}.
+ *
+ * <p>When it becomes active it takes the slice from {@link CardSliceCache} if it was bound moments
+ * ago, e.g. by the eligibility check, instead of binding it again. Starting and stopping to listen
+ * run on the serial executor of {@link AsyncTask}, the same one {@link SliceLiveData} and the
+ * eligibility check use, so that quickly rebinding a card doesn't start overlapping binds of the
+ * same slice.
+ */
+class CardSliceLiveData extends LiveData<Slice> {
+
+    private static final String TAG = "CardSliceLiveData";
+
+    private final SliceViewManager mSliceViewManager;
+    private final Uri mUri;
+    private final CardSliceCache mCache;
+    private final SliceLiveData.OnErrorListener mErrorListener;
+
+    private final SliceViewManager.SliceCallback mSliceCallback = this::onSliceUpdated;
+
+    CardSliceLiveData(@NonNull Context context, @NonNull Uri uri,
+            @NonNull SliceLiveData.OnErrorListener errorListener) {
+        this(SliceViewManager.getInstance(context), uri, CardSliceCache.getInstance(),
+                errorListener);
+    }
+
+    @VisibleForTesting
+    CardSliceLiveData(@NonNull SliceViewManager sliceViewManager, @NonNull Uri uri,
+            @NonNull CardSliceCache cache, @NonNull SliceLiveData.OnErrorListener errorListener) {
+        mSliceViewManager = sliceViewManager;
+        mUri = uri;
+        mCache = cache;
+        mErrorListener = errorListener;
+    }
+
+    @Override
+    protected void onActive() {
+        AsyncTask.execute(this::startListening);
+    }
+
+    @Override
+    protected void onInactive() {
+        AsyncTask.execute(this::stopListening);
+    }
+
+    @VisibleForTesting
+    @WorkerThread
+    void startListening() {
+        try {
+            mSliceViewManager.registerSliceCallback(mUri, mSliceCallback);
+            Slice slice = mCache.get(mUri);
+            if (slice == null) {
+                slice = mSliceViewManager.bindSlice(mUri);
+                if (slice == null) {
+                    onError(SliceLiveData.OnErrorListener.ERROR_SLICE_NO_LONGER_PRESENT, null);
+                    return;
+                }
+                cacheSlice(slice);
+            }
+            if (slice != getValue()) {
+                postValue(slice);
+            }
+        } catch (IllegalArgumentException e) {
+            onError(SliceLiveData.OnErrorListener.ERROR_INVALID_INPUT, e);
+        } catch (Exception e) {
+            onError(SliceLiveData.OnErrorListener.ERROR_UNKNOWN, e);
+        }
+    }
+
+    @WorkerThread
+    private void stopListening() {
+        try {
+            mSliceViewManager.unregisterSliceCallback(mUri, mSliceCallback);
+        } catch (SecurityException e) {
+            Log.d(TAG, "No permission currently: " + e);
+        }
+    }
+
+    private void onSliceUpdated(Slice slice) {
+        cacheSlice(slice);
+        postValue(slice);
+    }
+
+    private void cacheSlice(Slice slice) {
+        if (slice != null && !slice.hasHint(HINT_ERROR)) {
+            mCache.put(mUri, slice);
+        } else {
+            mCache.remove(mUri);
+        }
+    }
+
+    private void onError(int type, Throwable source) {
+        mCache.remove(mUri);
+        mErrorListener.onSliceError(type, source);
+        postValue(null);
+    }
+}
@@ -40,7 +40,6 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.OnLifecycleEvent;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.slice.Slice;
-import androidx.slice.widget.SliceLiveData;
 
 import com.android.settings.R;
 import com.android.settings.homepage.contextualcards.CardContentProvider;
@@ -111,7 +110,7 @@ public class SliceContextualCardRenderer implements ContextualCardRenderer, Life
         LiveData<Slice> sliceLiveData = mSliceLiveDataMap.get(uri);
 
         if (sliceLiveData == null) {
-            sliceLiveData = SliceLiveData.fromUri(mContext, uri,
+            sliceLiveData = new CardSliceLiveData(mContext, uri,
                     (int type, Throwable source) -> {
                         // onSliceError doesn't handle error Slices.
                         Log.w(TAG, "Slice may be null. uri = " + uri + ", error = " + type);
@@ -137,6 +136,7 @@ public class SliceContextualCardRenderer implements ContextualCardRenderer, Life
             }
             if (slice.hasHint(HINT_ERROR)) {
                 Log.w(TAG, "Slice has HINT_ERROR, skipping rendering. uri=" + slice.getUri());
+                CardSliceCache.getInstance().remove(uri);
                 mSliceLiveDataMap.get(slice.getUri()).removeObservers(mLifecycleOwner);
                 mContext.getContentResolver().notifyChange(CardContentProvider.REFRESH_CARD_URI,
                         null);
@@ -69,6 +69,7 @@ public class AppLocaleAllListPreferenceController extends
     private Set<LocaleStore.LocaleInfo> mLocaleList;
     private List<LocaleStore.LocaleInfo> mLocaleOptions;
     private Map<String, Preference> mSupportedPreferences;
+    private List<LocaleStore.LocaleInfo> mSortedLocaleList = new ArrayList<>();
     private boolean mIsCountryMode;
     private boolean mIsNumberingSystemMode;
     @Nullable
@@ -119,6 +120,8 @@ public class AppLocaleAllListPreferenceController extends
 
         List<LocaleStore.LocaleInfo> result = LocaleUtils.getSortedLocaleList(
                 getSupportedLocaleList(), mIsCountryMode);
+        // Kept for search, which only shows or hides the preferences added for this list.
+        mSortedLocaleList = new ArrayList<>(result);
         if (mIsCountryMode) {
             mPreferenceCategory.setTitle(
                     mContext.getString(R.string.all_supported_locales_regions_title));
@@ -134,12 +137,13 @@ public class AppLocaleAllListPreferenceController extends
     @Override
     public void onSearchListChanged(@NonNull List<LocaleStore.LocaleInfo> newList,
             @Nullable CharSequence prefix) {
-        mPreferenceCategory.removeAll();
-        mSupportedPreferences.clear();
-        final Map<String, Preference> existingSupportedPreferences = mSupportedPreferences;
-        List<LocaleStore.LocaleInfo> sortedList = getSupportedLocaleList();
-        newList = LocaleUtils.getSortedLocaleFromSearchList(newList, sortedList, mIsCountryMode);
-        setupSupportedPreference(newList, existingSupportedPreferences);
+        if (mPreferenceCategory == null) {
+            Log.d(TAG, "onSearchListChanged, mPreferenceCategory is null");
+            return;
+        }
+
+        LocaleUtils.showSearchResults(mPreferenceCategory, mSupportedPreferences,
+                LocaleUtils.filterSortedLocaleList(newList, mSortedLocaleList));
     }
 
     @VisibleForTesting
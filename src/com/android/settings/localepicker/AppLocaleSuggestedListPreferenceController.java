@@ -62,6 +62,7 @@ public class AppLocaleSuggestedListPreferenceController extends
     private Set<LocaleStore.LocaleInfo> mLocaleList;
     private List<LocaleStore.LocaleInfo> mLocaleOptions;
     private Map<String, Preference> mSuggestedPreferences;
+    private List<LocaleStore.LocaleInfo> mSortedLocaleList = new ArrayList<>();
     private boolean mIsCountryMode;
     @Nullable private LocaleStore.LocaleInfo mParentLocale;
     private AppLocaleCollector mAppLocaleCollector;
@@ -110,6 +111,8 @@ public class AppLocaleSuggestedListPreferenceController extends
 
         List<LocaleStore.LocaleInfo> result = LocaleUtils.getSortedLocaleList(
                 getSuggestedLocaleList(), mIsCountryMode);
+        // Kept for search, which only shows or hides the preferences added for this list.
+        mSortedLocaleList = new ArrayList<>(result);
         final Map<String, Preference> existingSuggestedPreferences = mSuggestedPreferences;
         mSuggestedPreferences = new ArrayMap<>();
         setupSuggestedPreference(result, existingSuggestedPreferences);
@@ -126,11 +129,8 @@ public class AppLocaleSuggestedListPreferenceController extends
             return;
         }
 
-        mPreferenceCategory.removeAll();
-        final Map<String, Preference> existingSuggestedPreferences = mSuggestedPreferences;
-        List<LocaleStore.LocaleInfo> sortedList = getSuggestedLocaleList();
-        newList = LocaleUtils.getSortedLocaleFromSearchList(newList, sortedList, mIsCountryMode);
-        setupSuggestedPreference(newList, existingSuggestedPreferences);
+        LocaleUtils.showSearchResults(mPreferenceCategory, mSuggestedPreferences,
+                LocaleUtils.filterSortedLocaleList(newList, mSortedLocaleList));
     }
 
     @VisibleForTesting
@@ -23,6 +23,7 @@ import android.app.settings.SettingsEnums;
 import android.content.Context;
 import android.os.Bundle;
 import android.os.LocaleList;
+import android.text.TextUtils;
 import android.util.ArrayMap;
 import android.util.Log;
 
@@ -65,6 +66,7 @@ public abstract class LocalePickerBaseListPreferenceController extends
     private Set<LocaleStore.LocaleInfo> mLocaleList;
     private List<LocaleStore.LocaleInfo> mLocaleOptions;
     private Map<String, Preference> mPreferences;
+    private List<LocaleStore.LocaleInfo> mSortedLocaleList = new ArrayList<>();
     private String mPackageName;
     private FragmentManager mFragmentManager;
     private boolean mIsCountryMode;
@@ -107,6 +109,8 @@ public abstract class LocalePickerBaseListPreferenceController extends
         result = getSortedLocaleList(mIsSuggestedCategory
                 ? getSuggestedLocaleList()
                 : getSupportedLocaleList());
+        // Kept for search, which only shows or hides the preferences added for this list.
+        mSortedLocaleList = new ArrayList<>(result);
 
         final Map<String, Preference> existingPreferences = mPreferences;
         mPreferences = new ArrayMap<>();
@@ -120,51 +124,40 @@ public abstract class LocalePickerBaseListPreferenceController extends
     @Override
     public void onSearchListChanged(@NonNull List<LocaleStore.LocaleInfo> newList,
             @Nullable CharSequence prefix) {
-        mPreferenceCategory.removeAll();
-        mPreferences.clear();
-        final Map<String, Preference> existingPreferences = mPreferences;
+        if (mPreferenceCategory == null) {
+            Log.d(TAG, "onSearchListChanged, mPreferenceCategory is null");
+            return;
+        }
 
-        List<LocaleStore.LocaleInfo> sortedList =
-                mIsSuggestedCategory ? getSuggestedLocaleList() : getSupportedLocaleList();
-        newList = getSortedSuggestedLocaleFromSearchList(newList, sortedList);
-        if (mIsSuggestedCategory && getParentLocale() != null) {
-            newList = getSortedSuggestedRegionFromSearchList(prefix, newList, sortedList);
+        final List<LocaleStore.LocaleInfo> searchResults;
+        if (mIsSuggestedCategory && mParentLocale != null && TextUtils.isEmpty(prefix)) {
+            // Suggested regions are all shown until a region is searched for.
+            searchResults = mSortedLocaleList;
+        } else {
+            searchResults = getSuggestedLocaleFromSearchList(newList);
         }
-        setupPreference(newList, existingPreferences);
+        LocaleUtils.showSearchResults(mPreferenceCategory, mPreferences, searchResults);
     }
 
-    private List<LocaleStore.LocaleInfo> getSortedSuggestedLocaleFromSearchList(
-            List<LocaleStore.LocaleInfo> listOptions,
-            List<LocaleStore.LocaleInfo> listSuggested) {
-        List<LocaleStore.LocaleInfo> searchItem = new ArrayList<>();
+    private List<LocaleStore.LocaleInfo> getSuggestedLocaleFromSearchList(
+            List<LocaleStore.LocaleInfo> listOptions) {
+        final List<String> optionIds = new ArrayList<>(listOptions.size());
         for (LocaleStore.LocaleInfo option : listOptions) {
-            for (LocaleStore.LocaleInfo suggested : listSuggested) {
-                if (suggested.toString().contains(option.toString())) {
+            optionIds.add(option.toString());
+        }
+        final List<LocaleStore.LocaleInfo> searchItem = new ArrayList<>();
+        for (LocaleStore.LocaleInfo suggested : mSortedLocaleList) {
+            final String suggestedId = suggested.toString();
+            for (String optionId : optionIds) {
+                if (suggestedId.contains(optionId)) {
                     searchItem.add(suggested);
+                    break;
                 }
             }
         }
-        searchItem = getSortedLocaleList(searchItem);
         return searchItem;
     }
 
-    private List<LocaleStore.LocaleInfo> getSortedSuggestedRegionFromSearchList(
-            @Nullable CharSequence prefix,
-            List<LocaleStore.LocaleInfo> listOptions,
-            List<LocaleStore.LocaleInfo> listSuggested) {
-        List<LocaleStore.LocaleInfo> searchItem = new ArrayList<>();
-        if (prefix == null || prefix.isEmpty()) {
-            return getSortedLocaleList(listSuggested);
-        }
-
-        for (LocaleStore.LocaleInfo option : listOptions) {
-            if (listSuggested.contains(option)) {
-                searchItem.add(option);
-            }
-        }
-        return getSortedLocaleList(searchItem);
-    }
-
     @VisibleForTesting
     void setupPreference(List<LocaleStore.LocaleInfo> localeInfoList,
             Map<String, Preference> existingPreferences) {
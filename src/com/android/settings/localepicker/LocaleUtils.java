@@ -36,6 +36,8 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.core.app.NotificationCompat;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceCategory;
 
 import com.android.internal.app.LocaleHelper;
 import com.android.internal.app.LocaleStore;
@@ -45,9 +47,11 @@ import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A locale utility class.
@@ -254,24 +258,53 @@ public class LocaleUtils {
     }
 
     /**
-     * Sort the locale's list by keywords in search.
+     * Filter the sorted locale's list by keywords in search. The result keeps the order of the
+     * sorted list, so it doesn't need to be sorted again.
      *
-     * @param searchList    locale Infos in search bar
-     * @param localeList    list of locale Infos
-     * @param isCountryMode Whether the locale page is in country mode or not.
-     * @return localeInfos list of locale Infos
+     * @param searchList locale Infos in search bar
+     * @param sortedList sorted list of locale Infos
+     * @return localeInfos of the sorted list with the language of a locale in search
      */
-    public static @NonNull List<LocaleStore.LocaleInfo> getSortedLocaleFromSearchList(
+    public static @NonNull List<LocaleStore.LocaleInfo> filterSortedLocaleList(
             @NonNull List<LocaleStore.LocaleInfo> searchList,
-            @NonNull List<LocaleStore.LocaleInfo> localeList,
-            boolean isCountryMode) {
-        List<LocaleStore.LocaleInfo> searchItem = localeList.stream()
-                .filter(suggested -> searchList.stream()
-                        .anyMatch(option -> option.getLocale() != null
-                                && option.getLocale().getLanguage().equals(
-                                suggested.getLocale().getLanguage())))
-                .distinct()
-                .collect(Collectors.toList());
-        return getSortedLocaleList(searchItem, isCountryMode);
+            @NonNull List<LocaleStore.LocaleInfo> sortedList) {
+        final Set<String> languages = new HashSet<>();
+        for (LocaleStore.LocaleInfo option : searchList) {
+            if (option.getLocale() != null) {
+                languages.add(option.getLocale().getLanguage());
+            }
+        }
+        final List<LocaleStore.LocaleInfo> searchItem = new ArrayList<>();
+        for (LocaleStore.LocaleInfo localeInfo : sortedList) {
+            if (languages.contains(localeInfo.getLocale().getLanguage())) {
+                searchItem.add(localeInfo);
+            }
+        }
+        return searchItem;
+    }
+
+    /**
+     * Show the preferences of the locales found by search and hide the others. The preferences
+     * are kept in the category instead of being added again on each keystroke, in the order of
+     * the sorted list they were added from.
+     *
+     * @param category      the category of the preferences
+     * @param preferences   preferences of the category by locale id
+     * @param searchResults locale Infos found by search
+     */
+    public static void showSearchResults(@NonNull PreferenceCategory category,
+            @NonNull Map<String, Preference> preferences,
+            @NonNull List<LocaleStore.LocaleInfo> searchResults) {
+        final Set<String> ids = new HashSet<>();
+        for (LocaleStore.LocaleInfo localeInfo : searchResults) {
+            ids.add(localeInfo.getId());
+        }
+        boolean hasVisiblePreference = false;
+        for (Map.Entry<String, Preference> entry : preferences.entrySet()) {
+            final boolean visible = ids.contains(entry.getKey());
+            entry.getValue().setVisible(visible);
+            hasVisiblePreference |= visible;
+        }
+        category.setVisible(hasVisiblePreference);
     }
 }
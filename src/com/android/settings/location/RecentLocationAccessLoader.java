@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.location;
+
+import androidx.annotation.NonNull;
+
+import com.android.settingslib.applications.RecentAppOpsAccess;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Loads the apps which recently accessed location off the main thread.
+ *
+ * <p>Querying the app ops history and resolving the labels and icons of the apps is slow. Every
+ * load queries the history again, so accesses made since the last load are never hidden, and each
+ * page gets its own icons.
+ */
+final class RecentLocationAccessLoader {
+
+    private RecentLocationAccessLoader() {}
+
+    /**
+     * Loads the accesses sorted by recency on a background thread and delivers them on the main
+     * thread.
+     */
+    static void load(@NonNull RecentAppOpsAccess recentAccesses, boolean showSystem,
+            @NonNull Consumer<List<RecentAppOpsAccess.Access>> callback) {
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final List<RecentAppOpsAccess.Access> accesses =
+                    recentAccesses.getAppListSorted(showSystem);
+            ThreadUtils.postOnMainThread(() -> callback.accept(accesses));
+        });
+    }
+}
@@ -24,11 +24,15 @@ import android.os.UserHandle;
 import android.os.UserManager;
 import android.provider.DeviceConfig;
 import android.provider.Settings;
+import android.util.ArraySet;
 import android.util.Log;
 
+import androidx.annotation.StringRes;
 import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.LifecycleObserver;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
+import androidx.preference.PreferenceGroup;
 import androidx.preference.PreferenceScreen;
 
 import com.android.internal.config.sysui.SystemUiDeviceConfigFlags;
@@ -36,25 +40,31 @@ import com.android.settings.R;
 import com.android.settings.dashboard.DashboardFragment;
 import com.android.settings.dashboard.profileselector.ProfileSelectFragment;
 import com.android.settingslib.applications.RecentAppOpsAccess;
+import com.android.settingslib.core.lifecycle.events.OnDestroy;
 import com.android.settingslib.utils.StringUtil;
 import com.android.settingslib.widget.AppPreference;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Preference controller that handles the display of apps that access locations.
  */
-public class RecentLocationAccessPreferenceController extends LocationBasePreferenceController {
+public class RecentLocationAccessPreferenceController extends LocationBasePreferenceController
+        implements LifecycleObserver, OnDestroy {
     private static final String TAG = RecentLocationAccessPreferenceController.class
             .getSimpleName();
     public static final int MAX_APPS = 3;
+    private static final String KEY_NO_RECENT_ACCESSES = "no_recent_location_accesses";
     @VisibleForTesting
     RecentAppOpsAccess mRecentLocationApps;
     private PreferenceCategory mCategoryRecentLocationRequests;
     private int mType = ProfileSelectFragment.ProfileType.ALL;
     private boolean mShowSystem = false;
     private boolean mSystemSettingChanged = false;
+    // Results of earlier loads are dropped once another load started.
+    private int mLoadGeneration;
 
     @VisibleForTesting
     static class PackageEntryClickedListener implements
@@ -122,6 +132,12 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
         loadRecentAccesses();
     }
 
+    @Override
+    public void onDestroy() {
+        // Drop a pending result, the preferences are gone with the page.
+        mLoadGeneration++;
+    }
+
     @Override
     public void updateState(Preference preference) {
         // Only reload the recent accesses in updateState if the system setting has changed.
@@ -132,11 +148,18 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
     }
 
     private void loadRecentAccesses() {
-        mCategoryRecentLocationRequests.removeAll();
-        final Context prefContext = mCategoryRecentLocationRequests.getContext();
+        final int generation = ++mLoadGeneration;
+        RecentLocationAccessLoader.load(mRecentLocationApps, mShowSystem, accesses -> {
+            if (generation == mLoadGeneration) {
+                showRecentAccesses(accesses);
+            }
+        });
+    }
+
+    private void showRecentAccesses(List<RecentAppOpsAccess.Access> accesses) {
         final List<RecentAppOpsAccess.Access> recentLocationAccesses = new ArrayList<>();
         final UserManager userManager = UserManager.get(mContext);
-        for (RecentAppOpsAccess.Access access : mRecentLocationApps.getAppListSorted(mShowSystem)) {
+        for (RecentAppOpsAccess.Access access : accesses) {
             if (isRequestMatchesProfileType(userManager, access, mType)) {
                 recentLocationAccesses.add(access);
                 if (recentLocationAccesses.size() == MAX_APPS) {
@@ -144,20 +167,10 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
                 }
             }
         }
-
-        if (recentLocationAccesses.size() > 0) {
-            // Add preferences to container in original order (already sorted by recency).
-            for (RecentAppOpsAccess.Access access : recentLocationAccesses) {
-                mCategoryRecentLocationRequests.addPreference(
-                        createAppPreference(prefContext, access, mFragment));
-            }
-        } else {
-            // If there's no item to display, add a "No recent apps" item.
-            final Preference banner = new AppPreference(prefContext);
-            banner.setTitle(R.string.location_no_recent_accesses);
-            banner.setSelectable(false);
-            mCategoryRecentLocationRequests.addPreference(banner);
-        }
+        // Preferences are kept in original order (already sorted by recency). If there's no item
+        // to display, a "No recent apps" item is shown.
+        updateAppPreferences(mCategoryRecentLocationRequests, recentLocationAccesses,
+                R.string.location_no_recent_accesses, recentLocationAccesses.size(), mFragment);
     }
 
     @Override
@@ -166,15 +179,6 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
         mCategoryRecentLocationRequests.setVisible(enabled);
     }
 
-    /**
-     * Clears the list of apps which recently accessed location from the screen.
-     */
-    public void clearPreferenceList() {
-        if (mCategoryRecentLocationRequests != null) {
-            mCategoryRecentLocationRequests.removeAll();
-        }
-    }
-
     /**
      * Initialize {@link ProfileSelectFragment.ProfileType} of the controller
      *
@@ -190,14 +194,79 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
     public static AppPreference createAppPreference(Context prefContext,
             RecentAppOpsAccess.Access access, DashboardFragment fragment) {
         final AppPreference pref = new AppPreference(prefContext);
+        bindAppPreference(pref, access, fragment);
+        return pref;
+    }
+
+    private static void bindAppPreference(AppPreference pref, RecentAppOpsAccess.Access access,
+            DashboardFragment fragment) {
+        pref.setKey(getAppPreferenceKey(access));
         pref.setIcon(access.icon);
         pref.setTitle(access.label);
-        pref.setSummary(StringUtil.formatRelativeTime(prefContext,
+        pref.setSummary(StringUtil.formatRelativeTime(pref.getContext(),
                 System.currentTimeMillis() - access.accessFinishTime, false,
                 RelativeDateTimeFormatter.Style.LONG));
         pref.setOnPreferenceClickListener(new PackageEntryClickedListener(
                 fragment.getContext(), access.packageName, access.userHandle));
-        return pref;
+    }
+
+    private static String getAppPreferenceKey(RecentAppOpsAccess.Access access) {
+        return access.packageName + ":" + access.userHandle.getIdentifier();
+    }
+
+    /**
+     * Updates the app preferences of the group to show the accesses in order. Preferences are
+     * matched by package and user, so the ones of apps still listed are kept and only rebound.
+     * If there are no accesses, a banner with {@code emptyTitleRes} is shown instead.
+     *
+     * @param maxNewPreferences how many preferences may be created by this update
+     * @return whether every access has a preference, otherwise the rest is left to a later update
+     */
+    static boolean updateAppPreferences(PreferenceGroup group,
+            List<RecentAppOpsAccess.Access> accesses, @StringRes int emptyTitleRes,
+            int maxNewPreferences, DashboardFragment fragment) {
+        final Set<String> keys = new ArraySet<>(accesses.size());
+        for (RecentAppOpsAccess.Access access : accesses) {
+            keys.add(getAppPreferenceKey(access));
+        }
+        if (accesses.isEmpty()) {
+            keys.add(KEY_NO_RECENT_ACCESSES);
+        }
+        for (int i = group.getPreferenceCount() - 1; i >= 0; i--) {
+            final Preference pref = group.getPreference(i);
+            if (!keys.contains(pref.getKey())) {
+                group.removePreference(pref);
+            }
+        }
+
+        final Context prefContext = group.getContext();
+        if (accesses.isEmpty()) {
+            if (group.findPreference(KEY_NO_RECENT_ACCESSES) == null) {
+                final Preference banner = new AppPreference(prefContext);
+                banner.setKey(KEY_NO_RECENT_ACCESSES);
+                banner.setTitle(emptyTitleRes);
+                banner.setSelectable(false);
+                group.addPreference(banner);
+            }
+            return true;
+        }
+        int created = 0;
+        for (int i = 0; i < accesses.size(); i++) {
+            final RecentAppOpsAccess.Access access = accesses.get(i);
+            final AppPreference pref = group.findPreference(getAppPreferenceKey(access));
+            if (pref != null) {
+                bindAppPreference(pref, access, fragment);
+                pref.setOrder(i);
+            } else if (created < maxNewPreferences) {
+                final AppPreference newPref = createAppPreference(prefContext, access, fragment);
+                newPref.setOrder(i);
+                group.addPreference(newPref);
+                created++;
+            } else {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -224,7 +293,6 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
     void updateShowSystem() {
         mSystemSettingChanged = true;
         mShowSystem = !mShowSystem;
-        clearPreferenceList();
         loadRecentAccesses();
     }
 }
@@ -15,14 +15,15 @@
  */
 package com.android.settings.location;
 
-import static com.android.settings.location.RecentLocationAccessPreferenceController.createAppPreference;
 import static com.android.settings.location.RecentLocationAccessPreferenceController.isRequestMatchesProfileType;
+import static com.android.settings.location.RecentLocationAccessPreferenceController.updateAppPreferences;
 
 import android.content.Context;
 import android.os.UserManager;
 import android.provider.DeviceConfig;
 import android.provider.Settings;
 
+import androidx.lifecycle.LifecycleObserver;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceScreen;
 
@@ -32,14 +33,18 @@ import com.android.settings.dashboard.profileselector.ProfileSelectFragment;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.applications.RecentAppOpsAccess;
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
-import com.android.settingslib.widget.AppPreference;
+import com.android.settingslib.core.lifecycle.events.OnDestroy;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /** Preference controller for preference category displaying all recent location access (apps). */
 public class RecentLocationAccessSeeAllPreferenceController
-        extends LocationBasePreferenceController {
+        extends LocationBasePreferenceController implements LifecycleObserver, OnDestroy {
+
+    // Number of app preferences created at a time.
+    private static final int PAGE_SIZE = 20;
 
     private final RecentAppOpsAccess mRecentLocationAccesses;
 
@@ -47,6 +52,9 @@ public class RecentLocationAccessSeeAllPreferenceController
     private MetricsFeatureProvider mMetricsFeatureProvider;
     private boolean mShowSystem = false;
     private Preference mPreference;
+    // Results and pages of earlier loads are dropped once another load started.
+    private int mLoadGeneration;
+    private Runnable mNextPageRunnable;
 
     public RecentLocationAccessSeeAllPreferenceController(Context context, String key) {
         super(context, key);
@@ -71,35 +79,55 @@ public class RecentLocationAccessSeeAllPreferenceController
         mCategoryAllRecentLocationAccess = screen.findPreference(getPreferenceKey());
     }
 
+    @Override
+    public void onDestroy() {
+        // Drop pending results and pages, the preferences are gone with the page.
+        mLoadGeneration++;
+        cancelNextPage();
+    }
+
     @Override
     public void updateState(Preference preference) {
-        mCategoryAllRecentLocationAccess.removeAll();
         mPreference = preference;
+        cancelNextPage();
+        final int generation = ++mLoadGeneration;
+        RecentLocationAccessLoader.load(mRecentLocationAccesses, mShowSystem,
+                accesses -> showRecentAccesses(generation, accesses));
+    }
 
+    private void showRecentAccesses(int generation, List<RecentAppOpsAccess.Access> accesses) {
         final UserManager userManager = UserManager.get(mContext);
 
         final List<RecentAppOpsAccess.Access> recentLocationAccesses = new ArrayList<>();
-        for (RecentAppOpsAccess.Access access : mRecentLocationAccesses.getAppListSorted(
-                mShowSystem)) {
+        for (RecentAppOpsAccess.Access access : accesses) {
             if (isRequestMatchesProfileType(
                     userManager, access, ProfileSelectFragment.ProfileType.ALL)) {
                 recentLocationAccesses.add(access);
             }
         }
+        showNextPage(generation, recentLocationAccesses);
+    }
 
-        if (recentLocationAccesses.isEmpty()) {
-            // If there's no item to display, add a "No recent apps" item.
-            final Preference banner = new AppPreference(mContext);
-            banner.setTitle(R.string.location_no_recent_apps);
-            banner.setSelectable(false);
-            mCategoryAllRecentLocationAccess.addPreference(banner);
-        } else {
-            for (RecentAppOpsAccess.Access request : recentLocationAccesses) {
-                final Preference appPreference = createAppPreference(
-                        preference.getContext(),
-                        request, mFragment);
-                mCategoryAllRecentLocationAccess.addPreference(appPreference);
-            }
+    private void showNextPage(int generation, List<RecentAppOpsAccess.Access> accesses) {
+        if (generation != mLoadGeneration) {
+            return;
+        }
+        mNextPageRunnable = null;
+        // If there's no item to display, a "No recent apps" item is shown.
+        final boolean complete = updateAppPreferences(mCategoryAllRecentLocationAccess, accesses,
+                R.string.location_no_recent_apps, PAGE_SIZE, mFragment);
+        if (!complete) {
+            // Create the rest of the preferences a page at a time, so that the first page shows
+            // up without waiting for all of them.
+            mNextPageRunnable = () -> showNextPage(generation, accesses);
+            ThreadUtils.getUiThreadHandler().post(mNextPageRunnable);
+        }
+    }
+
+    private void cancelNextPage() {
+        if (mNextPageRunnable != null) {
+            ThreadUtils.getUiThreadHandler().removeCallbacks(mNextPageRunnable);
+            mNextPageRunnable = null;
         }
     }
 
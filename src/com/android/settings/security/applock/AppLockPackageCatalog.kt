@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.security.applock
+
+import android.content.Context
+import android.content.pm.PackageInfo
+import android.content.pm.PackageManager
+import android.content.pm.PackageManager.PackageInfoFlags
+import android.os.LocaleList
+import android.os.UserHandle
+import android.util.SparseArray
+
+import androidx.annotation.WorkerThread
+
+import com.android.internal.util.neoteric.NeotericUtils
+
+import java.text.Collator
+
+/**
+ * The installed packages of a user that can be protected with app lock, sorted by label.
+ *
+ * Each label is loaded once per catalog and sorted with collation keys. Catalogs are kept per user
+ * and reused until a package of the user or the locale changes, so reopening the list doesn't
+ * query and sort all packages again.
+ */
+internal class AppLockPackageCatalog private constructor(
+    /** The packages that can be protected, sorted by label. */
+    val entries: List<Entry>,
+    private val sequenceNumber: Int,
+    private val locales: LocaleList,
+) {
+
+    data class Entry(val packageInfo: PackageInfo, val label: String) {
+        val packageName: String
+            get() = packageInfo.packageName
+    }
+
+    companion object {
+        // Guarded by itself
+        private val catalogs = SparseArray<AppLockPackageCatalog>()
+
+        /** Returns the catalog of the current user, loading it again if a package changed. */
+        @WorkerThread
+        fun get(context: Context): AppLockPackageCatalog {
+            val userId = UserHandle.myUserId()
+            val pm = context.packageManager
+            synchronized(catalogs) {
+                val cached = catalogs[userId]
+                if (cached != null &&
+                    cached.locales == context.resources.configuration.locales &&
+                    pm.getChangedPackages(cached.sequenceNumber) == null
+                ) {
+                    return cached
+                }
+            }
+            return load(context).also { catalog ->
+                synchronized(catalogs) { catalogs.put(userId, catalog) }
+            }
+        }
+
+        @WorkerThread
+        private fun load(context: Context): AppLockPackageCatalog {
+            val pm = context.packageManager
+            // Taken before the packages are queried, so that changes made while loading are
+            // noticed next time.
+            val sequenceNumber = pm.getChangedPackages(0)?.sequenceNumber ?: 0
+            val launchablePackages = NeotericUtils.launchablePackages(context).toHashSet()
+            val allowedSystemPackages = context.resources.getStringArray(
+                com.android.internal.R.array.config_appLockAllowedSystemApps
+            ).toHashSet()
+            val collator = Collator.getInstance()
+            val entries = pm.getInstalledPackages(
+                PackageInfoFlags.of(PackageManager.MATCH_ALL.toLong())
+            ).filter { packageInfo ->
+                val isSystemApp = packageInfo.applicationInfo?.isSystemApp ?: false
+                !isSystemApp || packageInfo.packageName in launchablePackages ||
+                    packageInfo.packageName in allowedSystemPackages
+            }.map { packageInfo ->
+                val label = packageInfo.applicationInfo?.loadLabel(pm)?.toString()
+                    ?: packageInfo.packageName
+                Entry(packageInfo, label) to collator.getCollationKey(label)
+            }.sortedBy { it.second }.map { it.first }
+            return AppLockPackageCatalog(
+                entries, sequenceNumber, context.resources.configuration.locales)
+        }
+    }
+}
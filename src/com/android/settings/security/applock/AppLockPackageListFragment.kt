@@ -20,15 +20,14 @@ import android.app.AppLockManager
 import android.content.Context
 import android.content.pm.PackageInfo
 import android.content.pm.PackageManager
-import android.content.pm.PackageManager.PackageInfoFlags
 import android.os.Bundle
 import android.view.View
 
 import androidx.lifecycle.lifecycleScope
 import androidx.preference.Preference
+import androidx.preference.PreferenceViewHolder
 
 import com.android.internal.logging.nano.MetricsProto
-import com.android.internal.util.neoteric.NeotericUtils
 
 import com.android.settings.R
 import com.android.settings.core.SubSettingLauncher
@@ -47,34 +46,23 @@ class AppLockPackageListFragment : DashboardFragment() {
 
     private lateinit var appLockManager: AppLockManager
     private lateinit var pm: PackageManager
-    private lateinit var whiteListedPackages: Array<String>
-    private lateinit var launchablePackages: List<String>
 
     override fun onAttach(context: Context) {
         super.onAttach(context)
         appLockManager = context.getSystemService(AppLockManager::class.java)!!
         pm = context.packageManager
-        launchablePackages = NeotericUtils.launchablePackages(context)
-        whiteListedPackages = resources.getStringArray(
-            com.android.internal.R.array.config_appLockAllowedSystemApps)
     }
 
     override fun onCreatePreferences(savedInstanceState: Bundle?, rootKey: String?) {
         super.onCreatePreferences(savedInstanceState, rootKey)
+        val appContext = requireContext().applicationContext
         lifecycleScope.launch {
             val selectedPackages = getSelectedPackages()
-            val preferences = withContext(Dispatchers.Default) {
-                pm.getInstalledPackages(
-                    PackageInfoFlags.of(PackageManager.MATCH_ALL.toLong())
-                ).filter { packageInfo ->
-                    val isSystemApp = packageInfo.applicationInfo?.isSystemApp ?: false
-                    !isSystemApp || launchablePackages.contains(packageInfo.packageName) ||
-                        whiteListedPackages.contains(packageInfo.packageName)
-                }.sortedWith { first, second ->
-                    getLabel(first).compareTo(getLabel(second))
-                }
-            }.map { packageInfo ->
-                createPreference(packageInfo, selectedPackages.contains(packageInfo.packageName))
+            val catalog = withContext(Dispatchers.Default) {
+                AppLockPackageCatalog.get(appContext)
+            }
+            val preferences = catalog.entries.map { entry ->
+                createPreference(entry, entry.packageName in selectedPackages)
             }
             preferenceScreen?.let { preferenceScreen ->
                 for (pref in preferences) {
@@ -109,15 +97,16 @@ class AppLockPackageListFragment : DashboardFragment() {
         }
     }
 
-    private fun getLabel(packageInfo: PackageInfo) =
-        packageInfo.applicationInfo?.loadLabel(pm).toString()
-
-    private fun createPreference(packageInfo: PackageInfo, isProtected: Boolean): Preference {
-        val label = getLabel(packageInfo)
-        return PrimarySwitchPreference(requireContext()).apply {
+    private fun createPreference(
+        entry: AppLockPackageCatalog.Entry,
+        isProtected: Boolean
+    ): Preference {
+        val packageInfo = entry.packageInfo
+        val label = entry.label
+        return AppLockPackagePreference(requireContext(), packageInfo).apply {
             key = packageInfo.packageName
             title = label
-            icon = packageInfo.applicationInfo?.loadIcon(pm)
+            isIconSpaceReserved = true
             setIconSize(ICON_SIZE_SMALL)
             isChecked = isProtected
             setOnPreferenceChangeListener { _, newValue ->
@@ -142,6 +131,29 @@ class AppLockPackageListFragment : DashboardFragment() {
         }
     }
 
+    /** Loads the app icon in the background the first time its row is shown. */
+    private inner class AppLockPackagePreference(
+        context: Context,
+        private val packageInfo: PackageInfo,
+    ) : PrimarySwitchPreference(context) {
+
+        private var iconRequested = false
+
+        override fun onBindViewHolder(holder: PreferenceViewHolder) {
+            super.onBindViewHolder(holder)
+            if (iconRequested) return
+            iconRequested = true
+            lifecycleScope.launch {
+                val appIcon = withContext(Dispatchers.Default) {
+                    packageInfo.applicationInfo?.loadIcon(pm)
+                }
+                if (appIcon != null) {
+                    icon = appIcon
+                }
+            }
+        }
+    }
+
     override fun getMetricsCategory(): Int = MetricsProto.MetricsEvent.NEOTERIC
 
     override protected fun getPreferenceScreenResId() = R.xml.app_lock_package_list_settings
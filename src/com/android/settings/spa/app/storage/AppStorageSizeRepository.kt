@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.spa.app.storage
+
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import android.content.pm.ApplicationInfo
+import android.os.SystemClock
+import android.os.UserHandle
+import android.text.format.Formatter
+import android.util.Log
+import androidx.annotation.VisibleForTesting
+import androidx.compose.runtime.Composable
+import androidx.compose.runtime.State
+import androidx.compose.runtime.produceState
+import androidx.compose.ui.platform.LocalContext
+import com.android.settingslib.spaprivileged.model.app.AppStorageRepositoryImpl
+import com.android.settingslib.spaprivileged.model.app.userId
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+
+/**
+ * Process-wide cache of the storage size of apps, shared by the app lists.
+ *
+ * Sizes are kept in one snapshot per user and storage volume. A snapshot is filled in bulk with
+ * the queries running in parallel, and concurrent requests for the same app share one query. A
+ * package's size is dropped when it is changed, and all snapshots are dropped when a volume is
+ * mounted or unmounted. Apps grow and shrink without any broadcast, so sizes are queried again
+ * once they are older than [MAX_AGE_MS], and failed queries are not kept.
+ */
+class AppStorageSizeRepository @VisibleForTesting internal constructor(
+    private val calculateSizeBytes: (ApplicationInfo) -> Long?,
+    dispatcher: CoroutineDispatcher,
+    private val elapsedRealtime: () -> Long = SystemClock::elapsedRealtime,
+) {
+    private val scope = CoroutineScope(SupervisorJob() + dispatcher)
+
+    private val snapshots =
+        ConcurrentHashMap<SnapshotKey, ConcurrentHashMap<String, CachedSize>>()
+
+    /** Returns the sizes of the given apps in bytes, querying the missing ones in parallel. */
+    suspend fun getSizes(apps: List<ApplicationInfo>): List<Long?> =
+        apps.map(::getOrQuery).awaitAll()
+
+    /** Returns the size of the given app in bytes, or null if it can't be calculated. */
+    suspend fun getSize(app: ApplicationInfo): Long? = getOrQuery(app).await()
+
+    /** Drops the cached size of the given package for all users and volumes. */
+    fun invalidatePackage(packageName: String) {
+        snapshots.values.forEach { it.remove(packageName) }
+    }
+
+    /** Drops all cached sizes. */
+    fun invalidateAll() {
+        snapshots.clear()
+    }
+
+    private fun getOrQuery(app: ApplicationInfo): Deferred<Long?> {
+        val snapshot = snapshots.computeIfAbsent(SnapshotKey(app.userId, app.storageUuid)) {
+            ConcurrentHashMap()
+        }
+        val now = elapsedRealtime()
+        val cached = snapshot.compute(app.packageName) { _, existing ->
+            if (existing != null && now - existing.queriedAt < MAX_AGE_MS) {
+                existing
+            } else {
+                query(snapshot, app, now)
+            }
+        }!!
+        // Started outside of compute(), the query may remove itself from the snapshot.
+        cached.size.start()
+        return cached.size
+    }
+
+    private fun query(
+        snapshot: ConcurrentHashMap<String, CachedSize>,
+        app: ApplicationInfo,
+        now: Long,
+    ): CachedSize {
+        lateinit var cached: CachedSize
+        val size = scope.async(start = CoroutineStart.LAZY) {
+            calculateSizeBytes(app).also { sizeBytes ->
+                if (sizeBytes == null) snapshot.remove(app.packageName, cached)
+            }
+        }
+        cached = CachedSize(size, now)
+        return cached
+    }
+
+    private data class SnapshotKey(val userId: Int, val volumeUuid: UUID?)
+
+    private class CachedSize(val size: Deferred<Long?>, val queriedAt: Long)
+
+    private class InvalidationReceiver(
+        private val repository: AppStorageSizeRepository,
+    ) : BroadcastReceiver() {
+        override fun onReceive(context: Context, intent: Intent) {
+            when (intent.action) {
+                Intent.ACTION_MEDIA_MOUNTED, Intent.ACTION_MEDIA_UNMOUNTED,
+                Intent.ACTION_MEDIA_EJECT -> repository.invalidateAll()
+
+                else -> intent.data?.schemeSpecificPart?.let(repository::invalidatePackage)
+            }
+        }
+    }
+
+    companion object {
+        private const val TAG = "AppStorageSizeRepo"
+        private const val MAX_PARALLEL_QUERIES = 4
+        @VisibleForTesting
+        internal const val MAX_AGE_MS = 30_000L
+
+        @Volatile
+        private var instance: AppStorageSizeRepository? = null
+
+        /** Returns the repository of this process. */
+        @JvmStatic
+        fun getInstance(context: Context): AppStorageSizeRepository =
+            instance ?: synchronized(this) {
+                instance ?: create(context.applicationContext).also { instance = it }
+            }
+
+        private fun create(context: Context): AppStorageSizeRepository {
+            val appStorageRepository = AppStorageRepositoryImpl(context)
+            val repository = AppStorageSizeRepository(
+                calculateSizeBytes = appStorageRepository::calculateSizeBytes,
+                dispatcher = Dispatchers.IO.limitedParallelism(MAX_PARALLEL_QUERIES),
+            )
+            val receiver = InvalidationReceiver(repository)
+            val packageFilter = IntentFilter().apply {
+                addAction(Intent.ACTION_PACKAGE_ADDED)
+                addAction(Intent.ACTION_PACKAGE_REMOVED)
+                addAction(Intent.ACTION_PACKAGE_CHANGED)
+                addAction(Intent.ACTION_PACKAGE_REPLACED)
+                addAction(Intent.ACTION_PACKAGE_DATA_CLEARED)
+                addDataScheme("package")
+            }
+            val storageFilter = IntentFilter().apply {
+                addAction(Intent.ACTION_MEDIA_MOUNTED)
+                addAction(Intent.ACTION_MEDIA_UNMOUNTED)
+                addAction(Intent.ACTION_MEDIA_EJECT)
+                addDataScheme("file")
+            }
+            try {
+                context.registerReceiverAsUser(
+                    receiver, UserHandle.ALL, packageFilter, null, null,
+                )
+                context.registerReceiverAsUser(
+                    receiver, UserHandle.ALL, storageFilter, null, null,
+                )
+            } catch (e: SecurityException) {
+                Log.w(TAG, "Unable to listen to package changes, sizes may be stale", e)
+            }
+            return repository
+        }
+    }
+}
+
+/** Returns the formatted storage size of the app, served from [AppStorageSizeRepository]. */
+@Composable
+fun ApplicationInfo.getCachedStorageSize(): State<String> {
+    val context = LocalContext.current
+    val app = this
+    return produceState(initialValue = "", app) {
+        val sizeBytes = AppStorageSizeRepository.getInstance(context).getSize(app)
+        value = if (sizeBytes == null) "" else Formatter.formatFileSize(context, sizeBytes)
+    }
+}
@@ -30,18 +30,16 @@ import com.android.settings.R
 import com.android.settings.spa.app.appinfo.AppInfoSettingsProvider
 import com.android.settingslib.spa.framework.common.SettingsPageProvider
 import com.android.settingslib.spa.framework.util.filterItem
-import com.android.settingslib.spa.framework.util.mapItem
 import com.android.settingslib.spaprivileged.model.app.AppEntry
 import com.android.settingslib.spaprivileged.model.app.AppListModel
 import com.android.settingslib.spaprivileged.model.app.AppRecord
-import com.android.settingslib.spaprivileged.model.app.AppStorageRepositoryImpl
 import com.android.settingslib.spaprivileged.template.app.AppList
 import com.android.settingslib.spaprivileged.template.app.AppListInput
 import com.android.settingslib.spaprivileged.template.app.AppListItem
 import com.android.settingslib.spaprivileged.template.app.AppListItemModel
 import com.android.settingslib.spaprivileged.template.app.AppListPage
-import com.android.settingslib.spaprivileged.template.app.getStorageSize
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.map
 
 sealed class StorageAppListPageProvider(private val type: StorageType) : SettingsPageProvider {
     @Composable
@@ -106,14 +104,18 @@ class StorageAppListModel(
     private val context: Context,
     private val type: StorageType,
     private val getStorageSummary: @Composable ApplicationInfo.() -> State<String> = {
-        getStorageSize()
-    }
+        getCachedStorageSize()
+    },
+    private val sizeRepository: AppStorageSizeRepository =
+        AppStorageSizeRepository.getInstance(context),
 ) : AppListModel<AppRecordWithSize> {
-    private val appStorageRepository = AppStorageRepositoryImpl(context)
 
     override fun transform(userIdFlow: Flow<Int>, appListFlow: Flow<List<ApplicationInfo>>) =
-        appListFlow.mapItem { app ->
-            AppRecordWithSize(app, appStorageRepository.calculateSizeBytes(app) ?: 0L)
+        appListFlow.map { apps ->
+            // Sizes are queried in parallel and cached, so the summaries reuse the same result.
+            apps.zip(sizeRepository.getSizes(apps)) { app, size ->
+                AppRecordWithSize(app, size ?: 0L)
+            }
         }
 
     override fun filter(
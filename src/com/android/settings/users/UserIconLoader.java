@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import android.graphics.Bitmap;
+import android.util.ArraySet;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Loads user avatars on a background thread into a bounded cache.
+ *
+ * <p>Avatars are downsampled to the size they are shown at before being cached. Only one load
+ * runs at a time; users requested while it runs are loaded in the next batch, and the callback
+ * is called on the main thread once per batch.
+ */
+class UserIconLoader {
+
+    /** Maximum total size of the cached avatars. */
+    private static final int MAX_CACHE_SIZE_BYTES = 4 * 1024 * 1024;
+
+    /** Called on the main thread with the users whose avatar has been loaded. */
+    interface Callback {
+        void onIconsLoaded(@NonNull List<Integer> userIds);
+    }
+
+    private final LruCache<Integer, Bitmap> mCache;
+    private final IntFunction<Bitmap> mIconLoader;
+    private final int mIconSize;
+    private final Callback mCallback;
+
+    private final Object mLock = new Object();
+    // Guarded by mLock
+    private final Set<Integer> mPendingUserIds = new ArraySet<>();
+    // Guarded by mLock
+    private boolean mLoading;
+    private volatile boolean mReleased;
+
+    /**
+     * @param cache the cache to fill, see {@link #createCache()}
+     * @param iconLoader loads the full size avatar of a user on a background thread
+     * @param iconSize the size in pixels avatars are shown at
+     * @param callback called when avatars have been loaded
+     */
+    UserIconLoader(@NonNull LruCache<Integer, Bitmap> cache,
+            @NonNull IntFunction<Bitmap> iconLoader, int iconSize, @NonNull Callback callback) {
+        mCache = cache;
+        mIconLoader = iconLoader;
+        mIconSize = iconSize;
+        mCallback = callback;
+    }
+
+    /** Creates an avatar cache bounded by the byte size of the bitmaps. */
+    static LruCache<Integer, Bitmap> createCache() {
+        return new LruCache<>(MAX_CACHE_SIZE_BYTES) {
+            @Override
+            protected int sizeOf(Integer userId, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+    }
+
+    /** Loads the avatars of the given users, unless a load of them is already pending. */
+    void requestIcons(@NonNull Collection<Integer> userIds) {
+        synchronized (mLock) {
+            mPendingUserIds.addAll(userIds);
+            if (mLoading || mPendingUserIds.isEmpty()) {
+                return;
+            }
+            mLoading = true;
+        }
+        ThreadUtils.postOnBackgroundThread(this::loadPendingIcons);
+    }
+
+    /** Stops delivering results, e.g. when the screen is destroyed. */
+    void release() {
+        mReleased = true;
+        synchronized (mLock) {
+            mPendingUserIds.clear();
+        }
+    }
+
+    @WorkerThread
+    private void loadPendingIcons() {
+        while (true) {
+            final List<Integer> userIds;
+            synchronized (mLock) {
+                if (mReleased || mPendingUserIds.isEmpty()) {
+                    mLoading = false;
+                    return;
+                }
+                userIds = new ArrayList<>(mPendingUserIds);
+                mPendingUserIds.clear();
+            }
+            for (int userId : userIds) {
+                if (mCache.get(userId) == null) {
+                    final Bitmap icon = downsample(mIconLoader.apply(userId), mIconSize);
+                    if (icon != null) {
+                        mCache.put(userId, icon);
+                    }
+                }
+            }
+            ThreadUtils.postOnMainThread(() -> {
+                if (!mReleased) {
+                    mCallback.onIconsLoaded(userIds);
+                }
+            });
+        }
+    }
+
+    /** Scales the bitmap down so that neither side exceeds the given size. */
+    @VisibleForTesting
+    @Nullable
+    static Bitmap downsample(@Nullable Bitmap bitmap, int size) {
+        if (bitmap == null || size <= 0) {
+            return bitmap;
+        }
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        if (width <= size && height <= size) {
+            return bitmap;
+        }
+        final float scale = (float) size / Math.max(width, height);
+        return Bitmap.createScaledBitmap(bitmap, Math.max(1, Math.round(width * scale)),
+                Math.max(1, Math.round(height * scale)), /* filter= */ true);
+    }
+}
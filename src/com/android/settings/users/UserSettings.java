@@ -52,7 +52,9 @@ import android.os.UserManager;
 import android.provider.ContactsContract;
 import android.provider.Settings;
 import android.text.TextUtils;
+import android.util.ArraySet;
 import android.util.Log;
+import android.util.LruCache;
 import android.util.SparseArray;
 import android.view.Gravity;
 import android.view.Menu;
@@ -102,6 +104,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -210,7 +213,10 @@ public class UserSettings extends SettingsPreferenceFragment
     @VisibleForTesting
     RestrictedPreference mAddSupervisedUser;
     @VisibleForTesting
-    SparseArray<Bitmap> mUserIcons = new SparseArray<>();
+    LruCache<Integer, Bitmap> mUserIcons = UserIconLoader.createCache();
+    // The avatar each row was last drawn from, so that unchanged rows aren't rebound.
+    private final SparseArray<Bitmap> mShownUserIcons = new SparseArray<>();
+    private UserIconLoader mUserIconLoader;
     private int mRemovingUserId = -1;
     private boolean mAddingUser;
     private boolean mGuestUserAutoCreated;
@@ -278,7 +284,10 @@ public class UserSettings extends SettingsPreferenceFragment
                     mUserIcons.remove(userHandle);
                 }
             }
-            mHandler.sendEmptyMessage(MESSAGE_UPDATE_LIST);
+            // Users and profiles often change in bursts, update the list once per burst.
+            if (!mHandler.hasMessages(MESSAGE_UPDATE_LIST)) {
+                mHandler.sendEmptyMessage(MESSAGE_UPDATE_LIST);
+            }
         }
     };
 
@@ -448,6 +457,9 @@ public class UserSettings extends SettingsPreferenceFragment
         }
 
         getActivity().unregisterReceiver(mUserChangeReceiver);
+        if (mUserIconLoader != null) {
+            mUserIconLoader.release();
+        }
     }
 
     @Override
@@ -552,8 +564,10 @@ public class UserSettings extends SettingsPreferenceFragment
         int myUserId = UserHandle.myUserId();
         Bitmap b = mUserManager.getUserIcon(myUserId);
         if (b != null) {
+            b = UserIconLoader.downsample(b, getUserIconSize());
             mMePreference.setIcon(encircleUserIcon(b));
             mUserIcons.put(myUserId, b);
+            mShownUserIcons.put(myUserId, b);
         }
     }
 
@@ -1280,13 +1294,20 @@ public class UserSettings extends SettingsPreferenceFragment
             if (user.id == UserHandle.myUserId()) {
                 pref = mMePreference;
             } else {
-                pref = new UserPreference(getPrefContext(), null, user.id);
+                // Reuse the row of a known user, so that only what changed is rebound.
+                pref = mUserListCategory.findPreference(getUserPreferenceKey(user.id));
+                if (pref == null) {
+                    pref = new UserPreference(getPrefContext(), null, user.id);
+                    mShownUserIcons.remove(user.id);
+                } else {
+                    pref.setSummary(null);
+                }
                 pref.setTitle(user.name);
                 userPreferences.add(pref);
                 pref.setOnPreferenceClickListener(this);
                 pref.setEnabled(canOpenUserDetails);
                 pref.setSelectable(true);
-                pref.setKey("id=" + user.id);
+                pref.setKey(getUserPreferenceKey(user.id));
             }
             if (pref == null) {
                 continue;
@@ -1315,14 +1336,17 @@ public class UserSettings extends SettingsPreferenceFragment
             }
             if (user.iconPath != null) {
                 if (mUserIcons.get(user.id) == null) {
-                    // Icon not loaded yet, print a placeholder
+                    // Icon not loaded yet, keep the current one or print a placeholder
                     missingIcons.add(user.id);
-                    pref.setIcon(getEncircledDefaultIcon());
+                    if (mShownUserIcons.get(user.id) == null) {
+                        pref.setIcon(getEncircledDefaultIcon());
+                    }
                 } else {
-                    setPhotoId(pref, user);
+                    setPhotoId(pref, user.id);
                 }
             } else {
                 // Icon not available yet, print a placeholder
+                mShownUserIcons.remove(user.id);
                 pref.setIcon(getEncircledDefaultIcon());
             }
         }
@@ -1356,8 +1380,19 @@ public class UserSettings extends SettingsPreferenceFragment
             mUserListCategory.setTitle(R.string.user_category_title);
         }
 
-        // Remove everything from mUserListCategory and add new users.
-        mUserListCategory.removeAll();
+        // Remove the users that are gone from mUserListCategory, keep the others in place.
+        final Set<Preference> existingPreferences = new ArraySet<>();
+        for (int i = mUserListCategory.getPreferenceCount() - 1; i >= 0; i--) {
+            final Preference preference = mUserListCategory.getPreference(i);
+            if (userPreferences.contains(preference)) {
+                existingPreferences.add(preference);
+            } else {
+                mUserListCategory.removePreference(preference);
+                if (preference instanceof UserPreference) {
+                    mShownUserIcons.remove(((UserPreference) preference).getUserId());
+                }
+            }
+        }
 
         final Preference addUserOnLockScreen = getPreferenceScreen().findPreference(
                 mAddUserWhenLockedPreferenceController.getPreferenceKey());
@@ -1375,9 +1410,12 @@ public class UserSettings extends SettingsPreferenceFragment
         updateAddUser(context);
         updateAddSupervisedUser(context);
 
-        for (UserPreference userPreference : userPreferences) {
-            userPreference.setOrder(Preference.DEFAULT_ORDER);
-            mUserListCategory.addPreference(userPreference);
+        for (int i = 0; i < userPreferences.size(); i++) {
+            final UserPreference userPreference = userPreferences.get(i);
+            userPreference.setOrder(i);
+            if (!existingPreferences.contains(userPreference)) {
+                mUserListCategory.addPreference(userPreference);
+            }
         }
 
     }
@@ -1644,24 +1682,38 @@ public class UserSettings extends SettingsPreferenceFragment
     }
 
     private void loadIconsAsync(List<Integer> missingIcons) {
-        new AsyncTask<List<Integer>, Void, Void>() {
-            @Override
-            protected void onPostExecute(Void result) {
-                updateUserList();
-            }
+        if (mUserIconLoader == null) {
+            final Resources resources = getContext().getResources();
+            mUserIconLoader = new UserIconLoader(mUserIcons, userId -> {
+                final Bitmap bitmap = mUserManager.getUserIcon(userId);
+                return bitmap != null ? bitmap : getDefaultUserIconAsBitmap(resources, userId);
+            }, getUserIconSize(), this::onUserIconsLoaded);
+        }
+        mUserIconLoader.requestIcons(missingIcons);
+    }
 
-            @Override
-            protected Void doInBackground(List<Integer>... values) {
-                for (int userId : values[0]) {
-                    Bitmap bitmap = mUserManager.getUserIcon(userId);
-                    if (bitmap == null) {
-                        bitmap = getDefaultUserIconAsBitmap(getContext().getResources(), userId);
-                    }
-                    mUserIcons.append(userId, bitmap);
-                }
-                return null;
+    private void onUserIconsLoaded(List<Integer> userIds) {
+        if (getActivity() == null) {
+            return;
+        }
+        // Only the rows of the loaded users change, no need to query the users again.
+        for (int userId : userIds) {
+            final Preference pref = userId == UserHandle.myUserId()
+                    ? mMePreference
+                    : mUserListCategory.findPreference(getUserPreferenceKey(userId));
+            if (pref != null) {
+                setPhotoId(pref, userId);
             }
-        }.execute(missingIcons);
+        }
+    }
+
+    private int getUserIconSize() {
+        return getActivity().getResources().getDimensionPixelSize(
+                R.dimen.multiple_users_user_icon_size);
+    }
+
+    private static String getUserPreferenceKey(int userId) {
+        return "id=" + userId;
     }
 
     private Drawable getEncircledDefaultIcon() {
@@ -1672,10 +1724,11 @@ public class UserSettings extends SettingsPreferenceFragment
         return mDefaultIconDrawable;
     }
 
-    private void setPhotoId(Preference pref, UserInfo user) {
-        Bitmap bitmap = mUserIcons.get(user.id);
-        if (bitmap != null) {
+    private void setPhotoId(Preference pref, int userId) {
+        Bitmap bitmap = mUserIcons.get(userId);
+        if (bitmap != null && bitmap != mShownUserIcons.get(userId)) {
             pref.setIcon(encircleUserIcon(bitmap));
+            mShownUserIcons.put(userId, bitmap);
         }
     }
 
@@ -166,6 +166,15 @@ public class ConfigDialogFragment extends InstrumentedDialogFragment implements
         super.onCancel(dialog);
     }
 
+    @Override
+    public void onDismiss(DialogInterface dialog) {
+        super.onDismiss(dialog);
+        // The profile store doesn't notify about changes, so let the list reload itself.
+        if (getTargetFragment() instanceof VpnSettings) {
+            ((VpnSettings) getTargetFragment()).refresh();
+        }
+    }
+
     private void updateLockdownVpn(boolean isVpnAlwaysOn, VpnProfile profile) {
         // Save lockdown vpn
         if (isVpnAlwaysOn) {
@@ -24,8 +24,10 @@ import android.annotation.WorkerThread;
 import android.app.Activity;
 import android.app.AppOpsManager;
 import android.app.settings.SettingsEnums;
+import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
@@ -71,6 +73,7 @@ import com.android.settingslib.RestrictedLockUtilsInternal;
 import com.google.android.collect.Lists;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -87,7 +90,8 @@ public class VpnSettings extends RestrictedDashboardFragment implements
     private static final boolean DEBUG = Log.isLoggable(LOG_TAG, Log.DEBUG);
 
     private static final int RESCAN_MESSAGE = 0;
-    private static final int RESCAN_INTERVAL_MS = 1000;
+    // Legacy VPNs only become a network once connected, so progress is polled until then.
+    private static final int CONNECTING_RESCAN_INTERVAL_MS = 1000;
     private static final String ADVANCED_VPN_GROUP_KEY = "advanced_vpn_group";
     private static final String VPN_GROUP_KEY = "vpn_group";
 
@@ -109,6 +113,11 @@ public class VpnSettings extends RestrictedDashboardFragment implements
     private HandlerThread mUpdaterThread;
     private LegacyVpnInfo mConnectedLegacyVpn;
 
+    // Decoded profiles and the store entries they were decoded from, only used by mUpdater.
+    private Map<String, VpnProfile> mDecodedProfiles = new ArrayMap<>();
+    private Map<String, byte[]> mEncodedProfiles = new ArrayMap<>();
+    private AppOpsManager mAppOpsManager;
+
     private boolean mUnavailable;
     private AdvancedVpnFeatureProvider mFeatureProvider;
     private PreferenceScreen mPreferenceScreen;
@@ -130,6 +139,7 @@ public class VpnSettings extends RestrictedDashboardFragment implements
         mUserManager = (UserManager) getSystemService(Context.USER_SERVICE);
         mConnectivityManager = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
         mVpnManager = (VpnManager) getSystemService(Context.VPN_MANAGEMENT_SERVICE);
+        mAppOpsManager = getContext().getSystemService(AppOpsManager.class);
         mFeatureProvider = FeatureFactory.getFeatureFactory().getAdvancedVpnFeatureProvider();
         mIsAdvancedVpnSupported = mFeatureProvider.isAdvancedVpnSupported(getContext());
 
@@ -207,14 +217,27 @@ public class VpnSettings extends RestrictedDashboardFragment implements
             getEmptyTextView().setText(R.string.vpn_no_vpns_added);
         }
 
-        // Start monitoring
-        mConnectivityManager.registerNetworkCallback(VPN_REQUEST, mNetworkCallback);
-
         // Trigger a refresh
         mUpdaterThread = new HandlerThread("Refresh VPN list in background");
         mUpdaterThread.start();
-        mUpdater = new Handler(mUpdaterThread.getLooper(), this);
+        synchronized (this) {
+            mUpdater = new Handler(mUpdaterThread.getLooper(), this);
+        }
         mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
+
+        // Start monitoring, the list is only reloaded when one of these reports a change
+        mConnectivityManager.registerNetworkCallback(VPN_REQUEST, mNetworkCallback);
+        final IntentFilter packageFilter = new IntentFilter();
+        packageFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packageFilter.addDataScheme("package");
+        getContext().registerReceiverAsUser(mPackageReceiver, UserHandle.ALL, packageFilter,
+                /* broadcastPermission= */ null, mUpdater);
+        mAppOpsManager.startWatchingMode(OP_ACTIVATE_VPN, /* packageName= */ null,
+                mOpChangedListener);
+        mAppOpsManager.startWatchingMode(OP_ACTIVATE_PLATFORM_VPN, /* packageName= */ null,
+                mOpChangedListener);
     }
 
     @Override
@@ -236,6 +259,8 @@ public class VpnSettings extends RestrictedDashboardFragment implements
 
         // Stop monitoring
         mConnectivityManager.unregisterNetworkCallback(mNetworkCallback);
+        getContext().unregisterReceiver(mPackageReceiver);
+        mAppOpsManager.stopWatchingMode(mOpChangedListener);
 
         synchronized (this) {
             mUpdater.removeCallbacksAndMessages(null);
@@ -262,6 +287,7 @@ public class VpnSettings extends RestrictedDashboardFragment implements
                 mFeatureProvider);
 
         final Map<String, LegacyVpnInfo> connectedLegacyVpns = getConnectedLegacyVpns();
+        final boolean legacyVpnConnecting = isConnecting(mConnectedLegacyVpn);
         final Set<AppVpnInfo> connectedAppVpns = getConnectedAppVpns();
 
         final Set<AppVpnInfo> alwaysOnAppVpnInfos = getAlwaysOnAppVpnInfos();
@@ -272,13 +298,33 @@ public class VpnSettings extends RestrictedDashboardFragment implements
                 .legacyVpns(vpnProfiles, connectedLegacyVpns, lockdownVpnKey)
                 .appVpns(vpnApps, connectedAppVpns, alwaysOnAppVpnInfos));
 
+        if (legacyVpnConnecting) {
+            synchronized (this) {
+                if (mUpdater != null && !mUpdater.hasMessages(RESCAN_MESSAGE)) {
+                    mUpdater.sendEmptyMessageDelayed(RESCAN_MESSAGE,
+                            CONNECTING_RESCAN_INTERVAL_MS);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reloads the list in the background. Called when a VPN, a profile or an app that may provide
+     * a VPN changed.
+     */
+    void refresh() {
         synchronized (this) {
             if (mUpdater != null) {
                 mUpdater.removeMessages(RESCAN_MESSAGE);
-                mUpdater.sendEmptyMessageDelayed(RESCAN_MESSAGE, RESCAN_INTERVAL_MS);
+                mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
             }
         }
-        return true;
+    }
+
+    private static boolean isConnecting(LegacyVpnInfo vpn) {
+        return vpn != null && (vpn.state == LegacyVpnInfo.STATE_INITIALIZING
+                || vpn.state == LegacyVpnInfo.STATE_CONNECTING);
     }
 
     @VisibleForTesting
@@ -513,19 +559,25 @@ public class VpnSettings extends RestrictedDashboardFragment implements
     private NetworkCallback mNetworkCallback = new NetworkCallback() {
         @Override
         public void onAvailable(Network network) {
-            if (mUpdater != null) {
-                mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
-            }
+            refresh();
         }
 
         @Override
         public void onLost(Network network) {
-            if (mUpdater != null) {
-                mUpdater.sendEmptyMessage(RESCAN_MESSAGE);
-            }
+            refresh();
         }
     };
 
+    private final BroadcastReceiver mPackageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            refresh();
+        }
+    };
+
+    private final AppOpsManager.OnOpChangedListener mOpChangedListener =
+            (op, packageName) -> refresh();
+
     @VisibleForTesting @UiThread
     public LegacyVpnPreference findOrCreatePreference(VpnProfile profile, boolean update) {
         LegacyVpnPreference pref = mLegacyVpnPreferences.get(profile.key);
@@ -694,16 +746,27 @@ public class VpnSettings extends RestrictedDashboardFragment implements
                 && TextUtils.equals(packageName, featureProvider.getAdvancedVpnPackageName());
     }
 
-    private static List<VpnProfile> loadVpnProfiles() {
+    @WorkerThread
+    private List<VpnProfile> loadVpnProfiles() {
         final ArrayList<VpnProfile> result = Lists.newArrayList();
+        final Map<String, VpnProfile> decodedProfiles = new ArrayMap<>();
+        final Map<String, byte[]> encodedProfiles = new ArrayMap<>();
 
         for (String key : LegacyVpnProfileStore.list(Credentials.VPN)) {
-            final VpnProfile profile = VpnProfile.decode(key,
-                    LegacyVpnProfileStore.get(Credentials.VPN + key));
+            final byte[] value = LegacyVpnProfileStore.get(Credentials.VPN + key);
+            // Only decode profiles that were added or changed since the last load.
+            VpnProfile profile = mDecodedProfiles.get(key);
+            if (profile == null || !Arrays.equals(value, mEncodedProfiles.get(key))) {
+                profile = VpnProfile.decode(key, value);
+            }
             if (profile != null) {
                 result.add(profile);
+                decodedProfiles.put(key, profile);
+                encodedProfiles.put(key, value);
             }
         }
+        mDecodedProfiles = decodedProfiles;
+        mEncodedProfiles = encodedProfiles;
         return result;
     }
 
@@ -28,6 +28,7 @@ import android.text.TextUtils;
 import android.util.Log;
 import android.util.TypedValue;
 import android.view.View;
+import android.view.ViewGroup;
 
 import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
@@ -43,6 +44,7 @@ import androidx.recyclerview.widget.RecyclerView.ViewHolder;
 import com.android.settings.R;
 import com.android.settings.SettingsPreferenceFragment;
 import com.android.settings.accessibility.AccessibilityUtil;
+import com.android.settings.core.instrumentation.PageLatencyTracker;
 import com.android.settingslib.widget.SettingsPreferenceGroupAdapter;
 import com.android.settingslib.widget.SettingsThemeHelper;
 
@@ -66,6 +68,7 @@ public class HighlightablePreferenceGroupAdapter extends SettingsPreferenceGroup
     private final @Nullable String mHighlightKey;
     private boolean mHighlightRequested;
     private int mHighlightPosition = RecyclerView.NO_POSITION;
+    @Nullable private PageLatencyTracker mPageLatencyTracker;
 
     /**
      * Tries to override initial expanded child count.
@@ -111,6 +114,21 @@ public class HighlightablePreferenceGroupAdapter extends SettingsPreferenceGroup
         mHighlightBackgroundRes = R.drawable.preference_background_highlighted;
     }
 
+    /** Reports how many rows are inflated to the tracker. */
+    public void setPageLatencyTracker(@Nullable PageLatencyTracker tracker) {
+        mPageLatencyTracker = tracker;
+    }
+
+    @NonNull
+    @Override
+    public PreferenceViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        final PreferenceViewHolder holder = super.onCreateViewHolder(parent, viewType);
+        if (mPageLatencyTracker != null) {
+            mPageLatencyTracker.recordViewHolderInflated();
+        }
+        return holder;
+    }
+
     @Override
     public void onBindViewHolder(@NonNull PreferenceViewHolder holder, int position) {
         super.onBindViewHolder(holder, position);
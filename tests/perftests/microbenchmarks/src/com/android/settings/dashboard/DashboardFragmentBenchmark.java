@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import android.content.Intent;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.fragment.app.FragmentActivity;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.android.settings.R;
+import com.android.settings.Settings;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class DashboardFragmentBenchmark {
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void updatePreferenceStates_networkDashboard() {
+        benchmarkUpdatePreferenceStates(Settings.NetworkDashboardActivity.class);
+    }
+
+    @Test
+    public void updatePreferenceStates_displaySettings() {
+        benchmarkUpdatePreferenceStates(Settings.DisplaySettingsActivity.class);
+    }
+
+    private void benchmarkUpdatePreferenceStates(Class<? extends FragmentActivity> activity) {
+        final Intent intent = new Intent(ApplicationProvider.getApplicationContext(), activity)
+                .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        try (ActivityScenario<FragmentActivity> scenario = ActivityScenario.launch(intent)) {
+            scenario.onActivity(a -> {
+                final DashboardFragment fragment = (DashboardFragment) a
+                        .getSupportFragmentManager().findFragmentById(R.id.main_content);
+                final BenchmarkState state = mBenchmarkRule.getState();
+                while (state.keepRunning()) {
+                    fragment.updatePreferenceStates();
+                }
+            });
+        }
+    }
+}
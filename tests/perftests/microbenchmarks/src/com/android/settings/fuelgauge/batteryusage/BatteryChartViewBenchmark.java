@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Measures drawing {@link BatteryChartView} while the selected slot is scrubbed. */
+@RunWith(AndroidJUnit4.class)
+public class BatteryChartViewBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 600;
+    private static final int LEVEL_COUNT = 25;
+    private static final int WARM_UP_FRAMES = 10;
+    private static final int MEASURED_FRAMES = 100;
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private BatteryChartView mChartView;
+    private BatteryChartViewModel mViewModel;
+    private Canvas mCanvas;
+
+    @Before
+    public void setUp() {
+        final List<Integer> levels = new ArrayList<>();
+        final List<Long> timestamps = new ArrayList<>();
+        for (int index = 0; index < LEVEL_COUNT; index++) {
+            levels.add(100 - index * 3);
+            timestamps.add(index * 3_600_000L);
+        }
+        mViewModel = new BatteryChartViewModel(levels, timestamps,
+                BatteryChartViewModel.AxisLabelPosition.BETWEEN_TRAPEZOIDS,
+                new FakeLabelTextGenerator());
+        mChartView = new BatteryChartView(mContext, /* attrs= */ null);
+        mChartView.setCompanionTextView(new TextView(mContext));
+        mChartView.setViewModel(mViewModel);
+        mChartView.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mChartView.layout(0, 0, WIDTH, HEIGHT);
+        mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    @UiThreadTest
+    public void drawWhileScrubbing() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        int frame = 0;
+        while (state.keepRunning()) {
+            drawFrame(frame++);
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    @SuppressWarnings("deprecation")
+    public void drawWhileScrubbing_doesNotAllocate() {
+        for (int frame = 0; frame < WARM_UP_FRAMES; frame++) {
+            drawFrame(frame);
+        }
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+            drawFrame(frame);
+        }
+        Debug.stopAllocCounting();
+
+        assertWithMessage("Objects allocated while drawing %s frames", MEASURED_FRAMES)
+                .that(Debug.getThreadAllocCount())
+                .isEqualTo(0);
+    }
+
+    private void drawFrame(int frame) {
+        mViewModel.setSelectedIndex(frame % (LEVEL_COUNT - 1));
+        mChartView.setViewModel(mViewModel);
+        mChartView.draw(mCanvas);
+    }
+
+    private static final class FakeLabelTextGenerator
+            implements BatteryChartViewModel.LabelTextGenerator {
+        @Override
+        public String generateText(List<Long> timestamps, int index) {
+            return index + "h";
+        }
+
+        @Override
+        public String generateFullText(List<Long> timestamps, int index) {
+            return index + " hours";
+        }
+
+        @Override
+        public String generateContentDescription(List<Long> timestamps, int index) {
+            return generateFullText(timestamps, index);
+        }
+
+        @Override
+        public String generateSlotBatteryLevelText(List<Integer> levels, int index) {
+            return String.valueOf(index);
+        }
+    }
+}
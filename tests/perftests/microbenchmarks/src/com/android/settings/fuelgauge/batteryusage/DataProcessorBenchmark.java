@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+import java.util.Map;
+
+@RunWith(AndroidJUnit4.class)
+public class DataProcessorBenchmark {
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private Map<Long, Map<String, BatteryHistEntry>> mBatteryHistoryMap;
+    private UserIdsSeries mUserIdsSeries;
+
+    @Before
+    public void setUp() {
+        // Use the on-device history so the numbers reflect a realistic amount of data.
+        mBatteryHistoryMap = DatabaseUtils.getHistoryMapSinceLastFullCharge(
+                mContext, Calendar.getInstance());
+        mUserIdsSeries = new UserIdsSeries(mContext, /* isNonUIRequest= */ false);
+    }
+
+    @Test
+    public void getBatteryUsageData() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            DataProcessor.getBatteryUsageData(mContext, mUserIdsSeries, mBatteryHistoryMap);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.android.settings.overlay.FeatureFactory;
+import com.android.settingslib.search.Indexable;
+import com.android.settingslib.search.SearchIndexableData;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+
+@RunWith(AndroidJUnit4.class)
+public class SearchIndexBenchmark {
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final Context mContext = ApplicationProvider.getApplicationContext();
+    private Collection<SearchIndexableData> mIndexables;
+
+    @Before
+    public void setUp() {
+        mIndexables = FeatureFactory.getFeatureFactory().getSearchFeatureProvider()
+                .getSearchIndexableResources().getProviderValues();
+    }
+
+    @Test
+    public void collectXmlResources() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (SearchIndexableData data : mIndexables) {
+                data.getSearchIndexProvider().getXmlResourcesToIndex(mContext, true);
+            }
+        }
+    }
+
+    @Test
+    public void collectRawData() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (SearchIndexableData data : mIndexables) {
+                final Indexable.SearchIndexProvider provider = data.getSearchIndexProvider();
+                provider.getRawDataToIndex(mContext, true);
+                provider.getDynamicRawDataToIndex(mContext, true);
+            }
+        }
+    }
+
+    @Test
+    public void collectNonIndexableKeys() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (SearchIndexableData data : mIndexables) {
+                data.getSearchIndexProvider().getNonIndexableKeys(mContext);
+            }
+        }
+    }
+}
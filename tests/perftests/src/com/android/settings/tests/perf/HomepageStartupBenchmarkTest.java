@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.tests.perf;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import android.app.Instrumentation;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Regression benchmark of the Settings homepage cold start.
+ *
+ * <p>Records the time to initial display ({@code TotalTime} of {@code am start -W}) and the time
+ * to full display (the {@code Fully drawn} line logged once the homepage reports it is fully
+ * drawn). Medians are sent back as instrumentation status. When the {@code max_ttid_ms} or
+ * {@code max_ttfd_ms} instrumentation arguments are given, the test fails if a median exceeds
+ * them.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HomepageStartupBenchmarkTest {
+    private static final String TAG = "HomepageStartupBench";
+    private static final String SETTINGS_PACKAGE = "com.android.settings";
+    private static final String HOMEPAGE_COMPONENT =
+            SETTINGS_PACKAGE + "/.homepage.SettingsHomepageActivity";
+    private static final String ARG_ITERATIONS = "iterations";
+    private static final String ARG_MAX_TTID_MS = "max_ttid_ms";
+    private static final String ARG_MAX_TTFD_MS = "max_ttfd_ms";
+    private static final int DEFAULT_ITERATIONS = 10;
+    private static final int TIME_OUT = 5000;
+    private static final Pattern TOTAL_TIME_PATTERN = Pattern.compile("TotalTime:\\s(\\d+)");
+    private static final Pattern FULLY_DRAWN_PATTERN = Pattern.compile(
+            "Fully drawn " + Pattern.quote(HOMEPAGE_COMPONENT) + ": \\+(?:(\\d+)s)?(\\d+)ms");
+
+    private Instrumentation mInstrumentation;
+    private UiDevice mDevice;
+    private Bundle mArguments;
+    private final List<Integer> mTtidSamples = new ArrayList<>();
+    private final List<Integer> mTtfdSamples = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        mInstrumentation = getInstrumentation();
+        mDevice = UiDevice.getInstance(mInstrumentation);
+        mArguments = InstrumentationRegistry.getArguments();
+        mDevice.pressHome();
+        mDevice.waitForIdle(TIME_OUT);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        final Bundle bundle = new Bundle();
+        bundle.putString("HomepageStartupBenchmark_ttid_median",
+                String.valueOf(getMedian(mTtidSamples)));
+        bundle.putString("HomepageStartupBenchmark_ttfd_median",
+                String.valueOf(getMedian(mTtfdSamples)));
+        bundle.putString("HomepageStartupBenchmark_ttid_samples", mTtidSamples.toString());
+        bundle.putString("HomepageStartupBenchmark_ttfd_samples", mTtfdSamples.toString());
+        mInstrumentation.sendStatus(0, bundle);
+        forceStop();
+    }
+
+    @Test
+    public void homepageColdStart() throws Exception {
+        final int iterations = Integer.parseInt(
+                mArguments.getString(ARG_ITERATIONS, String.valueOf(DEFAULT_ITERATIONS)));
+        for (int i = 0; i < iterations; i++) {
+            forceStop();
+            mDevice.executeShellCommand("logcat -c");
+
+            final String output = mDevice.executeShellCommand(
+                    "am start -W -n " + HOMEPAGE_COMPONENT);
+            final Matcher timeMatcher = TOTAL_TIME_PATTERN.matcher(output);
+            if (!timeMatcher.find()) {
+                Log.e(TAG, "No TotalTime in output:\n" + output);
+                continue;
+            }
+            mTtidSamples.add(Integer.parseInt(timeMatcher.group(1)));
+
+            mDevice.waitForIdle(TIME_OUT);
+            final int fullyDrawn = readFullyDrawnMillis();
+            if (fullyDrawn >= 0) {
+                mTtfdSamples.add(fullyDrawn);
+            }
+        }
+
+        assertBelowLimit("TTID", mTtidSamples, ARG_MAX_TTID_MS);
+        assertBelowLimit("TTFD", mTtfdSamples, ARG_MAX_TTFD_MS);
+    }
+
+    private int readFullyDrawnMillis() throws Exception {
+        final String log = mDevice.executeShellCommand("logcat -d -s ActivityTaskManager:I");
+        final Matcher matcher = FULLY_DRAWN_PATTERN.matcher(log);
+        if (!matcher.find()) {
+            Log.w(TAG, "Homepage didn't report fully drawn");
+            return -1;
+        }
+        final int seconds = matcher.group(1) != null ? Integer.parseInt(matcher.group(1)) : 0;
+        return seconds * 1000 + Integer.parseInt(matcher.group(2));
+    }
+
+    private void assertBelowLimit(String metric, List<Integer> samples, String argument) {
+        final String limit = mArguments.getString(argument);
+        if (limit == null || samples.isEmpty()) {
+            return;
+        }
+        assertWithMessage("Median homepage %s of %s", metric, samples)
+                .that(getMedian(samples)).isAtMost(Integer.parseInt(limit));
+    }
+
+    private void forceStop() throws Exception {
+        mDevice.executeShellCommand("am force-stop " + SETTINGS_PACKAGE);
+        Thread.sleep(1000);
+    }
+
+    private static int getMedian(List<Integer> samples) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        final List<Integer> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        return sorted.get((sorted.size() - 1) / 2);
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.tests.perf;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+
+import android.app.Instrumentation;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures cold, warm and hot start of the most used Settings entry points.
+ *
+ * <p>Each activity is started through {@code am start -W} and the reported {@code TotalTime} is
+ * recorded. Results are sent back as instrumentation status and written to
+ * {@code settings_startup_benchmark.json} in the test app's external files directory, so that
+ * two builds can be compared by diffing the files. The number of iterations can be overridden
+ * with the {@code iterations} instrumentation argument.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SettingsStartupBenchmarkTest {
+    private static final String TAG = "SettingsStartupBench";
+    private static final String SETTINGS_PACKAGE = "com.android.settings";
+    private static final String RESULT_FILE_NAME = "settings_startup_benchmark.json";
+    private static final String ARG_ITERATIONS = "iterations";
+    private static final int DEFAULT_ITERATIONS = 5;
+    private static final int TIME_OUT = 5000;
+    private static final Pattern TOTAL_TIME_PATTERN = Pattern.compile("TotalTime:\\s(\\d+)");
+    private static final Pattern LAUNCH_STATE_PATTERN = Pattern.compile("LaunchState:\\s(\\w+)");
+
+    private static final String[] ACTIVITIES = {
+            "Settings$NetworkDashboardActivity",
+            "Settings$WifiSettingsActivity",
+            "Settings$NetworkProviderSettingsActivity",
+            "Settings$ConnectedDeviceDashboardActivity",
+            "Settings$BluetoothSettingsActivity",
+            "Settings$TetherSettingsActivity",
+            "Settings$VpnSettingsActivity",
+            "Settings$DataSaverSummaryActivity",
+            "Settings$AppDashboardActivity",
+            "Settings$ManageApplicationsActivity",
+            "Settings$NotificationAppListActivity",
+            "Settings$ConfigureNotificationSettingsActivity",
+            "Settings$PowerUsageSummaryActivity",
+            "Settings$StorageDashboardActivity",
+            "Settings$SoundSettingsActivity",
+            "Settings$DisplaySettingsActivity",
+            "Settings$DarkThemeSettingsActivity",
+            "Settings$WallpaperSettingsActivity",
+            "Settings$AccessibilitySettingsActivity",
+            "Settings$SecurityDashboardActivity",
+            "Settings$PrivacyDashboardActivity",
+            "Settings$LocationSettingsActivity",
+            "Settings$TrustedCredentialsSettingsActivity",
+            "Settings$AccountDashboardActivity",
+            "Settings$SystemDashboardActivity",
+            "Settings$LanguageSettingsActivity",
+            "Settings$DateTimeSettingsActivity",
+            "Settings$UserSettingsActivity",
+            "Settings$MyDeviceInfoActivity",
+            "Settings$DevelopmentSettingsActivity",
+    };
+
+    private enum StartMode {
+        /** Process is killed before the launch. */
+        COLD,
+        /** Process is alive but the activity has been destroyed. */
+        WARM,
+        /** Activity is only stopped and brought back to the foreground. */
+        HOT
+    }
+
+    private Instrumentation mInstrumentation;
+    private UiDevice mDevice;
+    private int mIterations;
+    private final Map<String, Map<StartMode, List<Integer>>> mResults = new LinkedHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        mInstrumentation = getInstrumentation();
+        mDevice = UiDevice.getInstance(mInstrumentation);
+        final Bundle arguments = InstrumentationRegistry.getArguments();
+        mIterations = Integer.parseInt(
+                arguments.getString(ARG_ITERATIONS, String.valueOf(DEFAULT_ITERATIONS)));
+        mDevice.pressHome();
+        mDevice.waitForIdle(TIME_OUT);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        final String json = toJson().toString(2);
+        writeResultFile(json);
+        final Bundle bundle = new Bundle();
+        bundle.putString("SettingsStartupBenchmark_json", json);
+        putSummaryToBundle(bundle);
+        mInstrumentation.sendStatus(0, bundle);
+        forceStop();
+    }
+
+    @Test
+    public void startupBenchmark() throws Exception {
+        for (String activity : ACTIVITIES) {
+            final Map<StartMode, List<Integer>> results = new LinkedHashMap<>();
+            for (StartMode mode : StartMode.values()) {
+                results.put(mode, new ArrayList<>());
+            }
+            mResults.put(activity, results);
+            for (int i = 0; i < mIterations; i++) {
+                for (StartMode mode : StartMode.values()) {
+                    final int totalTime = measureStart(activity, mode);
+                    if (totalTime >= 0) {
+                        results.get(mode).add(totalTime);
+                    }
+                }
+            }
+        }
+    }
+
+    private int measureStart(String activity, StartMode mode) throws Exception {
+        switch (mode) {
+            case COLD:
+                forceStop();
+                break;
+            case WARM:
+                // Make sure the process is alive, then destroy the activity.
+                startActivity(activity);
+                mDevice.pressBack();
+                break;
+            case HOT:
+                startActivity(activity);
+                mDevice.pressHome();
+                break;
+        }
+        mDevice.waitForIdle(TIME_OUT);
+
+        final String output = startActivity(activity);
+        final Matcher timeMatcher = TOTAL_TIME_PATTERN.matcher(output);
+        if (!timeMatcher.find()) {
+            Log.e(TAG, String.format("No TotalTime for %s (%s):\n%s", activity, mode, output));
+            return -1;
+        }
+        final Matcher stateMatcher = LAUNCH_STATE_PATTERN.matcher(output);
+        if (stateMatcher.find() && !mode.name().equals(stateMatcher.group(1))) {
+            // The system may upgrade a launch, e.g. when the activity got killed in background.
+            Log.w(TAG, String.format("%s expected %s start but was %s",
+                    activity, mode, stateMatcher.group(1)));
+            return -1;
+        }
+        return Integer.parseInt(timeMatcher.group(1));
+    }
+
+    private String startActivity(String activity) throws IOException {
+        return mDevice.executeShellCommand(
+                "am start -W -n " + SETTINGS_PACKAGE + "/." + activity);
+    }
+
+    private void forceStop() throws Exception {
+        mDevice.executeShellCommand("am force-stop " + SETTINGS_PACKAGE);
+        Thread.sleep(1000);
+    }
+
+    private JSONObject toJson() throws JSONException {
+        final JSONObject root = new JSONObject();
+        root.put("iterations", mIterations);
+        final JSONObject activities = new JSONObject();
+        for (Map.Entry<String, Map<StartMode, List<Integer>>> entry : mResults.entrySet()) {
+            final JSONObject modes = new JSONObject();
+            for (Map.Entry<StartMode, List<Integer>> modeEntry : entry.getValue().entrySet()) {
+                final List<Integer> samples = modeEntry.getValue();
+                final JSONObject stats = new JSONObject();
+                stats.put("samples", new JSONArray(samples));
+                stats.put("min", samples.isEmpty() ? 0 : Collections.min(samples));
+                stats.put("median", getPercentile(samples, 50));
+                stats.put("p90", getPercentile(samples, 90));
+                stats.put("max", samples.isEmpty() ? 0 : Collections.max(samples));
+                modes.put(modeEntry.getKey().name().toLowerCase(), stats);
+            }
+            activities.put(entry.getKey(), modes);
+        }
+        root.put("activities", activities);
+        return root;
+    }
+
+    private void putSummaryToBundle(Bundle bundle) {
+        for (Map.Entry<String, Map<StartMode, List<Integer>>> entry : mResults.entrySet()) {
+            for (Map.Entry<StartMode, List<Integer>> modeEntry : entry.getValue().entrySet()) {
+                bundle.putString(String.format("SettingsStartupBenchmark_%s_%s_median",
+                        entry.getKey(), modeEntry.getKey().name().toLowerCase()),
+                        String.valueOf(getPercentile(modeEntry.getValue(), 50)));
+            }
+        }
+    }
+
+    private void writeResultFile(String json) {
+        final File dir = mInstrumentation.getContext().getExternalFilesDir(null);
+        if (dir == null) {
+            Log.e(TAG, "External files dir is not available");
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(new File(dir, RESULT_FILE_NAME))) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write results", e);
+        }
+    }
+
+    private static int getPercentile(List<Integer> samples, int percentile) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        final List<Integer> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        final int index = (int) Math.ceil(sorted.size() * percentile / 100.0) - 1;
+        return sorted.get(Math.max(index, 0));
+    }
+}
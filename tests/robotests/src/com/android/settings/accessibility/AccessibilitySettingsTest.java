@@ -46,6 +46,7 @@ import android.provider.Settings;
 import android.view.accessibility.AccessibilityManager;
 
 import androidx.fragment.app.Fragment;
+import androidx.preference.Preference;
 import androidx.test.core.app.ApplicationProvider;
 
 import com.android.internal.accessibility.util.AccessibilityUtils;
@@ -441,6 +442,51 @@ public class AccessibilitySettingsTest {
 
     }
 
+    @Test
+    public void onSettingsChanged_serviceEnabled_onlyRebuildsChangedRow() {
+        final ComponentName otherComponentName =
+                new ComponentName(PACKAGE_NAME, PACKAGE_NAME + ".other_a11y_service");
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
+                List.of(mServiceInfo, getMockAccessibilityServiceInfo(otherComponentName)));
+        setupFragment();
+        final Preference servicePreference = mFragment.getPreferenceScreen().findPreference(
+                SERVICE_COMPONENT_NAME.flattenToString());
+        final Preference otherPreference = mFragment.getPreferenceScreen().findPreference(
+                otherComponentName.flattenToString());
+
+        Settings.Secure.putString(mContext.getContentResolver(),
+                Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES,
+                SERVICE_COMPONENT_NAME.flattenToString());
+        mFragment.onSettingsChanged();
+
+        assertThat(mFragment.getPreferenceScreen().<Preference>findPreference(
+                SERVICE_COMPONENT_NAME.flattenToString())).isNotSameInstanceAs(servicePreference);
+        assertThat(mFragment.getPreferenceScreen().<Preference>findPreference(
+                otherComponentName.flattenToString())).isSameInstanceAs(otherPreference);
+    }
+
+    @Test
+    public void onResume_serviceCrashedInBackground_onlyRebuildsCrashedRow() {
+        final ComponentName otherComponentName =
+                new ComponentName(PACKAGE_NAME, PACKAGE_NAME + ".other_a11y_service");
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
+                List.of(mServiceInfo, getMockAccessibilityServiceInfo(otherComponentName)));
+        setupFragment();
+        final Preference servicePreference = mFragment.getPreferenceScreen().findPreference(
+                SERVICE_COMPONENT_NAME.flattenToString());
+        final Preference otherPreference = mFragment.getPreferenceScreen().findPreference(
+                otherComponentName.flattenToString());
+
+        mFragment.onPause();
+        mServiceInfo.crashed = true;
+        mFragment.onResume();
+
+        assertThat(mFragment.getPreferenceScreen().<Preference>findPreference(
+                SERVICE_COMPONENT_NAME.flattenToString())).isNotSameInstanceAs(servicePreference);
+        assertThat(mFragment.getPreferenceScreen().<Preference>findPreference(
+                otherComponentName.flattenToString())).isSameInstanceAs(otherPreference);
+    }
+
     @Test
     public void testAccessibilityMenuInSystem_IncludedInInteractionControl() {
         mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
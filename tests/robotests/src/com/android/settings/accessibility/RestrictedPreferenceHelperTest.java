@@ -126,6 +126,28 @@ public class RestrictedPreferenceHelperTest {
         assertThat(preference.isDisabledByEcm()).isFalse();
     }
 
+    @Test
+    @EnableFlags(value = {android.security.Flags.FLAG_EXTEND_ECM_TO_ALL_SETTINGS,
+            android.permission.flags.Flags.FLAG_ENHANCED_CONFIRMATION_MODE_APIS_ENABLED})
+    public void createAccessibilityServicePreference_allowed_doesNotCheckEcmAgain() {
+        ShadowRestrictedLockUtilsInternal.setEcmRestrictedPkgs(
+                mServiceInfo.getResolveInfo().serviceInfo.packageName);
+
+        final RestrictedPreference preference = mHelper.createAccessibilityServicePreference(
+                mServiceInfo, /* serviceEnabled= */ false, /* serviceAllowed= */ true);
+
+        assertThat(preference.isDisabledByEcm()).isFalse();
+        assertThat(preference.isEnabled()).isTrue();
+    }
+
+    @Test
+    public void createAccessibilityServicePreference_notAllowed_prefIsDisabledByAppOps() {
+        final RestrictedPreference preference = mHelper.createAccessibilityServicePreference(
+                mServiceInfo, /* serviceEnabled= */ false, /* serviceAllowed= */ false);
+
+        assertThat(preference.isDisabledByAppOps()).isTrue();
+    }
+
     @Test
     public void createAccessibilityActivityPreferenceList_hasOneInfo_containsSameKey() {
         final String key = COMPONENT_NAME.flattenToString();
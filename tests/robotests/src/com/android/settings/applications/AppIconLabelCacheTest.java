@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.graphics.drawable.ColorDrawable;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class AppIconLabelCacheTest {
+    private static final String PACKAGE_NAME = "com.android.test";
+    private static final String LABEL = "Test app";
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private PackageManager mPackageManager;
+
+    private Context mContext;
+    private ApplicationInfo mInfo;
+    private AppIconLabelCache mCache;
+
+    @Before
+    public void setUp() {
+        mContext = spy(RuntimeEnvironment.application);
+        doReturn(mPackageManager).when(mContext).getPackageManager();
+        mInfo = createApplicationInfo(PACKAGE_NAME, /* versionCode= */ 1);
+        when(mPackageManager.getApplicationLabel(mInfo)).thenReturn(LABEL);
+        mCache = spy(new AppIconLabelCache(mContext, 1024 * 1024));
+        doAnswer(invocation -> new ColorDrawable()).when(mCache).loadBadgedIcon(any());
+    }
+
+    @Test
+    public void getLabel_calledTwice_shouldLoadOnce() {
+        assertThat(mCache.getLabel(mInfo).toString()).isEqualTo(LABEL);
+        assertThat(mCache.getLabel(mInfo).toString()).isEqualTo(LABEL);
+
+        verify(mPackageManager, times(1)).getApplicationLabel(mInfo);
+    }
+
+    @Test
+    public void getLabel_shouldNotLoadIcon() {
+        mCache.getLabel(mInfo);
+
+        assertThat(mCache.getCachedBadgedIcon(mInfo)).isNull();
+        verify(mCache, never()).loadBadgedIcon(any());
+    }
+
+    @Test
+    public void getBadgedIcon_afterGetLabel_shouldNotReloadLabel() {
+        mCache.getLabel(mInfo);
+
+        assertThat(mCache.getBadgedIcon(mInfo)).isNotNull();
+        assertThat(mCache.getLabel(mInfo).toString()).isEqualTo(LABEL);
+        verify(mPackageManager, times(1)).getApplicationLabel(mInfo);
+        verify(mCache, times(1)).loadBadgedIcon(mInfo);
+    }
+
+    @Test
+    public void getBadgedIcon_shouldReturnNewDrawableEachTime() {
+        assertThat(mCache.getBadgedIcon(mInfo))
+                .isNotSameInstanceAs(mCache.getBadgedIcon(mInfo));
+        verify(mCache, times(1)).loadBadgedIcon(mInfo);
+    }
+
+    @Test
+    public void getCachedBadgedIcon_notLoaded_shouldNotLoad() {
+        assertThat(mCache.getCachedBadgedIcon(mInfo)).isNull();
+
+        mCache.getBadgedIcon(mInfo);
+
+        assertThat(mCache.getCachedBadgedIcon(mInfo)).isNotNull();
+        verify(mCache, times(1)).loadBadgedIcon(mInfo);
+    }
+
+    @Test
+    public void getLabel_newVersion_shouldReload() {
+        final ApplicationInfo updated = createApplicationInfo(PACKAGE_NAME, /* versionCode= */ 2);
+        when(mPackageManager.getApplicationLabel(updated)).thenReturn("Updated");
+        mCache.getLabel(mInfo);
+
+        assertThat(mCache.getLabel(updated).toString()).isEqualTo("Updated");
+    }
+
+    @Test
+    public void invalidatePackage_shouldDropOnlyThatPackage() {
+        final ApplicationInfo other = createApplicationInfo("com.android.other", 1);
+        when(mPackageManager.getApplicationLabel(other)).thenReturn("Other");
+        mCache.getLabel(mInfo);
+        mCache.getLabel(other);
+
+        mCache.invalidatePackage(PACKAGE_NAME);
+
+        mCache.getLabel(mInfo);
+        mCache.getLabel(other);
+        verify(mPackageManager, times(2)).getApplicationLabel(mInfo);
+        verify(mPackageManager, times(1)).getApplicationLabel(other);
+    }
+
+    @Test
+    public void trimMemory_background_shouldClear() {
+        mCache.getLabel(mInfo);
+
+        mCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+        assertThat(mCache.size()).isEqualTo(0);
+    }
+
+    private static ApplicationInfo createApplicationInfo(String packageName, long versionCode) {
+        final ApplicationInfo info = new ApplicationInfo();
+        info.packageName = packageName;
+        info.uid = 10001;
+        info.longVersionCode = versionCode;
+        return info;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.ActivityManager;
+import android.content.ComponentName;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public final class RunningStateTest {
+
+    private static final String PACKAGE_NAME = "com.android.app";
+
+    @Test
+    public void buildSnapshot_unchanged_isEqual() {
+        assertThat(snapshot(makeService("Service", 100), makeProcess(100, 1)))
+                .isEqualTo(snapshot(makeService("Service", 100), makeProcess(100, 1)));
+    }
+
+    @Test
+    public void buildSnapshot_serviceChanged_isNotEqual() {
+        assertThat(snapshot(makeService("Service", 100), makeProcess(100, 1)))
+                .isNotEqualTo(snapshot(makeService("OtherService", 100), makeProcess(100, 1)));
+    }
+
+    @Test
+    public void buildSnapshot_processNameChanged_isNotEqual() {
+        final ActivityManager.RunningAppProcessInfo renamed = makeProcess(100, 1);
+        renamed.processName = PACKAGE_NAME + ":other";
+
+        assertThat(snapshot(makeService("Service", 100), makeProcess(100, 1)))
+                .isNotEqualTo(snapshot(makeService("Service", 100), renamed));
+    }
+
+    @Test
+    public void buildSnapshot_onlyLruChanged_isNotEqual() {
+        assertThat(snapshot(makeService("Service", 100), makeProcess(100, 1)))
+                .isNotEqualTo(snapshot(makeService("Service", 100), makeProcess(100, 2)));
+    }
+
+    private static RunningState.Snapshot snapshot(ActivityManager.RunningServiceInfo service,
+            ActivityManager.RunningAppProcessInfo process) {
+        final List<ActivityManager.RunningServiceInfo> services = Arrays.asList(service);
+        final List<ActivityManager.RunningAppProcessInfo> processes = Arrays.asList(process);
+        return RunningState.buildSnapshot(services, services.size(), processes, processes.size());
+    }
+
+    private static ActivityManager.RunningServiceInfo makeService(String className, int pid) {
+        final ActivityManager.RunningServiceInfo service = new ActivityManager.RunningServiceInfo();
+        service.service = new ComponentName(PACKAGE_NAME, PACKAGE_NAME + "." + className);
+        service.process = PACKAGE_NAME;
+        service.pid = pid;
+        service.uid = 10000;
+        service.started = true;
+        return service;
+    }
+
+    private static ActivityManager.RunningAppProcessInfo makeProcess(int pid, int lru) {
+        final ActivityManager.RunningAppProcessInfo process =
+                new ActivityManager.RunningAppProcessInfo(PACKAGE_NAME, pid, null);
+        process.uid = 10000;
+        process.importance = ActivityManager.RunningAppProcessInfo.IMPORTANCE_CACHED;
+        process.lru = lru;
+        return process;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.os.UserHandle;
+import android.provider.Settings;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class SettingsSnapshotTest {
+
+    private static final String KEY = "settings_snapshot_test_key";
+    private static final int OTHER_USER_ID = 10;
+
+    private Context mContext;
+    private ContentResolver mResolver;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mResolver = mContext.getContentResolver();
+        SettingsSnapshot.reset();
+    }
+
+    @After
+    public void tearDown() {
+        SettingsSnapshot.reset();
+    }
+
+    @Test
+    public void getSecureInt_outsidePass_readsThrough() {
+        Settings.Secure.putInt(mResolver, KEY, 1);
+        assertThat(SettingsSnapshot.getSecureInt(mResolver, KEY, 0)).isEqualTo(1);
+
+        Settings.Secure.putInt(mResolver, KEY, 2);
+        assertThat(SettingsSnapshot.getSecureInt(mResolver, KEY, 0)).isEqualTo(2);
+    }
+
+    @Test
+    public void getSecureInt_inPass_returnsFirstReadValue() {
+        Settings.Secure.putInt(mResolver, KEY, 1);
+
+        try (SettingsSnapshot.Pass pass = SettingsSnapshot.beginPass()) {
+            assertThat(SettingsSnapshot.getSecureInt(mResolver, KEY, 0)).isEqualTo(1);
+            Settings.Secure.putInt(mResolver, KEY, 2);
+
+            assertThat(SettingsSnapshot.getSecureInt(mResolver, KEY, 0)).isEqualTo(1);
+            assertThat(SettingsSnapshot.getSecureString(mResolver, KEY)).isEqualTo("1");
+        }
+    }
+
+    @Test
+    public void getInt_sameKeyInOtherTables_keptApart() {
+        Settings.Secure.putInt(mResolver, KEY, 1);
+        Settings.System.putInt(mResolver, KEY, 2);
+        Settings.Global.putInt(mResolver, KEY, 3);
+
+        try (SettingsSnapshot.Pass pass = SettingsSnapshot.beginPass()) {
+            assertThat(SettingsSnapshot.getSecureInt(mResolver, KEY, 0)).isEqualTo(1);
+            assertThat(SettingsSnapshot.getSystemInt(mResolver, KEY, 0)).isEqualTo(2);
+            assertThat(SettingsSnapshot.getGlobalInt(mResolver, KEY, 0)).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void getSecureInt_otherUser_notServedFromFirstUser() {
+        final ContentResolver otherUserResolver = mContext.createContextAsUser(
+                UserHandle.of(OTHER_USER_ID), 0 /* flags */).getContentResolver();
+        Settings.Secure.putInt(mResolver, KEY, 1);
+
+        try (SettingsSnapshot.Pass pass = SettingsSnapshot.beginPass()) {
+            assertThat(SettingsSnapshot.getSecureInt(mResolver, KEY, 0)).isEqualTo(1);
+            Settings.Secure.putInt(mResolver, KEY, 2);
+
+            assertThat(SettingsSnapshot.getSecureInt(otherUserResolver, KEY, 0)).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void closeOutermostPass_dropsValues() {
+        Settings.Secure.putInt(mResolver, KEY, 1);
+
+        try (SettingsSnapshot.Pass outer = SettingsSnapshot.beginPass()) {
+            try (SettingsSnapshot.Pass inner = SettingsSnapshot.beginPass()) {
+                SettingsSnapshot.getSecureInt(mResolver, KEY, 0);
+            }
+            Settings.Secure.putInt(mResolver, KEY, 2);
+
+            assertThat(SettingsSnapshot.getSecureInt(mResolver, KEY, 0)).isEqualTo(1);
+        }
+
+        assertThat(SettingsSnapshot.getSecureInt(mResolver, KEY, 0)).isEqualTo(2);
+    }
+
+    @Test
+    public void getSecureInt_notANumber_returnsDefault() {
+        Settings.Secure.putString(mResolver, KEY, "not a number");
+
+        assertThat(SettingsSnapshot.getSecureInt(mResolver, KEY, 7)).isEqualTo(7);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import static com.android.settings.core.StartupScheduler.STAGE_AFTER_FIRST_FRAME;
+import static com.android.settings.core.StartupScheduler.STAGE_BEFORE_FIRST_FRAME;
+import static com.android.settings.core.StartupScheduler.STAGE_IDLE;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class StartupSchedulerTest {
+
+    private final List<String> mRan = new ArrayList<>();
+    private StartupScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        mScheduler = new StartupScheduler("test");
+    }
+
+    @Test
+    public void schedule_beforeFirstFrame_runsImmediately() {
+        mScheduler.schedule(STAGE_BEFORE_FIRST_FRAME, "task", () -> mRan.add("task"));
+
+        assertThat(mRan).containsExactly("task");
+    }
+
+    @Test
+    public void schedule_afterFirstFrame_waitsForFirstFrame() {
+        mScheduler.schedule(STAGE_AFTER_FIRST_FRAME, "task", () -> mRan.add("task"));
+        mScheduler.start(new View(RuntimeEnvironment.application));
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertThat(mRan).isEmpty();
+
+        mScheduler.onFirstFrameDrawn();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertThat(mRan).containsExactly("task");
+    }
+
+    @Test
+    public void start_withoutView_runsLaterStagesInOrder() {
+        mScheduler.schedule(STAGE_IDLE, "idle", () -> mRan.add("idle"));
+        mScheduler.schedule(STAGE_AFTER_FIRST_FRAME, "after", () -> mRan.add("after"));
+
+        mScheduler.start(null);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertThat(mRan).containsExactly("after", "idle").inOrder();
+    }
+
+    @Test
+    public void cancel_dropsPendingTasks() {
+        mScheduler.schedule(STAGE_AFTER_FIRST_FRAME, "after", () -> mRan.add("after"));
+        mScheduler.schedule(STAGE_IDLE, "idle", () -> mRan.add("idle"));
+        mScheduler.start(null);
+
+        mScheduler.cancel();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertThat(mRan).isEmpty();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import android.app.settings.SettingsEnums;
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.android.settingslib.core.instrumentation.LogWriter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class AsyncLogWriterTest {
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private LogWriter mFirstWriter;
+    @Mock
+    private LogWriter mSecondWriter;
+
+    private final List<Runnable> mPendingTasks = new ArrayList<>();
+    private Context mContext;
+    private AsyncLogWriter mWriter;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mWriter = new AsyncLogWriter(mPendingTasks::add, mFirstWriter, mSecondWriter);
+    }
+
+    @Test
+    public void clicked_beforeDrain_shouldNotWriteOnCallerThread() {
+        mWriter.clicked(SettingsEnums.SETTINGS_HOMEPAGE, "key");
+
+        verifyNoInteractions(mFirstWriter, mSecondWriter);
+        assertThat(mWriter.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void multipleEvents_shouldScheduleSingleDrainAndKeepOrder() {
+        mWriter.visible(mContext, SettingsEnums.PAGE_UNKNOWN, SettingsEnums.SETTINGS_HOMEPAGE, 1);
+        mWriter.clicked(SettingsEnums.SETTINGS_HOMEPAGE, "key");
+        mWriter.changed(SettingsEnums.SETTINGS_HOMEPAGE, "key", 2);
+
+        assertThat(mPendingTasks).hasSize(1);
+        runPendingTasks();
+
+        final InOrder inOrder = inOrder(mFirstWriter, mSecondWriter);
+        inOrder.verify(mFirstWriter).visible(mContext, SettingsEnums.PAGE_UNKNOWN,
+                SettingsEnums.SETTINGS_HOMEPAGE, 1);
+        inOrder.verify(mSecondWriter).visible(mContext, SettingsEnums.PAGE_UNKNOWN,
+                SettingsEnums.SETTINGS_HOMEPAGE, 1);
+        inOrder.verify(mFirstWriter).clicked(SettingsEnums.SETTINGS_HOMEPAGE, "key");
+        inOrder.verify(mSecondWriter).clicked(SettingsEnums.SETTINGS_HOMEPAGE, "key");
+        inOrder.verify(mFirstWriter).changed(SettingsEnums.SETTINGS_HOMEPAGE, "key", 2);
+        inOrder.verify(mSecondWriter).changed(SettingsEnums.SETTINGS_HOMEPAGE, "key", 2);
+        assertThat(mWriter.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void flush_shouldWritePendingRecordsSynchronously() {
+        mWriter.hidden(mContext, SettingsEnums.SETTINGS_HOMEPAGE, 100);
+
+        mWriter.flush();
+
+        verify(mFirstWriter).hidden(mContext, SettingsEnums.SETTINGS_HOMEPAGE, 100);
+        verify(mSecondWriter).hidden(mContext, SettingsEnums.SETTINGS_HOMEPAGE, 100);
+    }
+
+    @Test
+    public void enqueue_queueFull_shouldDropRecords() {
+        for (int i = 0; i < AsyncLogWriter.MAX_PENDING_RECORDS + 3; i++) {
+            mWriter.action(mContext, SettingsEnums.ACTION_SETTINGS_TILE_CLICK, i);
+        }
+
+        assertThat(mWriter.getPendingCount()).isEqualTo(AsyncLogWriter.MAX_PENDING_RECORDS);
+        assertThat(mWriter.getDroppedCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void timestampedWriter_shouldGetTimeOfEnqueue() {
+        final TimestampedLogWriter timestampedWriter = mock(TimestampedLogWriter.class);
+        final LogWriter writerAtTime = mock(LogWriter.class);
+        final long eventTimeMillis = System.currentTimeMillis();
+        when(timestampedWriter.atTime(eventTimeMillis)).thenReturn(writerAtTime);
+        mWriter = new AsyncLogWriter(mPendingTasks::add, timestampedWriter);
+
+        mWriter.clicked(SettingsEnums.SETTINGS_HOMEPAGE, "key");
+        SystemClock.sleep(5000);
+        runPendingTasks();
+
+        verify(timestampedWriter).atTime(eventTimeMillis);
+        verify(writerAtTime).clicked(SettingsEnums.SETTINGS_HOMEPAGE, "key");
+    }
+
+    private void runPendingTasks() {
+        while (!mPendingTasks.isEmpty()) {
+            mPendingTasks.remove(0).run();
+        }
+    }
+}
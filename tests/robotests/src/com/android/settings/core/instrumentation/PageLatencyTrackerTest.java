@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import android.app.settings.SettingsEnums;
+import android.os.SystemClock;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class PageLatencyTrackerTest {
+
+    private SettingsMetricsFeatureProvider mMetricsFeatureProvider;
+    private PageLatencyTracker mTracker;
+
+    @Before
+    public void setUp() {
+        mMetricsFeatureProvider = mock(SettingsMetricsFeatureProvider.class);
+        mTracker = new PageLatencyTracker(PageLatencyTrackerTest.class,
+                SettingsEnums.SETTINGS_HOMEPAGE);
+    }
+
+    @After
+    public void tearDown() {
+        PageLatencyTracker.sPageStats.clear();
+    }
+
+    @Test
+    public void endPhase_shouldAccumulateDuration() {
+        mTracker.beginPhase(PageLatencyTracker.PHASE_UPDATE_STATE);
+        SystemClock.sleep(20);
+        mTracker.endPhase(PageLatencyTracker.PHASE_UPDATE_STATE);
+        mTracker.beginPhase(PageLatencyTracker.PHASE_UPDATE_STATE);
+        SystemClock.sleep(10);
+        mTracker.endPhase(PageLatencyTracker.PHASE_UPDATE_STATE);
+
+        assertThat(mTracker.getPhaseDurationMillis(PageLatencyTracker.PHASE_UPDATE_STATE))
+                .isEqualTo(30);
+    }
+
+    @Test
+    public void onFrameDrawn_contentNotReady_shouldNotReport() {
+        assertThat(mTracker.onFrameDrawn(true, mMetricsFeatureProvider)).isFalse();
+
+        verify(mMetricsFeatureProvider, never()).logPageLatency(
+                eq(SettingsEnums.SETTINGS_HOMEPAGE), anyString(), anyLong());
+        assertThat(PageLatencyTracker.sPageStats).isEmpty();
+    }
+
+    @Test
+    public void onFrameDrawn_contentReady_shouldReportFirstAndFullyDrawn() throws Exception {
+        SystemClock.sleep(50);
+        mTracker.onFrameDrawn(true, mMetricsFeatureProvider);
+        mTracker.onContentReady();
+        SystemClock.sleep(30);
+
+        assertThat(mTracker.onFrameDrawn(true, mMetricsFeatureProvider)).isTrue();
+
+        assertThat(mTracker.getPhaseDurationMillis(PageLatencyTracker.PHASE_FIRST_FRAME))
+                .isEqualTo(50);
+        assertThat(mTracker.getPhaseDurationMillis(PageLatencyTracker.PHASE_FULLY_DRAWN))
+                .isEqualTo(80);
+        verify(mMetricsFeatureProvider).logPageLatency(SettingsEnums.SETTINGS_HOMEPAGE,
+                "fully_drawn", 80);
+        final JSONObject dump = PageLatencyTracker.dumpToJson();
+        assertThat(dump.getJSONObject("PageLatencyTrackerTest").getInt("count")).isEqualTo(1);
+    }
+
+    @Test
+    public void dumpToJson_shouldCountViewHolders() throws Exception {
+        mTracker.recordViewHolderInflated();
+        mTracker.recordViewHolderInflated();
+        mTracker.onContentReady();
+        mTracker.onFrameDrawn(true, mMetricsFeatureProvider);
+
+        final JSONObject views = PageLatencyTracker.dumpToJson()
+                .getJSONObject("PageLatencyTrackerTest").getJSONObject("view_holders");
+        assertThat(views.getInt("last_inflated")).isEqualTo(2);
+        assertThat(views.getInt("avg_inflated")).isEqualTo(2);
+    }
+
+    @Test
+    public void dumpToJson_shouldListSlowestControllers() throws Exception {
+        mTracker.recordController(new Object(), 5_000_000L);
+        mTracker.onContentReady();
+        mTracker.onFrameDrawn(true, mMetricsFeatureProvider);
+
+        final JSONObject page =
+                PageLatencyTracker.dumpToJson().getJSONObject("PageLatencyTrackerTest");
+        assertThat(page.getJSONArray("slowest_controllers").getJSONObject(0).getString("name"))
+                .isEqualTo("Object");
+    }
+}
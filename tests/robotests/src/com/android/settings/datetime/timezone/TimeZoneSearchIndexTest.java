@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datetime.timezone;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+@RunWith(RobolectricTestRunner.class)
+public class TimeZoneSearchIndexTest {
+
+    private TestItem mSaoTome;
+    private TestItem mSouthAfrica;
+    private TestItem mUnitedStates;
+    private TimeZoneSearchIndex<TestItem> mIndex;
+
+    @Before
+    public void setUp() {
+        mSaoTome = new TestItem("ST", "São Tomé & Príncipe");
+        mSouthAfrica = new TestItem("ZA", "South Africa");
+        mUnitedStates = new TestItem("US", "United States");
+        mIndex = new TimeZoneSearchIndex<>(
+                Arrays.asList(mSaoTome, mSouthAfrica, mUnitedStates), Locale.US);
+    }
+
+    @Test
+    public void search_prefixOfKey_returnsItemsInListOrder() {
+        assertThat(mIndex.search("S")).containsExactly(mSaoTome, mSouthAfrica, mUnitedStates)
+                .inOrder();
+        assertThat(mIndex.search("so")).containsExactly(mSouthAfrica);
+    }
+
+    @Test
+    public void search_prefixOfLaterWord_matches() {
+        assertThat(mIndex.search("afr")).containsExactly(mSouthAfrica);
+        assertThat(mIndex.search("tome & p")).containsExactly(mSaoTome);
+    }
+
+    @Test
+    public void search_ignoresCaseAndDiacritics() {
+        assertThat(mIndex.search("PRINCIPE")).containsExactly(mSaoTome);
+        assertThat(mIndex.search("Sãö")).containsExactly(mSaoTome);
+    }
+
+    @Test
+    public void search_itemMatchingSeveralKeys_returnedOnce() {
+        assertThat(mIndex.search("u")).containsExactly(mUnitedStates);
+    }
+
+    @Test
+    public void search_noMatch_returnsEmpty() {
+        assertThat(mIndex.search("xyz")).isEmpty();
+        assertThat(mIndex.search("ica")).isEmpty();
+    }
+
+    private static class TestItem implements BaseTimeZoneAdapter.AdapterItem {
+
+        private final String[] mSearchKeys;
+
+        TestItem(String id, String name) {
+            mSearchKeys = new String[]{id, name};
+        }
+
+        @Override
+        public CharSequence getTitle() {
+            return mSearchKeys[1];
+        }
+
+        @Override
+        public CharSequence getSummary() {
+            return null;
+        }
+
+        @Override
+        public String getIconText() {
+            return null;
+        }
+
+        @Override
+        public String getCurrentTime() {
+            return null;
+        }
+
+        @Override
+        public long getItemId() {
+            return 0;
+        }
+
+        @Override
+        public String[] getSearchKeys() {
+            return mSearchKeys;
+        }
+    }
+}
@@ -23,18 +23,22 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.app.Activity;
+import android.content.ComponentName;
 import android.content.Context;
+import android.content.Intent;
 import android.hardware.biometrics.BiometricManager;
 import android.hardware.biometrics.Flags;
 import android.platform.test.annotations.EnableFlags;
 import android.platform.test.flag.junit.SetFlagsRule;
 import android.provider.SearchIndexableResource;
 import android.provider.Settings;
+import android.service.quicksettings.TileService;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.FragmentActivity;
@@ -158,6 +162,44 @@ public class DevelopmentSettingsDashboardFragmentTest {
         assertThat(nonIndexableKeys).contains("enable_adb");
     }
 
+    @Test
+    public void searchIndex_pageDisabledBySetting_shouldNotCreateControllers() {
+        final Context appContext = RuntimeEnvironment.application;
+        DevelopmentSettingsEnabler.setDevelopmentSettingsEnabled(appContext, false);
+
+        assertThat(DevelopmentSettingsDashboardFragment.SEARCH_INDEX_DATA_PROVIDER
+                .createPreferenceControllers(appContext)).isEmpty();
+    }
+
+    @Test
+    public void createPreferenceControllers_devSettingsDisabled_shouldNotCreateControllers() {
+        DevelopmentSettingsEnabler.setDevelopmentSettingsEnabled(mContext, false);
+
+        assertThat(mDashboard.createPreferenceControllers(mContext)).isNull();
+    }
+
+    @Test
+    public void createPreferenceControllers_nonAdmin_shouldNotCreateControllers() {
+        DevelopmentSettingsEnabler.setDevelopmentSettingsEnabled(mContext, true);
+        mShadowUserManager.setIsAdminUser(false);
+
+        assertThat(mDashboard.createPreferenceControllers(mContext)).isNull();
+    }
+
+    @Test
+    public void handleQsTileLongPress_nonAdmin_shouldNotLaunchWirelessDebugging() {
+        DevelopmentSettingsEnabler.setDevelopmentSettingsEnabled(mContext, true);
+        mShadowUserManager.setIsAdminUser(false);
+        mDashboard.createPreferenceControllers(mContext);
+        final Intent intent = new Intent(TileService.ACTION_QS_TILE_PREFERENCES)
+                .putExtra(Intent.EXTRA_COMPONENT_NAME, new ComponentName(mContext,
+                        DevelopmentTiles.WirelessDebugging.class));
+
+        mDashboard.handleQsTileLongPressActionIfAny(intent);
+
+        verify(mDashboard, never()).getContext();
+    }
+
     @Test
     @Ignore
     @Config(shadows = {
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.os.BatteryStats.HistoryItem;
+import android.os.BatteryUsageStats;
+
+import com.android.internal.os.BatteryStatsHistoryIterator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public final class BatteryHistoryTimelineTest {
+
+    @Mock private BatteryUsageStats mBatteryUsageStats;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        BatteryHistoryTimeline.clearCache();
+    }
+
+    @Test
+    public void decode_identicalUpdates_keepsFirstAndLastOfRun() {
+        final BatteryHistoryTimeline timeline =
+                BatteryHistoryTimeline.decode(
+                        mockIterator(
+                                makeUpdate(1000, 99),
+                                makeUpdate(1500, 99),
+                                makeUpdate(2000, 99),
+                                makeUpdate(2500, 99),
+                                makeUpdate(3000, 98)));
+
+        assertThat(timeline.getRecordCount()).isEqualTo(3);
+        final RecordingParser parser = new RecordingParser();
+        timeline.replay(parser);
+        assertThat(parser.mEvents)
+                .containsExactly("start 0-3000", "1000:99", "2500:99", "3000:98", "done")
+                .inOrder();
+    }
+
+    @Test
+    public void replay_stopsAfterLastUpdate() {
+        final HistoryItem reset = makeUpdate(3000, 0);
+        reset.cmd = HistoryItem.CMD_RESET;
+        reset.currentTime = 10000;
+        final HistoryItem overflow = makeUpdate(1500, 0);
+        overflow.cmd = HistoryItem.CMD_OVERFLOW;
+        final BatteryHistoryTimeline timeline =
+                BatteryHistoryTimeline.decode(
+                        mockIterator(
+                                makeUpdate(1000, 99), overflow, makeUpdate(2000, 98), reset));
+
+        final RecordingParser parser = new RecordingParser();
+        timeline.replay(parser);
+
+        assertThat(parser.mEvents)
+                .containsExactly("start 8000-9000", "0:99", "0:98", "done")
+                .inOrder();
+    }
+
+    @Test
+    public void of_sameStats_decodesHistoryOnce() {
+        doAnswer(invocation -> mockIterator(makeUpdate(1000, 99), makeUpdate(2000, 98)))
+                .when(mBatteryUsageStats)
+                .iterateBatteryStatsHistory();
+
+        final BatteryHistoryTimeline first = BatteryHistoryTimeline.of(mBatteryUsageStats);
+        final BatteryHistoryTimeline second = BatteryHistoryTimeline.of(mBatteryUsageStats);
+
+        assertThat(second).isSameInstanceAs(first);
+        verify(mBatteryUsageStats, times(1)).iterateBatteryStatsHistory();
+    }
+
+    private static BatteryStatsHistoryIterator mockIterator(HistoryItem... items) {
+        final BatteryStatsHistoryIterator iterator = mock(BatteryStatsHistoryIterator.class);
+        final HistoryItem[] rest = new HistoryItem[items.length];
+        System.arraycopy(items, 1, rest, 0, items.length - 1);
+        when(iterator.next()).thenReturn(items[0], rest);
+        return iterator;
+    }
+
+    private static HistoryItem makeUpdate(long time, int batteryLevel) {
+        final HistoryItem record = new HistoryItem();
+        record.cmd = HistoryItem.CMD_UPDATE;
+        record.time = time;
+        record.batteryLevel = (byte) batteryLevel;
+        return record;
+    }
+
+    private static final class RecordingParser implements BatteryInfo.BatteryDataParser {
+        final List<String> mEvents = new ArrayList<>();
+
+        @Override
+        public void onParsingStarted(long startTime, long endTime) {
+            mEvents.add("start " + startTime + "-" + endTime);
+        }
+
+        @Override
+        public void onDataPoint(long time, HistoryItem record) {
+            mEvents.add(time + ":" + record.batteryLevel);
+        }
+
+        @Override
+        public void onDataGap() {
+            mEvents.add("gap");
+        }
+
+        @Override
+        public void onParsingDone() {
+            mEvents.add("done");
+        }
+    }
+}
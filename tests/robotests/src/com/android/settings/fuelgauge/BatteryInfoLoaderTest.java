@@ -53,6 +53,7 @@ public class BatteryInfoLoaderTest {
 
     @Before
     public void setUp() {
+        BatteryUsageStatsSnapshots.resetInstance();
         MockitoAnnotations.initMocks(this);
         mContext = spy(RuntimeEnvironment.application);
         FakeFeatureFactory.setupForTest().getPowerUsageFeatureProvider();
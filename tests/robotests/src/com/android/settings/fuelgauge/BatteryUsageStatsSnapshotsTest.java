@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public final class BatteryUsageStatsSnapshotsTest {
+
+    @Mock private BatteryStatsManager mBatteryStatsManager;
+    @Mock private BatteryUsageStats mBatteryUsageStats;
+    @Mock private BatteryUsageStats mOtherBatteryUsageStats;
+    @Captor private ArgumentCaptor<BatteryUsageStatsQuery> mQueryCaptor;
+
+    private long mTime;
+    private BatteryUsageStatsSnapshots mSnapshots;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenReturn(mBatteryUsageStats, mOtherBatteryUsageStats);
+        mSnapshots = new BatteryUsageStatsSnapshots(() -> mTime);
+    }
+
+    @Test
+    public void acquire_sameQueryShape_loadsOnce() {
+        final BatteryUsageStats first = mSnapshots.acquire(mBatteryStatsManager, true, false);
+        final BatteryUsageStats second = mSnapshots.acquire(mBatteryStatsManager, true, false);
+
+        assertThat(second).isSameInstanceAs(first);
+        verify(mBatteryStatsManager).getBatteryUsageStats(mQueryCaptor.capture());
+        final int queryFlags = mQueryCaptor.getValue().getFlags();
+        assertThat(queryFlags & BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_HISTORY)
+                .isNotEqualTo(0);
+        assertThat(queryFlags
+                        & BatteryUsageStatsQuery
+                                .FLAG_BATTERY_USAGE_STATS_INCLUDE_PROCESS_STATE_DATA)
+                .isEqualTo(0);
+    }
+
+    @Test
+    public void acquire_otherQueryShape_loadsAgain() {
+        final BatteryUsageStats first = mSnapshots.acquire(mBatteryStatsManager, true, false);
+        final BatteryUsageStats second = mSnapshots.acquire(mBatteryStatsManager, true, true);
+
+        assertThat(second).isNotSameInstanceAs(first);
+        verify(mBatteryStatsManager, times(2)).getBatteryUsageStats(mQueryCaptor.capture());
+        final int queryFlags = mQueryCaptor.getAllValues().get(1).getFlags();
+        assertThat(queryFlags
+                        & BatteryUsageStatsQuery
+                                .FLAG_BATTERY_USAGE_STATS_INCLUDE_PROCESS_STATE_DATA)
+                .isNotEqualTo(0);
+    }
+
+    @Test
+    public void acquire_afterTtl_loadsAgain() throws Exception {
+        final BatteryUsageStats first = mSnapshots.acquire(mBatteryStatsManager, false, false);
+        mTime += BatteryUsageStatsSnapshots.TTL_MS + 1;
+
+        final BatteryUsageStats second = mSnapshots.acquire(mBatteryStatsManager, false, false);
+
+        assertThat(second).isNotSameInstanceAs(first);
+        // Still used by the first caller.
+        verify(mBatteryUsageStats, never()).close();
+        mSnapshots.release(first);
+        verify(mBatteryUsageStats).close();
+    }
+
+    @Test
+    public void release_closesOnlyOnceEvictedAndReleasedByAllUsers() throws Exception {
+        final BatteryUsageStats first = mSnapshots.acquire(mBatteryStatsManager, false, false);
+        final BatteryUsageStats second = mSnapshots.acquire(mBatteryStatsManager, false, false);
+        assertThat(mSnapshots.retain(first)).isTrue();
+
+        mSnapshots.clear();
+        mSnapshots.release(first);
+        mSnapshots.release(second);
+        verify(mBatteryUsageStats, never()).close();
+
+        mSnapshots.release(first);
+        verify(mBatteryUsageStats).close();
+        assertThat(mSnapshots.retain(first)).isFalse();
+    }
+
+    @Test
+    public void release_statsNotLoadedBySnapshots_closesThem() throws Exception {
+        final BatteryUsageStats stats = mock(BatteryUsageStats.class);
+
+        assertThat(mSnapshots.retain(stats)).isFalse();
+        mSnapshots.release(stats);
+
+        verify(stats).close();
+    }
+
+    @Test
+    public void acquire_loadFailed_throwsAndDoesNotCache() {
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenThrow(new IllegalStateException())
+                .thenReturn(mBatteryUsageStats);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> mSnapshots.acquire(mBatteryStatsManager, false, false));
+        assertThat(mSnapshots.getCachedSnapshotCount()).isEqualTo(0);
+
+        assertThat(mSnapshots.acquire(mBatteryStatsManager, false, false))
+                .isSameInstanceAs(mBatteryUsageStats);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batterytip;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+
+import com.android.settings.testutils.DatabaseTestUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class BatteryDatabaseManagerTest {
+    private static final int UID_NEW = 345;
+    private static final int UID_OLD = 543;
+    private static final String PACKAGE_NAME_NEW = "com.android.app1";
+    private static final String PACKAGE_NAME_OLD = "com.android.app2";
+    private static final int TYPE_NEW = 1;
+    private static final int TYPE_OLD = 2;
+    private static final long NOW = System.currentTimeMillis();
+    private static final long ONE_DAY_BEFORE = NOW - 24 * 60 * 60 * 1000;
+    private static final long TWO_DAYS_BEFORE = NOW - 2 * 24 * 60 * 60 * 1000;
+
+    private Context mContext;
+    private BatteryDatabaseManager mBatteryDatabaseManager;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mBatteryDatabaseManager = BatteryDatabaseManager.getInstance(mContext);
+    }
+
+    @After
+    public void cleanUp() {
+        DatabaseTestUtils.clearDb(mContext);
+    }
+
+    @Test
+    public void deleteAllAnomaliesBeforeTimeStamp_keepsNewerAnomalies() {
+        mBatteryDatabaseManager.insertAnomaly(
+                UID_NEW, PACKAGE_NAME_NEW, TYPE_NEW, AnomalyDatabaseHelper.State.NEW, NOW);
+        mBatteryDatabaseManager.insertAnomaly(
+                UID_OLD, PACKAGE_NAME_OLD, TYPE_OLD, AnomalyDatabaseHelper.State.NEW,
+                TWO_DAYS_BEFORE);
+
+        mBatteryDatabaseManager.deleteAllAnomaliesBeforeTimeStamp(ONE_DAY_BEFORE);
+
+        final List<AppInfo> appInfos =
+                mBatteryDatabaseManager.queryAllAnomalies(
+                        TWO_DAYS_BEFORE - 1, AnomalyDatabaseHelper.State.NEW);
+        assertThat(appInfos).hasSize(1);
+        assertThat(appInfos.get(0).uid).isEqualTo(UID_NEW);
+    }
+}
@@ -19,7 +19,10 @@ package com.android.settings.fuelgauge.batterytip;
 import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.spy;
 
 import android.content.Context;
@@ -32,6 +35,8 @@ import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.batterytip.tips.AppLabelPredicate;
 import com.android.settings.fuelgauge.batterytip.tips.AppRestrictionPredicate;
 import com.android.settings.fuelgauge.batterytip.tips.BatteryTip;
+import com.android.settings.fuelgauge.batterytip.tips.LowBatteryTip;
+import com.android.settings.testutils.FakeFeatureFactory;
 
 import org.junit.After;
 import org.junit.Before;
@@ -44,7 +49,9 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.util.ReflectionHelpers;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 @RunWith(RobolectricTestRunner.class)
 public class BatteryTipLoaderTest {
@@ -94,4 +101,47 @@ public class BatteryTipLoaderTest {
             assertThat(batteryTips.get(i).getType()).isEqualTo(TIP_ORDER[i]);
         }
     }
+
+    @Test
+    public void testLoadBackground_detectorTimesOut_returnsOtherTips() {
+        final FakeFeatureFactory featureFactory = FakeFeatureFactory.setupForTest();
+        final CountDownLatch detectorBlocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            detectorBlocked.await();
+            final List<BatteryTip> tips = invocation.getArgument(1);
+            tips.add(new LowBatteryTip(BatteryTip.StateType.NEW, false /* powerSaveModeOn */));
+            return null;
+        }).when(featureFactory.batterySettingsFeatureProvider)
+                .addBatteryTipDetector(any(), anyList(), any(), any());
+        mBatteryTipLoader.mDetectorTimeoutMs = 100;
+
+        try {
+            assertThat(getTipTypes(mBatteryTipLoader.loadInBackground())).containsExactly(
+                    BatteryTip.TipType.BATTERY_DEFENDER,
+                    BatteryTip.TipType.INCOMPATIBLE_CHARGER,
+                    BatteryTip.TipType.HIGH_DEVICE_USAGE).inOrder();
+        } finally {
+            detectorBlocked.countDown();
+        }
+    }
+
+    @Test
+    public void testLoadBackground_detectorThrows_returnsOtherTips() {
+        final FakeFeatureFactory featureFactory = FakeFeatureFactory.setupForTest();
+        doThrow(new IllegalStateException()).when(featureFactory.batterySettingsFeatureProvider)
+                .addBatteryTipDetector(any(), anyList(), any(), any());
+
+        assertThat(getTipTypes(mBatteryTipLoader.loadInBackground())).containsExactly(
+                BatteryTip.TipType.BATTERY_DEFENDER,
+                BatteryTip.TipType.INCOMPATIBLE_CHARGER,
+                BatteryTip.TipType.HIGH_DEVICE_USAGE).inOrder();
+    }
+
+    private static List<Integer> getTipTypes(List<BatteryTip> batteryTips) {
+        final List<Integer> types = new ArrayList<>();
+        for (BatteryTip batteryTip : batteryTips) {
+            types.add(batteryTip.getType());
+        }
+        return types;
+    }
 }
@@ -33,6 +33,7 @@ import android.os.BatteryUsageStats;
 import android.os.BatteryUsageStatsQuery;
 import android.os.UidBatteryConsumer;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsSnapshots;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.batterytip.AppInfo;
 import com.android.settings.fuelgauge.batterytip.BatteryTipPolicy;
@@ -77,6 +78,7 @@ public class HighUsageDetectorTest {
 
     @Before
     public void setUp() {
+        BatteryUsageStatsSnapshots.resetInstance();
         MockitoAnnotations.initMocks(this);
 
         mContext = spy(RuntimeEnvironment.application);
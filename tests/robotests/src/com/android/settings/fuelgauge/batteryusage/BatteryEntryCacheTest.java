@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+@RunWith(RobolectricTestRunner.class)
+public final class BatteryEntryCacheTest {
+    private static final int VALUE_SIZE = 1000;
+    private static final String PACKAGE_NAME = "com.android.test";
+
+    private BatteryEntryCache<String> mCache;
+
+    @Before
+    public void setUp() {
+        mCache = new BatteryEntryCache<>("test", /* maxSizeBytes= */ 3500, value -> VALUE_SIZE);
+    }
+
+    @Test
+    public void put_exceedsMaxSize_evictsLeastRecentlyUsed() {
+        mCache.put("1", "one");
+        mCache.put("2", "two");
+        mCache.put("3", "three");
+        mCache.get("1");
+
+        mCache.put("4", "four");
+
+        assertThat(mCache.containsKey("1")).isTrue();
+        assertThat(mCache.containsKey("2")).isFalse();
+        assertThat(mCache.containsKey("4")).isTrue();
+        assertThat(mCache.getSizeBytes()).isAtMost(3500L);
+    }
+
+    @Test
+    public void invalidatePackage_removesOnlyEntriesOfPackage() {
+        mCache.put("1", "one", PACKAGE_NAME);
+        mCache.put("2", "two", "com.android.other");
+        mCache.put("3", "three");
+
+        mCache.invalidatePackage(PACKAGE_NAME);
+
+        assertThat(mCache).doesNotContainKey("1");
+        assertThat(mCache).containsKey("2");
+        assertThat(mCache).containsKey("3");
+    }
+
+    @Test
+    public void put_nullKey_isNotCached() {
+        mCache.put(null, "value", PACKAGE_NAME);
+
+        assertThat(mCache).isEmpty();
+    }
+
+    @Test
+    public void clear_resetsSize() {
+        mCache.put("1", "one");
+
+        mCache.clear();
+
+        assertThat(mCache).isEmpty();
+        assertThat(mCache.getSizeBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    public void dump_reportsSizeAndHitRate() {
+        mCache.put("1", "one");
+        mCache.get("1");
+        mCache.get("2");
+        final StringWriter stringWriter = new StringWriter();
+
+        mCache.dump(new PrintWriter(stringWriter));
+
+        assertThat(stringWriter.toString()).contains("test: entries=1");
+        assertThat(stringWriter.toString()).contains("hits=1 misses=1");
+    }
+}
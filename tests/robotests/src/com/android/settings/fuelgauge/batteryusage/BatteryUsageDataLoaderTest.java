@@ -34,6 +34,8 @@ import android.os.BatteryUsageStats;
 import android.os.BatteryUsageStatsQuery;
 import android.os.UserManager;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsSnapshots;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -63,6 +65,7 @@ public final class BatteryUsageDataLoaderTest {
 
     @Before
     public void setUp() {
+        BatteryUsageStatsSnapshots.resetInstance();
         MockitoAnnotations.initMocks(this);
         mContext = spy(RuntimeEnvironment.application);
         doReturn(mContext).when(mContext).getApplicationContext();
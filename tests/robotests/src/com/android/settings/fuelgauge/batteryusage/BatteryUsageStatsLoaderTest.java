@@ -26,6 +26,8 @@ import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
 import android.os.BatteryUsageStatsQuery;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsSnapshots;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -45,6 +47,7 @@ public class BatteryUsageStatsLoaderTest {
 
     @Before
     public void setUp() {
+        BatteryUsageStatsSnapshots.resetInstance();
         MockitoAnnotations.initMocks(this);
         mContext = spy(RuntimeEnvironment.application);
         doReturn(mBatteryStatsManager)
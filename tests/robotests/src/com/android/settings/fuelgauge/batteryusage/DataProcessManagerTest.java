@@ -43,6 +43,7 @@ import android.text.format.DateUtils;
 
 import androidx.test.core.app.ApplicationProvider;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsSnapshots;
 import com.android.settings.fuelgauge.batteryusage.db.AppUsageEventEntity;
 
 import org.junit.After;
@@ -89,6 +90,7 @@ public final class DataProcessManagerTest {
 
     @Before
     public void setUp() {
+        BatteryUsageStatsSnapshots.resetInstance();
         mExecutorService = new PausedExecutorService();
         ShadowPausedAsyncTask.overrideExecutor(mExecutorService);
         mContext = spy(ApplicationProvider.getApplicationContext());
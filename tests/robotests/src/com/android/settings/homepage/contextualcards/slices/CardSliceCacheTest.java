@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.homepage.contextualcards.slices;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.net.Uri;
+
+import androidx.slice.Slice;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class CardSliceCacheTest {
+
+    private static final Uri TEST_SLICE_URI = Uri.parse("content://test/test");
+
+    private long mNow;
+    private CardSliceCache mCache;
+    private Slice mSlice;
+
+    @Before
+    public void setUp() {
+        mCache = new CardSliceCache(() -> mNow);
+        mSlice = new Slice.Builder(TEST_SLICE_URI).build();
+    }
+
+    @Test
+    public void get_noSlice_shouldReturnNull() {
+        assertThat(mCache.get(TEST_SLICE_URI)).isNull();
+    }
+
+    @Test
+    public void get_withinTtl_shouldReturnSlice() {
+        mCache.put(TEST_SLICE_URI, mSlice);
+        mNow += CardSliceCache.TTL_MS;
+
+        assertThat(mCache.get(TEST_SLICE_URI)).isSameInstanceAs(mSlice);
+    }
+
+    @Test
+    public void get_afterTtl_shouldReturnNull() {
+        mCache.put(TEST_SLICE_URI, mSlice);
+        mNow += CardSliceCache.TTL_MS + 1;
+
+        assertThat(mCache.get(TEST_SLICE_URI)).isNull();
+    }
+
+    @Test
+    public void remove_shouldDropSlice() {
+        mCache.put(TEST_SLICE_URI, mSlice);
+
+        mCache.remove(TEST_SLICE_URI);
+
+        assertThat(mCache.get(TEST_SLICE_URI)).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.homepage.contextualcards.slices;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.net.Uri;
+
+import androidx.slice.Slice;
+import androidx.slice.SliceViewManager;
+import androidx.slice.widget.SliceLiveData;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+public class CardSliceLiveDataTest {
+
+    private static final Uri TEST_SLICE_URI = Uri.parse("content://test/test");
+
+    @Mock
+    private SliceViewManager mSliceViewManager;
+    @Mock
+    private SliceLiveData.OnErrorListener mErrorListener;
+
+    private CardSliceCache mCache;
+    private CardSliceLiveData mLiveData;
+    private Slice mSlice;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mCache = new CardSliceCache(() -> 0L);
+        mLiveData = new CardSliceLiveData(mSliceViewManager, TEST_SLICE_URI, mCache,
+                mErrorListener);
+        mSlice = new Slice.Builder(TEST_SLICE_URI).build();
+    }
+
+    @Test
+    public void startListening_sliceCached_shouldNotBindAgain() {
+        mCache.put(TEST_SLICE_URI, mSlice);
+
+        mLiveData.startListening();
+        ShadowLooper.idleMainLooper();
+
+        verify(mSliceViewManager).registerSliceCallback(any(Uri.class),
+                any(SliceViewManager.SliceCallback.class));
+        verify(mSliceViewManager, never()).bindSlice(any(Uri.class));
+        assertThat(mLiveData.getValue()).isSameInstanceAs(mSlice);
+    }
+
+    @Test
+    public void startListening_sliceNotCached_shouldBindAndCache() {
+        when(mSliceViewManager.bindSlice(TEST_SLICE_URI)).thenReturn(mSlice);
+
+        mLiveData.startListening();
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mLiveData.getValue()).isSameInstanceAs(mSlice);
+        assertThat(mCache.get(TEST_SLICE_URI)).isSameInstanceAs(mSlice);
+    }
+
+    @Test
+    public void startListening_bindFailed_shouldNotifyError() {
+        when(mSliceViewManager.bindSlice(TEST_SLICE_URI)).thenReturn(null);
+
+        mLiveData.startListening();
+
+        verify(mErrorListener).onSliceError(anyInt(), any());
+        assertThat(mCache.get(TEST_SLICE_URI)).isNull();
+    }
+}
@@ -159,6 +159,20 @@ public class AppLocaleAllListPreferenceControllerTest {
         assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(localeList.size());
     }
 
+    @Test
+    public void onSearchListChanged_noResult_hidesPreferencesWithoutRemovingThem() {
+        mController.displayPreference(mPreferenceScreen);
+        final int count = mPreferenceCategory.getPreferenceCount();
+
+        mController.onSearchListChanged(new ArrayList<>(), null);
+
+        assertFalse(mPreferenceCategory.isVisible());
+        assertThat(mPreferenceCategory.getPreferenceCount()).isEqualTo(count);
+        for (int i = 0; i < count; i++) {
+            assertFalse(mPreferenceCategory.getPreference(i).isVisible());
+        }
+    }
+
     @Test
     public void onPreferenceClick_shouldShowAppLanguagePage() {
         Context activityContext = mock(Context.class);
@@ -17,8 +17,10 @@ package com.android.settings.location;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -32,12 +34,15 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.TextView;
 
+import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
+import androidx.preference.PreferenceManager;
 import androidx.preference.PreferenceScreen;
 
 import com.android.settings.R;
 import com.android.settings.dashboard.DashboardFragment;
 import com.android.settings.testutils.shadow.ShadowDeviceConfig;
+import com.android.settings.testutils.shadow.ShadowThreadUtils;
 import com.android.settingslib.applications.RecentAppOpsAccess;
 
 import com.google.common.collect.ImmutableList;
@@ -55,9 +60,10 @@ import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 
 import java.util.ArrayList;
+import java.util.List;
 
 @RunWith(RobolectricTestRunner.class)
-@Config(shadows = {ShadowDeviceConfig.class})
+@Config(shadows = {ShadowDeviceConfig.class, ShadowThreadUtils.class})
 public class RecentLocationAccessPreferenceControllerTest {
     private static final String PREFERENCE_KEY = "test_preference_key";
     @Mock
@@ -135,6 +141,58 @@ public class RecentLocationAccessPreferenceControllerTest {
         verify(mLayoutPreference, Mockito.times(1)).addPreference(Mockito.any());
     }
 
+    @Test
+    public void displayPreference_destroyedWhileLoading_shouldNotShowAccesses() {
+        doAnswer(invocation -> {
+            mController.onDestroy();
+            return ImmutableList.of(
+                    new RecentAppOpsAccess.Access("app", UserHandle.CURRENT, null, "app", "", 0));
+        }).when(mRecentLocationApps).getAppListSorted(false);
+
+        mController.displayPreference(mScreen);
+
+        verify(mLayoutPreference, never()).addPreference(Mockito.any());
+    }
+
+    @Test
+    public void updateAppPreferences_keepsPreferencesOfListedApps() {
+        final PreferenceCategory category = new PreferenceCategory(mContext);
+        new PreferenceManager(mContext).createPreferenceScreen(mContext)
+                .addPreference(category);
+        final RecentAppOpsAccess.Access first =
+                new RecentAppOpsAccess.Access("first", UserHandle.CURRENT, null, "first", "", 0);
+        final RecentAppOpsAccess.Access second =
+                new RecentAppOpsAccess.Access("second", UserHandle.CURRENT, null, "second", "", 0);
+        RecentLocationAccessPreferenceController.updateAppPreferences(category,
+                ImmutableList.of(first, second), R.string.location_no_recent_accesses,
+                Integer.MAX_VALUE, mDashboardFragment);
+        final Preference secondPreference = category.getPreference(1);
+
+        RecentLocationAccessPreferenceController.updateAppPreferences(category,
+                ImmutableList.of(second), R.string.location_no_recent_accesses,
+                Integer.MAX_VALUE, mDashboardFragment);
+
+        assertThat(category.getPreferenceCount()).isEqualTo(1);
+        assertThat(category.getPreference(0)).isSameInstanceAs(secondPreference);
+    }
+
+    @Test
+    public void updateAppPreferences_createsAtMostMaxNewPreferences() {
+        final PreferenceCategory category = new PreferenceCategory(mContext);
+        new PreferenceManager(mContext).createPreferenceScreen(mContext)
+                .addPreference(category);
+        final List<RecentAppOpsAccess.Access> accesses = ImmutableList.of(
+                new RecentAppOpsAccess.Access("first", UserHandle.CURRENT, null, "first", "", 0),
+                new RecentAppOpsAccess.Access("second", UserHandle.CURRENT, null, "second", "", 0));
+
+        assertThat(RecentLocationAccessPreferenceController.updateAppPreferences(category,
+                accesses, R.string.location_no_recent_accesses, 1, mDashboardFragment)).isFalse();
+        assertThat(category.getPreferenceCount()).isEqualTo(1);
+        assertThat(RecentLocationAccessPreferenceController.updateAppPreferences(category,
+                accesses, R.string.location_no_recent_accesses, 1, mDashboardFragment)).isTrue();
+        assertThat(category.getPreferenceCount()).isEqualTo(2);
+    }
+
     @Test
     public void testPreferenceClick_onExtraLocationPackage_startsExtraLocationActivity() {
         String extraLocationPkgName = "extraLocationPkgName";
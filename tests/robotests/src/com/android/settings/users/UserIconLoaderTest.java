@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.users;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class UserIconLoaderTest {
+    private static final int ICON_SIZE = 100;
+
+    @Test
+    public void downsample_largeIcon_shouldKeepAspectRatio() {
+        final Bitmap icon = Bitmap.createBitmap(400, 200, Bitmap.Config.ARGB_8888);
+
+        final Bitmap downsampled = UserIconLoader.downsample(icon, ICON_SIZE);
+
+        assertThat(downsampled.getWidth()).isEqualTo(ICON_SIZE);
+        assertThat(downsampled.getHeight()).isEqualTo(ICON_SIZE / 2);
+    }
+
+    @Test
+    public void downsample_smallIcon_shouldReturnSameBitmap() {
+        final Bitmap icon = Bitmap.createBitmap(50, 50, Bitmap.Config.ARGB_8888);
+
+        assertThat(UserIconLoader.downsample(icon, ICON_SIZE)).isSameInstanceAs(icon);
+    }
+
+    @Test
+    public void createCache_shouldBeBoundedByBitmapSize() {
+        final LruCache<Integer, Bitmap> cache = UserIconLoader.createCache();
+        final Bitmap icon = Bitmap.createBitmap(ICON_SIZE, ICON_SIZE, Bitmap.Config.ARGB_8888);
+
+        cache.put(10, icon);
+
+        assertThat(cache.size()).isEqualTo(icon.getAllocationByteCount());
+    }
+}
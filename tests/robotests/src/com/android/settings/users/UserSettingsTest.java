@@ -687,6 +687,27 @@ public class UserSettingsTest {
         assertThat(userPref.getOnPreferenceClickListener()).isSameInstanceAs(mFragment);
     }
 
+    @Test
+    public void updateUserList_secondaryUserAlreadyShown_shouldReuseItsPreference() {
+        givenUsers(getAdminUser(true), getSecondaryUser(false));
+        final UserPreference shownPref =
+                new UserPreference(mContext, null, INACTIVE_SECONDARY_USER_ID);
+        final UserPreference removedUserPref = new UserPreference(mContext, null, 99);
+        final PreferenceCategory category = (PreferenceCategory) mFragment.mUserListCategory;
+        doReturn(shownPref).when(category).findPreference("id=" + INACTIVE_SECONDARY_USER_ID);
+        doReturn(2).when(category).getPreferenceCount();
+        doReturn(shownPref).when(category).getPreference(0);
+        doReturn(removedUserPref).when(category).getPreference(1);
+
+        mFragment.updateUserList();
+
+        verify(category, never()).addPreference(shownPref);
+        verify(category, never()).removePreference(shownPref);
+        verify(category).removePreference(removedUserPref);
+        verify(category).addPreference(mMePreference);
+        assertThat(shownPref.getTitle()).isEqualTo(SECONDARY_USER_NAME);
+    }
+
     @Test
     public void updateUserList_existingSecondaryUser_shouldAddAllUsers_MultiUserIsDisabled() {
         givenUsers(getAdminUser(true), getSecondaryUser(false));
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.spa.app.storage
+
+import android.content.pm.ApplicationInfo
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.google.common.truth.Truth.assertThat
+import java.util.concurrent.atomic.AtomicInteger
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.test.runTest
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class AppStorageSizeRepositoryTest {
+    private val queryCount = AtomicInteger()
+    private var now = 0L
+
+    private val repository = AppStorageSizeRepository(
+        calculateSizeBytes = { app ->
+            queryCount.incrementAndGet()
+            if (app.packageName == FAILING_PACKAGE_NAME) null else app.packageName.length.toLong()
+        },
+        dispatcher = Dispatchers.Unconfined,
+        elapsedRealtime = { now },
+    )
+
+    @Test
+    fun getSizes_returnsSizeOfEachApp() = runTest {
+        val sizes = repository.getSizes(listOf(APP, FAILING_APP))
+
+        assertThat(sizes).containsExactly(PACKAGE_NAME.length.toLong(), null).inOrder()
+    }
+
+    @Test
+    fun getSize_afterGetSizes_servedFromCache() = runTest {
+        repository.getSizes(listOf(APP))
+
+        assertThat(repository.getSize(APP)).isEqualTo(PACKAGE_NAME.length.toLong())
+        assertThat(queryCount.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun invalidatePackage_queriesAgain() = runTest {
+        repository.getSizes(listOf(APP))
+
+        repository.invalidatePackage(PACKAGE_NAME)
+        repository.getSize(APP)
+
+        assertThat(queryCount.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun getSize_otherUser_queriedSeparately() = runTest {
+        val otherUserApp = ApplicationInfo().apply {
+            packageName = PACKAGE_NAME
+            uid = OTHER_USER_UID
+        }
+
+        repository.getSizes(listOf(APP, otherUserApp))
+
+        assertThat(queryCount.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun invalidateAll_queriesAgain() = runTest {
+        repository.getSizes(listOf(APP))
+
+        repository.invalidateAll()
+        repository.getSizes(listOf(APP))
+
+        assertThat(queryCount.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun getSize_failed_notCached() = runTest {
+        repository.getSize(FAILING_APP)
+        repository.getSize(FAILING_APP)
+
+        assertThat(queryCount.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun getSize_olderThanMaxAge_queriesAgain() = runTest {
+        repository.getSize(APP)
+
+        now += AppStorageSizeRepository.MAX_AGE_MS
+        repository.getSize(APP)
+
+        assertThat(queryCount.get()).isEqualTo(2)
+    }
+
+    private companion object {
+        const val PACKAGE_NAME = "package.name"
+        const val FAILING_PACKAGE_NAME = "failing.package.name"
+        const val OTHER_USER_UID = 1010001
+        val APP = ApplicationInfo().apply { packageName = PACKAGE_NAME }
+        val FAILING_APP = ApplicationInfo().apply { packageName = FAILING_PACKAGE_NAME }
+    }
+}